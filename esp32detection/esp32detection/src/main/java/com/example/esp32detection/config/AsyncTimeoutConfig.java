@@ -0,0 +1,37 @@
+package com.example.esp32detection.config;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+
+    /**
+     * Request attribute holding the async timeout, in milliseconds, of the handler
+     * that set it. Spring offers a per-request timeout only through WebAsyncTask,
+     * which a StreamingResponseBody cannot be wrapped in, so every other async
+     * request keeps the global timeout.
+     */
+    public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutConfig.class.getName() + ".timeoutMs";
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // Called after the global timeout is applied and before async processing starts
+                Object timeoutMs = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeoutMs instanceof Long ms && request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(ms);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.esp32detection.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.esp32detection.service.TesseractPool;
+
+@Configuration
+public class OcrExecutorConfig {
+
+    /**
+     * Bounded executor for OCR work. Sized to the engine pool, so extra threads
+     * would only wait for an engine; a full queue rejects instead of growing.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService ocrExecutor(TesseractPool tesseractPool,
+                                       @Value("${ocr.executor.queue-capacity:64}") int queueCapacity) {
+        int threads = tesseractPool.getSize();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "ocr-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -2,102 +2,83 @@ package com.example.esp32detection.controller;
 
 import com.example.esp32detection.model.IDCardData;
 import com.example.esp32detection.repository.IDCardRepository;
-import com.example.esp32detection.service.IDCardParserService;
-import com.example.esp32detection.service.OCRService;
-import net.sourceforge.tess4j.TesseractException;
+import com.example.esp32detection.service.BarcodeReader;
+import com.example.esp32detection.service.FrameQualityGate;
+import com.example.esp32detection.service.IDCardService;
+import com.example.esp32detection.service.ImagePreprocessor;
+import com.example.esp32detection.service.NameMatcher;
+import com.example.esp32detection.service.OcrCascade;
+import com.example.esp32detection.service.OcrJob;
+import com.example.esp32detection.service.OcrJobService;
+import com.example.esp32detection.service.OcrResultCache;
+import com.example.esp32detection.service.RegisterNumberIndex;
+import com.example.esp32detection.service.TesseractPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/ocr")
 @CrossOrigin(origins = "*")
 public class OCRController {
 
+    private static final Logger logger = LoggerFactory.getLogger(OCRController.class);
+
     @Autowired
-    private OCRService ocrService;
+    private IDCardService idCardService;
 
     @Autowired
-    private IDCardParserService parserService;
+    private OcrJobService ocrJobService;
 
     @Autowired
     private IDCardRepository idCardRepository;
 
+    @Autowired
+    private TesseractPool tesseractPool;
+
+    @Autowired
+    private OcrResultCache ocrResultCache;
+
+    @Autowired
+    private ImagePreprocessor imagePreprocessor;
+
+    @Autowired
+    private FrameQualityGate frameQualityGate;
+
+    @Autowired
+    private OcrCascade ocrCascade;
+
+    @Autowired
+    private RegisterNumberIndex registerNumberIndex;
+
+    @Autowired
+    private NameMatcher nameMatcher;
+
+    @Autowired
+    private BarcodeReader barcodeReader;
+
     @PostMapping("/register")
     public ResponseEntity<Map<String, Object>> registerNewUser(
             @RequestParam("front") MultipartFile frontFile,
             @RequestParam("back") MultipartFile backFile) {
         
-        Map<String, Object> response = new HashMap<>();
-        
         try {
-            // Extract text from front side
-            String frontText = ocrService.extractIDCardData(frontFile);
-            
-            // DEBUG: Print raw OCR text
-            System.out.println("\n===== FRONT OCR RAW TEXT =====");
-            System.out.println(frontText);
-            System.out.println("==============================\n");
-            
-            IDCardData frontData = parserService.parseIDCardText(frontText);
-            
-            // Extract text from back side
-            String backText = ocrService.extractIDCardData(backFile);
-            
-            // DEBUG: Print raw OCR text
-            System.out.println("\n===== BACK OCR RAW TEXT =====");
-            System.out.println(backText);
-            System.out.println("=============================\n");
-            
-            IDCardData backData = parserService.parseIDCardText(backText);
-            
-            // Merge both sides data
-            IDCardData mergedData = parserService.mergeCardData(frontData, backData);
-            mergedData.setFileName(frontFile.getOriginalFilename() + " & " + backFile.getOriginalFilename());
-            mergedData.setVerified(false);
-            
-            // Check if user already exists by register number
-            if (mergedData.getRegisterNumber() != null && 
-                idCardRepository.findByRegisterNumber(mergedData.getRegisterNumber()).isPresent()) {
-                response.put("status", "error");
-                response.put("message", "User with this register number already exists");
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
-            }
-            
-            // Save merged data
-            IDCardData savedData = idCardRepository.save(mergedData);
-            
-            // DEBUG: Print parsed data
-            System.out.println("\n===== PARSED DATA =====");
-            System.out.println("Name: " + savedData.getName());
-            System.out.println("Register Number: " + savedData.getRegisterNumber());
-            System.out.println("Programme: " + savedData.getProgramme());
-            System.out.println("Email: " + savedData.getEmail());
-            System.out.println("Blood Group: " + savedData.getBloodGroup());
-            System.out.println("Date of Birth: " + savedData.getDateOfBirth());
-            System.out.println("Valid From: " + savedData.getValidFrom());
-            System.out.println("Valid To: " + savedData.getValidTo());
-            System.out.println("=======================\n");
-            
-            response.put("status", "success");
-            response.put("message", "New user registered successfully");
-            response.put("data", savedData);
-            response.put("userId", savedData.getId());
-            
-            return ResponseEntity.ok(response);
-            
-        } catch (IOException | TesseractException e) {
-            response.put("status", "error");
-            response.put("message", "Failed to process ID card: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return idCardService.register(frontFile.getBytes(), frontFile.getOriginalFilename(),
+                    backFile.getBytes(), backFile.getOriginalFilename());
+        } catch (IOException e) {
+            return uploadError(e);
         }
     }
 
@@ -105,64 +86,130 @@ public class OCRController {
     public ResponseEntity<Map<String, Object>> loginUser(
             @RequestParam("file") MultipartFile frontFile) {
         
-        Map<String, Object> response = new HashMap<>();
+        try {
+            return idCardService.login(frontFile.getBytes());
+        } catch (IOException e) {
+            return uploadError(e);
+        }
+    }
+
+    @PostMapping("/login/burst")
+    public ResponseEntity<Map<String, Object>> loginUserFromBurst(
+            @RequestParam("files") MultipartFile[] frameFiles) {
         
         try {
-            // Extract text from front side
-            String frontText = ocrService.extractIDCardData(frontFile);
-            
-            // DEBUG: Print raw OCR text
-            System.out.println("\n===== LOGIN OCR RAW TEXT =====");
-            System.out.println(frontText);
-            System.out.println("==============================\n");
-            
-            IDCardData scannedData = parserService.parseIDCardText(frontText);
-            
-            String registerNumber = scannedData.getRegisterNumber();
-            
-            System.out.println("Extracted Register Number: " + registerNumber);
-            System.out.println("Extracted Name: " + scannedData.getName());
-            
-            if (registerNumber == null || registerNumber.isEmpty()) {
-                response.put("status", "error");
-                response.put("message", "Could not extract register number from ID card");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            List<byte[]> frames = new ArrayList<>(frameFiles.length);
+            for (MultipartFile frameFile : frameFiles) {
+                frames.add(frameFile.getBytes());
             }
+            return idCardService.loginBurst(frames);
+        } catch (IOException e) {
+            return uploadError(e);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> uploadError(IOException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", "Failed to process ID card: " + e.getMessage());
+        logger.error("Could not read uploaded ID card image", e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+
+    // ========== ASYNCHRONOUS OCR JOBS ==========
+
+    @PostMapping("/jobs/register")
+    public ResponseEntity<Map<String, Object>> submitRegisterJob(
+            @RequestParam("front") MultipartFile frontFile,
+            @RequestParam("back") MultipartFile backFile) {
+        
+        try {
+            byte[] frontBytes = frontFile.getBytes();
+            byte[] backBytes = backFile.getBytes();
+            String frontName = frontFile.getOriginalFilename();
+            String backName = backFile.getOriginalFilename();
             
-            return idCardRepository.findByRegisterNumber(registerNumber)
-                    .map(userData -> {
-                        boolean nameMatches = scannedData.getName() != null && 
-                            userData.getName() != null &&
-                            userData.getName().toLowerCase().contains(
-                                scannedData.getName().toLowerCase().split(" ")[0].toLowerCase()
-                            );
-                        
-                        if (nameMatches) {
-                            response.put("status", "success");
-                            response.put("message", "Login successful");
-                            response.put("authenticated", true);
-                            response.put("user", userData);
-                            return ResponseEntity.ok(response);
-                        } else {
-                            response.put("status", "error");
-                            response.put("message", "ID card details do not match records");
-                            response.put("authenticated", false);
-                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-                        }
-                    })
-                    .orElseGet(() -> {
-                        response.put("status", "error");
-                        response.put("message", "User not found. Please register first.");
-                        response.put("authenticated", false);
-                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-                    });
-            
-        } catch (IOException | TesseractException e) {
+            return jobAccepted(ocrJobService.submit("REGISTER",
+                    () -> idCardService.register(frontBytes, frontName, backBytes, backName)));
+        } catch (RejectedExecutionException e) {
+            return jobRejected();
+        } catch (IOException e) {
+            return uploadError(e);
+        }
+    }
+
+    @PostMapping("/jobs/login")
+    public ResponseEntity<Map<String, Object>> submitLoginJob(
+            @RequestParam("file") MultipartFile frontFile) {
+        
+        try {
+            byte[] frontBytes = frontFile.getBytes();
+            return jobAccepted(ocrJobService.submit("LOGIN", () -> idCardService.login(frontBytes)));
+        } catch (RejectedExecutionException e) {
+            return jobRejected();
+        } catch (IOException e) {
+            return uploadError(e);
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(
+            @PathVariable String jobId,
+            @RequestParam(value = "waitMs", defaultValue = "0") long waitMs) {
+        
+        OcrJob job = ocrJobService.await(jobId, waitMs);
+        Map<String, Object> response = new HashMap<>();
+        
+        if (job == null) {
             response.put("status", "error");
-            response.put("message", "Failed to process ID card: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            response.put("message", "Job not found or expired");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        
+        response.put("jobId", job.getId());
+        response.put("type", job.getType());
+        response.put("state", job.getState());
+        
+        ResponseEntity<Map<String, Object>> result = job.getResult();
+        if (result != null) {
+            response.put("httpStatus", result.getStatusCode().value());
+            response.put("result", result.getBody());
         }
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> jobAccepted(OcrJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "accepted");
+        response.put("jobId", job.getId());
+        response.put("state", job.getState());
+        response.put("statusUrl", "/api/ocr/jobs/" + job.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> jobRejected() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", "OCR queue is full, please retry later");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ocrJobService.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("pool", tesseractPool.getMetrics());
+        response.put("jobs", ocrJobService.getMetrics());
+        response.put("cache", ocrResultCache.getMetrics());
+        response.put("preprocess", imagePreprocessor.getMetrics());
+        response.put("login", idCardService.getLoginMetrics());
+        response.put("quality", frameQualityGate.getMetrics());
+        response.put("cascade", ocrCascade.getMetrics());
+        response.put("registerIndex", registerNumberIndex.getMetrics());
+        response.put("nameMatch", nameMatcher.getMetrics());
+        response.put("barcode", barcodeReader.getMetrics());
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/users")
@@ -185,7 +232,7 @@ public class OCRController {
         return idCardRepository.findById(id)
                 .map(user -> {
                     user.setVerified(true);
-                    idCardRepository.save(user);
+                    registerNumberIndex.put(idCardRepository.save(user));
                     response.put("status", "success");
                     response.put("message", "User verified successfully");
                     response.put("user", user);
@@ -204,6 +251,7 @@ public class OCRController {
         
         if (idCardRepository.existsById(id)) {
             idCardRepository.deleteById(id);
+            registerNumberIndex.remove(id);
             response.put("status", "success");
             response.put("message", "User deleted successfully");
             return ResponseEntity.ok(response);
@@ -1,9 +1,17 @@
 package com.example.esp32detection.controller;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,31 +20,57 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.esp32detection.config.AsyncTimeoutConfig;
 import com.example.esp32detection.model.Admin;
 import com.example.esp32detection.model.User;
 import com.example.esp32detection.model.Verification;
+import com.example.esp32detection.model.VerificationPage;
+import com.example.esp32detection.model.VerificationQuery;
 import com.example.esp32detection.service.AdminService;
+import com.example.esp32detection.service.UserCache;
 import com.example.esp32detection.service.UserService;
+import com.example.esp32detection.service.VerificationExporter;
+import com.example.esp32detection.service.VerificationLogWriter;
 import com.example.esp32detection.service.VerificationService;
+import com.example.esp32detection.service.VerificationStats;
 
 @RestController
 @RequestMapping("/api")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = VerificationController.NEXT_CURSOR_HEADER)
 public class VerificationController {
     
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final VerificationService verificationService;
     private final UserService userService;
     private final AdminService adminService;
+    private final VerificationExporter verificationExporter;
+    private final VerificationStats verificationStats;
+    private final UserCache userCache;
+    private final VerificationLogWriter verificationLogWriter;
     
     // Single constructor with all services
     public VerificationController(VerificationService verificationService, 
                                   UserService userService, 
-                                  AdminService adminService) {
+                                  AdminService adminService,
+                                  VerificationExporter verificationExporter,
+                                  VerificationStats verificationStats,
+                                  UserCache userCache,
+                                  VerificationLogWriter verificationLogWriter) {
         this.verificationService = verificationService;
         this.userService = userService;
         this.adminService = adminService;
+        this.verificationExporter = verificationExporter;
+        this.verificationStats = verificationStats;
+        this.userCache = userCache;
+        this.verificationLogWriter = verificationLogWriter;
     }
     
     // ========== AUTHENTICATION ENDPOINTS ==========
@@ -129,6 +163,11 @@ public class VerificationController {
     
     // ========== VERIFICATION ENDPOINTS ==========
     
+    /**
+     * Check a face match and log it. The log row is written in a batch after the
+     * response, so {@code data} is the verification without an id; read it back from
+     * /api/verifications to get one.
+     */
     @PostMapping("/verify")
     public ResponseEntity<Map<String, Object>> verifyUser(@RequestBody Map<String, Object> payload) {
         String name = (String) payload.get("name");
@@ -140,7 +179,8 @@ public class VerificationController {
         
         User user = userService.findByIdNumber(idNumber);
         if (user == null) {
-            Verification verification = verificationService.saveVerification(name, idNumber, matchScore, "NOT_REGISTERED", idCardData);
+            Verification verification = verificationService.saveVerification(null, name, idNumber, matchScore, "NOT_REGISTERED", idCardData);
+            verificationStats.record("NOT_REGISTERED", matchScore);
             response.put("success", false);
             response.put("status", "NOT_REGISTERED");
             response.put("message", "User not found. Please register first.");
@@ -150,7 +190,8 @@ public class VerificationController {
         }
         
         if ("BLOCKED".equals(user.getStatus())) {
-            Verification verification = verificationService.saveVerification(name, idNumber, matchScore, "DENIED", idCardData);
+            Verification verification = verificationService.saveVerification(user, name, idNumber, matchScore, "DENIED", idCardData);
+            verificationStats.record("DENIED", matchScore);
             response.put("success", false);
             response.put("status", "DENIED");
             response.put("message", "Access denied. User is blocked.");
@@ -160,7 +201,8 @@ public class VerificationController {
         }
         
         String status = matchScore >= 0.85 ? "GRANTED" : "DENIED";
-        Verification verification = verificationService.saveVerification(name, idNumber, matchScore, status, idCardData);
+        Verification verification = verificationService.saveVerification(user, name, idNumber, matchScore, status, idCardData);
+        verificationStats.record(status, matchScore);
         
         response.put("success", status.equals("GRANTED"));
         response.put("status", status);
@@ -207,18 +249,99 @@ public class VerificationController {
     
     // ========== VERIFICATION LOGS ENDPOINTS ==========
     
+    // Paged by id: pass the X-Next-Cursor of one page as ?before= to get the next.
+    // Optional filters: idNumber, status, from and to (ISO date-times, to exclusive).
+    
     @GetMapping("/verifications")
-    public ResponseEntity<List<Verification>> getAllVerifications() {
-        return ResponseEntity.ok(verificationService.getAllVerifications());
+    public ResponseEntity<List<Verification>> getAllVerifications(VerificationQuery query) {
+        return page(query);
     }
     
     @GetMapping("/verifications/granted")
-    public ResponseEntity<List<Verification>> getGrantedAccess() {
-        return ResponseEntity.ok(verificationService.getGrantedAccess());
+    public ResponseEntity<List<Verification>> getGrantedAccess(VerificationQuery query) {
+        query.setStatus("GRANTED");
+        return page(query);
     }
     
     @GetMapping("/verifications/denied")
-    public ResponseEntity<List<Verification>> getDeniedAccess() {
-        return ResponseEntity.ok(verificationService.getDeniedAccess());
+    public ResponseEntity<List<Verification>> getDeniedAccess(VerificationQuery query) {
+        query.setStatus("DENIED");
+        return page(query);
+    }
+    
+    /**
+     * GRANTED, DENIED and NOT_REGISTERED counts and a match-score histogram for the
+     * last hour by minute and the last day by hour, from memory. Counts start over
+     * when the application restarts.
+     */
+    @GetMapping("/verifications/stats")
+    public ResponseEntity<Map<String, Object>> getVerificationStats() {
+        return ResponseEntity.ok(verificationStats.snapshot());
+    }
+    
+    /**
+     * Metrics of the user lookups and verification log behind /api/verify, and of
+     * the exports.
+     */
+    @GetMapping("/verifications/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("userCache", userCache.getMetrics());
+        response.put("verificationLog", verificationLogWriter.getMetrics());
+        response.put("verificationExport", verificationExporter.getMetrics());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * The whole log, or the rows matching idNumber, status, from and to, oldest first
+     * as ?format=ndjson (default) or csv, optionally gzipped. Rows are streamed from
+     * the database to the client as they are read, so any size of export runs in
+     * constant memory. Answers 429 while verification.export.max-concurrent exports
+     * are already running.
+     */
+    @GetMapping("/verifications/export")
+    public ResponseEntity<StreamingResponseBody> exportVerifications(
+            VerificationQuery query,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        VerificationExporter.Format exportFormat = VerificationExporter.Format.parse(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        verificationService.normalize(query);
+        VerificationExporter.Slot slot = verificationExporter.tryAcquire();
+        if (slot == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        
+        // Also freed when the request completes, times out or fails without the body running
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(slot, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                slot.close();
+            }
+        });
+        // Outlives the global async timeout, which is left for the short requests
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, verificationExporter.getTimeoutMs());
+        StreamingResponseBody body = out -> {
+            try (slot) {
+                verificationExporter.export(query, exportFormat, gzip, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(VerificationExporter.fileName(exportFormat, gzip)).build().toString())
+                .body(body);
+    }
+    
+    private ResponseEntity<List<Verification>> page(VerificationQuery query) {
+        VerificationPage page = verificationService.getVerifications(query);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        return response.body(page.getItems());
     }
 }
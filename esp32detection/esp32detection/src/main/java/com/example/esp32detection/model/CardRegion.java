@@ -0,0 +1,39 @@
+package com.example.esp32detection.model;
+
+/**
+ * Where the ID card was found in a camera frame, in source pixel coordinates.
+ * Corners are ordered top-left, top-right, bottom-right, bottom-left.
+ */
+public class CardRegion {
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final int[][] corners;
+    
+    public CardRegion(int[][] corners) {
+        this.corners = corners;
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int[] corner : corners) {
+            minX = Math.min(minX, corner[0]);
+            minY = Math.min(minY, corner[1]);
+            maxX = Math.max(maxX, corner[0]);
+            maxY = Math.max(maxY, corner[1]);
+        }
+        this.x = minX;
+        this.y = minY;
+        this.width = maxX - minX;
+        this.height = maxY - minY;
+    }
+    
+    public int getX() { return x; }
+    
+    public int getY() { return y; }
+    
+    public int getWidth() { return width; }
+    
+    public int getHeight() { return height; }
+    
+    public int[][] getCorners() { return corners; }
+}
@@ -2,6 +2,8 @@ package com.example.esp32detection.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Entity
 @Table(name = "id_card_records")
@@ -68,6 +70,10 @@ public class IDCardData {
     @Column(name = "card_type")
     private String cardType;
 
+    // OCR confidence (0-100) of each parsed field, when Tesseract reported word confidences
+    @Transient
+    private Map<String, Integer> fieldConfidences = new LinkedHashMap<>();
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -236,4 +242,12 @@ public class IDCardData {
     public void setCardType(String cardType) {
         this.cardType = cardType;
     }
+
+    public Map<String, Integer> getFieldConfidences() {
+        return fieldConfidences;
+    }
+
+    public void setFieldConfidences(Map<String, Integer> fieldConfidences) {
+        this.fieldConfidences = fieldConfidences;
+    }
 }
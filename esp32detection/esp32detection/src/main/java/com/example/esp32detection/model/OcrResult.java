@@ -0,0 +1,51 @@
+package com.example.esp32detection.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text recognized from one card image plus diagnostics about how it was read.
+ */
+public class OcrResult {
+    /** Field confidence when Tesseract reported no words for it. */
+    public static final int UNKNOWN_CONFIDENCE = -1;
+    
+    private final String text;
+    private final CardRegion cardRegion;
+    private final Map<String, String> fields;
+    private final List<OcrWord> words;
+    private final Map<String, Integer> fieldConfidences;
+    
+    public OcrResult(String text, CardRegion cardRegion) {
+        this(text, cardRegion, Map.of());
+    }
+    
+    public OcrResult(String text, CardRegion cardRegion, Map<String, String> fields) {
+        this(text, cardRegion, fields, List.of(), Map.of());
+    }
+    
+    public OcrResult(String text, CardRegion cardRegion, Map<String, String> fields,
+                     List<OcrWord> words, Map<String, Integer> fieldConfidences) {
+        this.text = text;
+        this.cardRegion = cardRegion;
+        this.fields = Map.copyOf(fields);
+        this.words = List.copyOf(words);
+        this.fieldConfidences = Map.copyOf(fieldConfidences);
+    }
+    
+    public String getText() { return text; }
+    
+    /** Card crop used for OCR, or null when the whole frame was used. */
+    public CardRegion getCardRegion() { return cardRegion; }
+    
+    /** Text read from individual template regions, keyed by field name. */
+    public Map<String, String> getFields() { return fields; }
+    
+    public String getField(String name) { return fields.getOrDefault(name, ""); }
+    
+    /** Words Tesseract recognized, in reading order, with their confidences and boxes. */
+    public List<OcrWord> getWords() { return words; }
+    
+    /** Lowest word confidence within a template region, or UNKNOWN_CONFIDENCE. */
+    public int getFieldConfidence(String name) { return fieldConfidences.getOrDefault(name, UNKNOWN_CONFIDENCE); }
+}
@@ -0,0 +1,35 @@
+package com.example.esp32detection.model;
+
+/**
+ * One word as Tesseract recognized it: its text, its confidence from 0 to 100, and
+ * its bounding box in the pixel coordinates of the image that was read.
+ */
+public class OcrWord {
+    private final String text;
+    private final float confidence;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    
+    public OcrWord(String text, float confidence, int x, int y, int width, int height) {
+        this.text = text;
+        this.confidence = confidence;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+    
+    public String getText() { return text; }
+    
+    public float getConfidence() { return confidence; }
+    
+    public int getX() { return x; }
+    
+    public int getY() { return y; }
+    
+    public int getWidth() { return width; }
+    
+    public int getHeight() { return height; }
+}
@@ -2,7 +2,11 @@ package com.example.esp32detection.model;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class Verification {
+    // Assigned when the log writer inserts the row, after /api/verify has answered
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Integer id;
     private Integer userId;
     private String name;
@@ -0,0 +1,20 @@
+package com.example.esp32detection.model;
+
+import java.util.List;
+
+public class VerificationPage {
+    private final List<Verification> items;
+    private final Integer nextCursor;
+    
+    public VerificationPage(List<Verification> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<Verification> getItems() { return items; }
+    
+    /**
+     * The id to pass as {@code before} for the next page, or null on the last page.
+     */
+    public Integer getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,43 @@
+package com.example.esp32detection.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * One page of the verification log: rows older than the {@code before} id (the
+ * cursor from the previous page), newest first, optionally narrowed to one id
+ * number, one status and a time range that includes {@code from} and excludes
+ * {@code to}. Bound from the request parameters of the same names.
+ */
+public class VerificationQuery {
+    private Integer before;
+    private Integer limit;
+    private String idNumber;
+    private String status;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+    
+    public VerificationQuery() {}
+    
+    // Getters and Setters
+    public Integer getBefore() { return before; }
+    public void setBefore(Integer before) { this.before = before; }
+    
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+    
+    public String getIdNumber() { return idNumber; }
+    public void setIdNumber(String idNumber) { this.idNumber = idNumber; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+    
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+}
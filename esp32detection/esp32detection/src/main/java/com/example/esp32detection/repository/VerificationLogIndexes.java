@@ -0,0 +1,66 @@
+package com.example.esp32detection.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Creates the indexes behind VerificationRepository.findPage when they are missing.
+ * Each leads with a filter column and ends in id, so a filtered page is a backward
+ * range read from the cursor that stops after limit rows, however many rows match.
+ * A time range is a condition on timestamp, not on id, so each filter also has an
+ * index going on with timestamp and id: MySQL reads that one when the range holds
+ * fewer rows than it would skip in id order, and sorts just those.
+ * MySQL has no CREATE INDEX IF NOT EXISTS, so information_schema is checked first.
+ * A failure (no ALTER privilege, table not created yet) is logged and startup goes on.
+ */
+@Component
+public class VerificationLogIndexes {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationLogIndexes.class);
+
+    static final Map<String, String> INDEXES = new LinkedHashMap<>();
+    static {
+        INDEXES.put("idx_verification_logs_status_id", "verification_status, id");
+        INDEXES.put("idx_verification_logs_id_number_id", "id_number, id");
+        INDEXES.put("idx_verification_logs_timestamp_id", "`timestamp`, id");
+        INDEXES.put("idx_verification_logs_status_timestamp_id", "verification_status, `timestamp`, id");
+        INDEXES.put("idx_verification_logs_id_number_timestamp_id", "id_number, `timestamp`, id");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public VerificationLogIndexes(JdbcTemplate jdbcTemplate,
+                                  @Value("${verification.log.create-indexes:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void ensure() {
+        if (!enabled) return;
+        for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+            try {
+                Integer found = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() "
+                        + "AND table_name = 'verification_logs' AND index_name = ?",
+                    Integer.class, index.getKey());
+                if (found != null && found > 0) continue;
+
+                jdbcTemplate.execute("CREATE INDEX " + index.getKey() + " ON verification_logs (" + index.getValue() + ")");
+                logger.info("Created index {} on verification_logs ({})", index.getKey(), index.getValue());
+            } catch (DataAccessException e) {
+                logger.warn("Could not create index {} on verification_logs: {}", index.getKey(), e.getMessage());
+            }
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.esp32detection.repository;
 
 import com.example.esp32detection.model.Verification;
+import com.example.esp32detection.model.VerificationQuery;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Repository
 public class VerificationRepository {
@@ -34,24 +40,87 @@ public class VerificationRepository {
         }
     };
     
-    public int save(Verification verification) {
-        String sql = "INSERT INTO verification_logs (user_id, name, id_number, face_match_score, verification_status, id_card_data) VALUES (?, ?, ?, ?, ?, ?)";
-        return jdbcTemplate.update(sql, 
-            verification.getUserId(),
-            verification.getName(), 
-            verification.getIdNumber(), 
-            verification.getFaceMatchScore(), 
-            verification.getVerificationStatus(),
-            verification.getIdCardData());
+    /**
+     * Insert verifications in one JDBC batch, keeping the time each was made rather
+     * than the time it was written.
+     */
+    public void saveAll(List<Verification> verifications) {
+        String sql = "INSERT INTO verification_logs (user_id, name, id_number, face_match_score, verification_status, id_card_data, `timestamp`) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, verifications, verifications.size(), (ps, verification) -> {
+            ps.setObject(1, verification.getUserId());
+            ps.setString(2, verification.getName());
+            ps.setString(3, verification.getIdNumber());
+            ps.setObject(4, verification.getFaceMatchScore());
+            ps.setString(5, verification.getVerificationStatus());
+            ps.setString(6, verification.getIdCardData());
+            ps.setTimestamp(7, Timestamp.valueOf(verification.getTimestamp()));
+        });
     }
     
-    public List<Verification> findAll() {
-        String sql = "SELECT * FROM verification_logs ORDER BY id DESC LIMIT 100";
-        return jdbcTemplate.query(sql, rowMapper);
+    /**
+     * Rows matching the query, newest first, fetching at most {@code limit} of them.
+     * Paging is by id rather than OFFSET, so a deep page costs the same as the first:
+     * each filter has an index that leads with it and ends in id (see
+     * VerificationLogIndexes), and MySQL reads it backwards from the cursor. A time
+     * range is matched on the timestamps themselves: ids are not in time order (an
+     * overflowed log entry is inserted ahead of older queued ones, and the clock can
+     * step back), so no id range stands in for it. Each filter also has an index
+     * that leads with it and goes on with timestamp, for a range too narrow to be
+     * worth reading in id order.
+     */
+    public List<Verification> findPage(VerificationQuery query, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM verification_logs WHERE 1 = 1");
+        if (query.getBefore() != null) {
+            sql.append(" AND id < ?");
+            args.add(query.getBefore());
+        }
+        appendFilters(sql, args, query);
+        sql.append(" ORDER BY id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), rowMapper, args.toArray());
+    }
+    
+    /**
+     * Hand every row matching the query's filters to {@code action}, oldest first,
+     * ignoring its cursor and limit. The rows are streamed: Connector/J only does that
+     * for a forward-only, read-only statement with a fetch size of Integer.MIN_VALUE,
+     * and then reads one row off the socket per next() instead of buffering the whole
+     * result. Its connection can run nothing else until the rows are read or closed.
+     */
+    public void forEach(VerificationQuery query, Consumer<Verification> action) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM verification_logs WHERE 1 = 1");
+        appendFilters(sql, args, query);
+        sql.append(" ORDER BY id");
+        
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> action.accept(rowMapper.mapRow(rs, rs.getRow())));
     }
     
-    public List<Verification> findByStatus(String status) {
-        String sql = "SELECT * FROM verification_logs WHERE verification_status = ? ORDER BY id DESC";
-        return jdbcTemplate.query(sql, rowMapper, status);
+    private static void appendFilters(StringBuilder sql, List<Object> args, VerificationQuery query) {
+        if (query.getIdNumber() != null) {
+            sql.append(" AND id_number = ?");
+            args.add(query.getIdNumber());
+        }
+        if (query.getStatus() != null) {
+            sql.append(" AND verification_status = ?");
+            args.add(query.getStatus());
+        }
+        if (query.getFrom() != null) {
+            sql.append(" AND `timestamp` >= ?");
+            args.add(Timestamp.valueOf(query.getFrom()));
+        }
+        if (query.getTo() != null) {
+            sql.append(" AND `timestamp` < ?");
+            args.add(Timestamp.valueOf(query.getTo()));
+        }
     }
 }
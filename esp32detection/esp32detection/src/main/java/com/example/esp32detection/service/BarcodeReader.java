@@ -0,0 +1,314 @@
+package com.example.esp32detection.service;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads a Code 128 or Code 39 barcode from a card image along a handful of
+ * scanlines, which costs a small fraction of one Tesseract run. Each scanline is
+ * thresholded halfway between its darkest and brightest pixel, turned into bar and
+ * space widths, and decoded in both directions so an upside-down card reads too.
+ * Rows are scanned first, then columns for cards photographed sideways. Code 128 is
+ * only accepted with a valid check symbol; Code 39 has none and must be framed by its
+ * start and stop characters.
+ */
+@Component
+public class BarcodeReader {
+
+    // Code 128 bar and space widths in modules; 103-105 start A/B/C, 106 the stop's first six
+    static final int[][] CODE128 = widths(
+        "212222", "222122", "222221", "121223", "121322", "131222", "122213", "122312", "132212", "221213",
+        "221312", "231212", "112232", "122132", "122231", "113222", "123122", "123221", "223211", "221132",
+        "221231", "213212", "223112", "312131", "311222", "321122", "321221", "312212", "322112", "322211",
+        "212123", "212321", "232121", "111323", "131123", "131321", "112313", "132113", "132311", "211313",
+        "231113", "231311", "112133", "112331", "132131", "113123", "113321", "133121", "313121", "211331",
+        "231131", "213113", "213311", "213131", "311123", "311321", "331121", "312113", "312311", "332111",
+        "314111", "221411", "431111", "111224", "111422", "121124", "121421", "141122", "141221", "112214",
+        "112412", "122114", "122411", "142112", "142211", "241211", "221114", "413111", "241112", "134111",
+        "111242", "121142", "121241", "114212", "124112", "124211", "411212", "421112", "421211", "212141",
+        "214121", "412121", "111143", "111341", "131141", "114113", "114311", "411113", "411311", "113141",
+        "114131", "311141", "411131", "211412", "211214", "211232", "233111");
+
+    private static final int START_A = 103;
+    private static final int STOP = 106;
+    private static final float MAX_VARIANCE = 1.5f;
+
+    // Code 39 characters as nine bars and spaces, a set bit for each wide one
+    static final String CODE39_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ-. $/+%*";
+    static final int[] CODE39 = {
+        0x034, 0x121, 0x061, 0x160, 0x031, 0x130, 0x070, 0x025, 0x124, 0x064,
+        0x109, 0x049, 0x148, 0x019, 0x118, 0x058, 0x00D, 0x10C, 0x04C, 0x01C,
+        0x103, 0x043, 0x142, 0x013, 0x112, 0x052, 0x007, 0x106, 0x046, 0x016,
+        0x181, 0x0C1, 0x1C0, 0x091, 0x190, 0x0D0, 0x085, 0x184, 0x0C4, 0x0A8,
+        0x0A2, 0x08A, 0x02A, 0x094
+    };
+    private static final int CODE39_ASTERISK = 0x094;
+
+    private final boolean enabled;
+    private final int scanlines;
+    private final int minContrast;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder decoded = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+
+    public BarcodeReader(@Value("${ocr.barcode.enabled:true}") boolean enabled,
+                         @Value("${ocr.barcode.scanlines:24}") int scanlines,
+                         @Value("${ocr.barcode.min-contrast:48}") int minContrast) {
+        this.enabled = enabled;
+        this.scanlines = Math.max(1, scanlines);
+        this.minContrast = minContrast;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The text of the first barcode found, or null.
+     */
+    public String read(BufferedImage image) {
+        if (!enabled) return null;
+        attempts.increment();
+        long start = System.nanoTime();
+        try {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int[] rgb = new int[Math.max(width, height)];
+            int[] luminance = new int[rgb.length];
+            int[] runs = new int[rgb.length + 1];
+
+            for (int i = 0; i < scanlines * 2; i++) {
+                boolean row = i < scanlines;
+                int line = (i % scanlines + 1) * (row ? height : width) / (scanlines + 1);
+                int length = row ? width : height;
+                if (row) {
+                    image.getRGB(0, line, width, 1, rgb, 0, width);
+                } else {
+                    image.getRGB(line, 0, 1, height, rgb, 0, 1);
+                }
+                for (int x = 0; x < length; x++) {
+                    int p = rgb[x];
+                    luminance[x] = (((p >> 16) & 0xFF) * 299 + ((p >> 8) & 0xFF) * 587 + (p & 0xFF) * 114) / 1000;
+                }
+
+                String text = decodeLine(luminance, length, runs);
+                if (text != null) {
+                    decoded.increment();
+                    return text;
+                }
+            }
+            return null;
+        } finally {
+            decodeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Decode one scanline of luminance values, forwards and then backwards.
+     */
+    String decodeLine(int[] luminance, int length, int[] runs) {
+        int min = 255;
+        int max = 0;
+        for (int x = 0; x < length; x++) {
+            min = Math.min(min, luminance[x]);
+            max = Math.max(max, luminance[x]);
+        }
+        if (max - min < minContrast) return null;
+        int threshold = (min + max) / 2;
+
+        // Widths of alternating runs, starting with the first dark one
+        int count = 0;
+        int x = 0;
+        while (x < length && luminance[x] >= threshold) x++;
+        while (x < length) {
+            boolean dark = luminance[x] < threshold;
+            int start = x;
+            while (x < length && (luminance[x] < threshold) == dark) x++;
+            runs[count++] = x - start;
+        }
+        if (count % 2 == 0) count--; // end on a bar
+
+        for (int direction = 0; direction < 2; direction++) {
+            String text = decodeCode128(runs, count);
+            if (text == null) text = decodeCode39(runs, count);
+            if (text != null) return text;
+            reverse(runs, count);
+        }
+        return null;
+    }
+
+    static String decodeCode128(int[] runs, int count) {
+        for (int at = 0; at + 6 <= count; at += 2) {
+            int start = match128(runs, at, START_A, START_A + 2);
+            if (start < 0) continue;
+
+            int checksum = start;
+            StringBuilder values = new StringBuilder();
+            int position = at + 6;
+            int previous = -1;
+            boolean stopped = false;
+            while (position + 6 <= count) {
+                int value = match128(runs, position, 0, STOP);
+                if (value < 0 || (value >= START_A && value < STOP)) break;
+                position += 6;
+                if (value == STOP) {
+                    stopped = true;
+                    break;
+                }
+                if (previous >= 0) {
+                    checksum += previous * values.length();
+                }
+                values.append((char) value);
+                previous = value;
+            }
+            // The last symbol before the stop is the check symbol, weighted out of the sum
+            if (!stopped || values.length() < 2) continue;
+            int check = values.charAt(values.length() - 1);
+            values.setLength(values.length() - 1);
+            if (checksum % 103 != check) continue;
+
+            String text = translate128(start, values);
+            if (!text.isEmpty()) return text;
+        }
+        return null;
+    }
+
+    private static int match128(int[] runs, int at, int from, int to) {
+        int total = 0;
+        for (int k = 0; k < 6; k++) total += runs[at + k];
+        float module = total / 11f;
+
+        int best = -1;
+        float bestVariance = MAX_VARIANCE;
+        for (int code = from; code <= to; code++) {
+            int[] pattern = CODE128[code];
+            float variance = 0;
+            for (int k = 0; k < 6 && variance < bestVariance; k++) {
+                variance += Math.abs(runs[at + k] / module - pattern[k]);
+            }
+            if (variance < bestVariance) {
+                bestVariance = variance;
+                best = code;
+            }
+        }
+        return best;
+    }
+
+    private static String translate128(int start, CharSequence values) {
+        StringBuilder text = new StringBuilder(values.length() * 2);
+        int set = start - START_A; // 0 = A, 1 = B, 2 = C
+        boolean shift = false;
+        for (int i = 0; i < values.length(); i++) {
+            int value = values.charAt(i);
+            int current = shift ? 1 - set : set;
+            shift = false;
+            if (current == 2) {
+                if (value < 100) {
+                    if (value < 10) text.append('0');
+                    text.append(value);
+                } else if (value == 100) {
+                    set = 1;
+                } else if (value == 101) {
+                    set = 0;
+                }
+            } else if (value < 96) {
+                text.append(current == 0 && value >= 64 ? (char) (value - 64) : (char) (value + 32));
+            } else if (value == 98) {
+                shift = true;
+            } else if (value == 99) {
+                set = 2;
+            } else if (value == 100 && current == 0) {
+                set = 1;
+            } else if (value == 101 && current == 1) {
+                set = 0;
+            }
+            // FNC1-4 carry no text
+        }
+        return text.toString();
+    }
+
+    static String decodeCode39(int[] runs, int count) {
+        for (int at = 0; at + 9 <= count; at += 2) {
+            if (pattern39(runs, at) != CODE39_ASTERISK) continue;
+
+            StringBuilder text = new StringBuilder();
+            int position = at + 10;
+            while (position + 9 <= count) {
+                int pattern = pattern39(runs, position);
+                int index = indexOf39(pattern);
+                if (index < 0) break;
+                if (pattern == CODE39_ASTERISK) {
+                    if (text.length() > 0) return text.toString();
+                    break;
+                }
+                text.append(CODE39_ALPHABET.charAt(index));
+                position += 10;
+            }
+        }
+        return null;
+    }
+
+    // Nine runs as a wide/narrow bit pattern when exactly three are clearly wider, else -1
+    private static int pattern39(int[] runs, int at) {
+        int narrowMax = 0;
+        int wideMin = Integer.MAX_VALUE;
+        int pattern = 0;
+        // The three widest runs are wide; ties at the cut make the pattern unreadable
+        int[] order = new int[9];
+        for (int k = 0; k < 9; k++) order[k] = runs[at + k];
+        Arrays.sort(order);
+        int cut = order[5];
+        if (order[6] == cut) return -1;
+        for (int k = 0; k < 9; k++) {
+            int width = runs[at + k];
+            if (width > cut) {
+                pattern |= 1 << (8 - k);
+                wideMin = Math.min(wideMin, width);
+            } else {
+                narrowMax = Math.max(narrowMax, width);
+            }
+        }
+        return wideMin * 2 >= narrowMax * 3 ? pattern : -1;
+    }
+
+    private static int indexOf39(int pattern) {
+        for (int i = 0; i < CODE39.length; i++) {
+            if (CODE39[i] == pattern) return i;
+        }
+        return -1;
+    }
+
+    private static void reverse(int[] runs, int count) {
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int swap = runs[i];
+            runs[i] = runs[j];
+            runs[j] = swap;
+        }
+    }
+
+    private static int[][] widths(String... patterns) {
+        int[][] widths = new int[patterns.length][];
+        for (int i = 0; i < patterns.length; i++) {
+            widths[i] = patterns[i].chars().map(c -> c - '0').toArray();
+        }
+        return widths;
+    }
+
+    public Map<String, Object> getMetrics() {
+        long count = attempts.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("attempts", count);
+        metrics.put("decoded", decoded.sum());
+        metrics.put("hitRatio", count == 0 ? 0.0 : (double) decoded.sum() / count);
+        metrics.put("avgMs", count == 0 ? 0.0 : decodeNanos.sum() / 1_000_000.0 / count);
+        return metrics;
+    }
+}
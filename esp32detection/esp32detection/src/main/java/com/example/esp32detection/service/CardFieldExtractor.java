@@ -0,0 +1,736 @@
+package com.example.esp32detection.service;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.example.esp32detection.service.OcrTokenizer.Label;
+import com.example.esp32detection.service.OcrTokenizer.Token;
+
+/**
+ * Field extraction over tokenized, normalized OCR text. Each field is a short list of
+ * rules tried in order, and the value with the best confidence wins, as the regex
+ * cascade used to do. The rules reproduce what those expressions matched, but they
+ * only start at label tokens or single candidate characters, look a bounded distance
+ * ahead or skip candidates whose scan is already known to fail, and never backtrack.
+ * Parsing cost is therefore linear in the text, which is itself capped at
+ * MAX_TEXT_LENGTH.
+ * <p>
+ * Labels are matched as whole words (see OcrTokenizer), so "Spin 600040" is no longer
+ * read as a pin label, nor "Tokyo 2020" as a validity date. Methods return null when
+ * no rule matched. Not thread-safe; build one per parse.
+ */
+final class CardFieldExtractor {
+
+    static final int MAX_TEXT_LENGTH = 8192;
+    private static final int MIN_ADDRESS_LENGTH = 10;
+    private static final int MAX_ADDRESS_LENGTH = 200;
+
+    // Confidence bonus the old expressions earned for being case-insensitive and
+    // whitespace tolerant; kept so that ties resolve exactly as before
+    private static final int LABELLED = 10;
+    private static final int LOOSE = 5;
+    private static final int BARE = 0;
+
+    private final String text;
+    private final int length;
+    private final OcrTokenizer.Tokens tokens;
+
+    CardFieldExtractor(String normalizedText) {
+        this(normalizedText, OcrTokenizer.Vocabulary.DEFAULT);
+    }
+
+    CardFieldExtractor(String normalizedText, OcrTokenizer.Vocabulary vocabulary) {
+        this.text = normalizedText.length() > MAX_TEXT_LENGTH
+                ? normalizedText.substring(0, MAX_TEXT_LENGTH)
+                : normalizedText;
+        this.length = text.length();
+        this.tokens = OcrTokenizer.tokenize(text, vocabulary);
+    }
+
+    private static final class Best {
+        String value;
+        int confidence;
+
+        void offer(String candidate, int bonus) {
+            if (candidate == null) return;
+            int score = confidence(candidate, bonus);
+            if (value == null || score > confidence) {
+                value = candidate;
+                confidence = score;
+            }
+        }
+    }
+
+    static int confidence(String value, int bonus) {
+        if (value == null || value.trim().isEmpty()) return 0;
+
+        int score = 50;
+        if (value.length() >= 3 && value.length() <= 100) score += 10;
+        score += bonus;
+        if (hasOnlyExpectedCharacters(value)) score += 10;
+        if (value.trim().equals(value)) score += 5;
+        return score;
+    }
+
+    // ========== CARD TYPE ==========
+
+    /**
+     * "Pin" (case-sensitive, anywhere) followed by an optional separator and six digits.
+     */
+    boolean hasPinCode() {
+        for (int i = text.indexOf("Pin"); i >= 0; i = text.indexOf("Pin", i + 1)) {
+            if (digitsAfterSeparator(i + 3, 6, true) != null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * A card template's own pattern for a field: group 1 when the pattern has a group,
+     * otherwise the whole match. Null when it does not match.
+     */
+    String find(Pattern pattern) {
+        Matcher matcher = pattern.matcher(text);
+        if (!matcher.find()) return null;
+        return matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
+    }
+
+    // ========== FRONT SIDE ==========
+
+    String name() {
+        Best best = new Best();
+        best.offer(nameAfterLabel(), LABELLED);
+        best.offer(nameAfterColon(), LABELLED);
+        best.offer(nameAfterInstitution(), LOOSE);
+        return best.value;
+    }
+
+    // Name : JOHN DOE Programme ...
+    private String nameAfterLabel() {
+        for (Token label : tokens.labelled(Label.NAME)) {
+            int start = afterSeparator(label.end, false);
+            int end = lazyRun(start, 3, 51, CardFieldExtractor::isLetterChar, CardFieldExtractor::isLetterOrSpace,
+                    k -> k == length || startsWithIgnoreCase(k, "programme") || startsWithIgnoreCase(k, "register"));
+            if (end >= 0) return text.substring(start, end);
+        }
+        return null;
+    }
+
+    // Name of the student : JOHN DOE Programme ...
+    private String nameAfterColon() {
+        int colon = -1;
+        for (Token label : tokens.labelled(Label.NAME)) {
+            if (colon >= label.end) continue; // same colon as a label that already failed
+            colon = text.indexOf(':', label.end);
+            if (colon < 0) return null;
+            int start = skipSpaces(colon + 1);
+            int end = lazyRun(start, 2, Integer.MAX_VALUE, CardFieldExtractor::isLetterChar,
+                    CardFieldExtractor::isLetterOrSpace, k -> startsWithIgnoreCase(k, "programme"));
+            if (end >= 0) return text.substring(start, end);
+        }
+        return null;
+    }
+
+    // ... & TECHNOLOGY JOHN DOE Programme ..., with no label at all
+    private String nameAfterInstitution() {
+        for (Token token : tokens.all) {
+            if (token.kind != OcrTokenizer.Kind.WORD || token.length() < 10
+                    || !text.startsWith("TECHNOLOGY", token.end - 10)) {
+                continue;
+            }
+            int start = skipSpaces(token.end);
+            if (start - token.end > 30) continue;
+            int end = lazyRun(start, 3, 51, CardFieldExtractor::isUpper, CardFieldExtractor::isUpperOrSpace, k -> {
+                int next = skipSpaces(k);
+                return text.startsWith("Programme", next) || text.startsWith("Register", next)
+                        || text.startsWith("Name", next);
+            });
+            if (end >= 0) return text.substring(start, end);
+        }
+        return null;
+    }
+
+    String programme() {
+        Best best = new Best();
+        best.offer(programmeAfterLabel(true), LABELLED);
+        best.offer(programmeAfterLabel(false), LABELLED);
+        best.offer(programmeRestOfLine(), LABELLED);
+        best.offer(programmeWithBranch(), LABELLED);
+        return best.value;
+    }
+
+    // "Programme : B.Tech (CSE) Register ...". The short form also fires inside
+    // "Programme", where the value then starts at "me", as the old pattern did.
+    private String programmeAfterLabel(boolean fullLabel) {
+        IntPredicate stop = k -> k == length || startsWithIgnoreCase(k, "register") || startsWithIgnoreCase(k, "valid");
+        int failedAt = -1;
+        for (Token token : tokens.all) {
+            int labelEnd;
+            if (token.label == Label.PROGRAMME) {
+                labelEnd = fullLabel ? token.end : token.start + 7;
+            } else if (token.label == Label.PROGRAM && !fullLabel) {
+                labelEnd = token.end;
+            } else {
+                continue;
+            }
+            // A label inside a run that already failed hits the same character
+            if (labelEnd < failedAt) continue;
+            // A run that fails from after the separator may still succeed starting
+            // in the spaces before it, exactly like regex backtracking would
+            int first = afterSeparator(labelEnd, false);
+            for (int start = first; start >= labelEnd; start--) {
+                int end = lazyRun(start, 1, Integer.MAX_VALUE, CardFieldExtractor::isProgrammeChar,
+                        CardFieldExtractor::isProgrammeChar, stop);
+                if (end >= 0) return text.substring(start, end);
+                if (start == first) failedAt = -1 - end;
+            }
+        }
+        return null;
+    }
+
+    // ": B.Tech ..." up to the end of the line
+    private String programmeRestOfLine() {
+        for (Token token : tokens.all) {
+            if (token.kind != OcrTokenizer.Kind.SYMBOL || text.charAt(token.start) != ':') continue;
+            int start = skipSpaces(token.end);
+            if (bTechEnd(start) >= 0) {
+                int lineEnd = text.indexOf('\n', start);
+                return text.substring(start, lineEnd < 0 ? length : lineEnd);
+            }
+        }
+        return null;
+    }
+
+    // "B.Tech (Computer Science and Engineering)" anywhere
+    private String programmeWithBranch() {
+        int close = -1;
+        for (int i = 0; i < length; i++) {
+            int end = bTechEnd(i);
+            if (end < 0) continue;
+            end = skipSpaces(end);
+            if (end >= length || text.charAt(end) != '(') continue;
+            if (close <= end) {
+                close = text.indexOf(')', end + 1);
+                if (close < 0) return null;
+            }
+            if (close > end + 1) return text.substring(i, close + 1);
+        }
+        return null;
+    }
+
+    // End of "B.Tech", "b tech", "BTech"... starting at i, or -1
+    private int bTechEnd(int i) {
+        if (i >= length || lower(text.charAt(i)) != 'b') return -1;
+        int j = i + 1;
+        if (j < length && text.charAt(j) == '.') j++;
+        j = skipSpaces(j);
+        return startsWithIgnoreCase(j, "tech") ? j + 4 : -1;
+    }
+
+    String registerNumber() {
+        Best best = new Best();
+        best.offer(registerNumberAfterLabel(Label.REGISTER, "no"), LABELLED);
+        best.offer(registerNumberAfterLabel(Label.REG, "no"), LABELLED);
+        best.offer(registerNumberAfterLabel(Label.REGISTER, "number"), LABELLED);
+        best.offer(bareRegisterNumber(), BARE);
+        return best.value;
+    }
+
+    // "Register No. : RA...", "Reg. No RA...", "Register Number: RA..."
+    private String registerNumberAfterLabel(Label label, String suffix) {
+        for (Token token : tokens.labelled(label)) {
+            int j = token.end;
+            if (label == Label.REG) j = skipChar(j, '.');
+            j = skipSpaces(j);
+            if (!startsWithIgnoreCase(j, suffix)) continue;
+            j += suffix.length();
+            if (suffix.equals("no")) j = skipChar(j, '.');
+            String value = registerValue(afterSeparator(j, false), true);
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    // Two letters then 8 to 12 digits; longer digit runs are cut at 12
+    private String registerValue(int start, boolean anyCase) {
+        if (start + 2 > length) return null;
+        char first = text.charAt(start);
+        char second = text.charAt(start + 1);
+        if (anyCase ? !(isLetterChar(first) && isLetterChar(second)) : !(isUpper(first) && isUpper(second))) {
+            return null;
+        }
+        int digits = digitRun(start + 2, 12);
+        return digits >= 8 ? text.substring(start, start + 2 + digits) : null;
+    }
+
+    // Two capitals directly followed by ten digits, anywhere
+    private String bareRegisterNumber() {
+        for (Token token : tokens.all) {
+            if (token.kind == OcrTokenizer.Kind.NUMBER && token.length() >= 10 && token.start >= 2
+                    && isUpper(text.charAt(token.start - 1)) && isUpper(text.charAt(token.start - 2))) {
+                return text.substring(token.start - 2, token.start + 10);
+            }
+        }
+        return null;
+    }
+
+    String validFrom() {
+        Best best = new Best();
+        best.offer(monthYearAfter(Label.VALID, "from", 1), LABELLED);
+        best.offer(monthYearAfter(Label.FROM, null, 3), LABELLED);
+        return best.value;
+    }
+
+    String validTo() {
+        Best best = new Best();
+        best.offer(monthYearAfter(Label.TO, null, 1), LABELLED);
+        best.offer(monthYearAfter(Label.VALID, "to", 1), LABELLED);
+        return best.value;
+    }
+
+    // "<label> [suffix] : Aug-2022"; short labels insist on a 3 to 9 letter month
+    private String monthYearAfter(Label label, String suffix, int minLetters) {
+        int maxLetters = minLetters > 1 ? 9 : Integer.MAX_VALUE;
+        for (Token token : tokens.labelled(label)) {
+            int j = token.end;
+            if (suffix != null) {
+                j = skipSpaces(j);
+                if (!startsWithIgnoreCase(j, suffix)) continue;
+                j += suffix.length();
+            }
+            int start = afterSeparator(j, false);
+            int letters = letterRun(start);
+            if (letters < minLetters || letters > maxLetters) continue;
+            int k = start + letters;
+            if (k < length && (text.charAt(k) == '-' || OcrTokenizer.isSpace(text.charAt(k)))
+                    && digitRun(k + 1, 4) == 4) {
+                return text.substring(start, k + 5);
+            }
+            if (digitRun(k, 4) == 4) return text.substring(start, k + 4);
+        }
+        return null;
+    }
+
+    // ========== BACK SIDE ==========
+
+    String bloodGroup() {
+        Best best = new Best();
+        best.offer(bloodGroupAfterLabel(false), LABELLED);
+        best.offer(bloodGroupAfterLabel(true), LABELLED);
+        best.offer(bareBloodGroup(), LOOSE);
+        best.offer(bloodGroupMisread(), LOOSE);
+        return best.value;
+    }
+
+    private String bloodGroupAfterLabel(boolean singleLetter) {
+        for (Token token : tokens.labelled(Label.BLOOD)) {
+            int j = skipSpaces(token.end);
+            if (!startsWithIgnoreCase(j, "group")) continue;
+            int start = afterSeparator(j + 5, false);
+            int letters = 0;
+            while (start + letters < length && isBloodType(upper(text.charAt(start + letters)))) letters++;
+            if (letters == 0) continue;
+            String value;
+            if (singleLetter) {
+                int sign = skipSpaces(start + 1);
+                value = isRhesus(sign) ? text.substring(start, sign + 1) : null;
+            } else {
+                value = rhesusSuffix(start, start + letters, true);
+            }
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    // "B +ve" anywhere, with capital blood types and "ve" or "VE"
+    private String bareBloodGroup() {
+        for (int i = 0; i < length; i++) {
+            if (!isBloodType(text.charAt(i)) || (i > 0 && isBloodType(text.charAt(i - 1)))) continue;
+            int end = i;
+            while (end < length && isBloodType(text.charAt(end))) end++;
+            String value = rhesusSuffix(i, end, false);
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    // Letters [start, lettersEnd) followed by spaces, a sign, spaces and maybe "ve"
+    private String rhesusSuffix(int start, int lettersEnd, boolean anyCase) {
+        int k = skipSpaces(lettersEnd);
+        if (!isRhesus(k)) return null;
+        k = skipSpaces(k + 1);
+        if (k + 2 <= length) {
+            String ve = text.substring(k, k + 2);
+            if (anyCase ? ve.equalsIgnoreCase("ve") : ve.equals("ve") || ve.equals("VE")) k += 2;
+        }
+        return text.substring(start, k);
+    }
+
+    // First run of digits or A/B/O, with whatever "ve" fragments follow it
+    private String bloodGroupMisread() {
+        for (int i = 0; i < length; i++) {
+            if (!isDigitChar(text.charAt(i)) && !isBloodType(text.charAt(i))) continue;
+            int k = i;
+            while (k < length && (isDigitChar(text.charAt(k)) || isBloodType(text.charAt(k)))) k++;
+            k = skipSpaces(k);
+            if (k < length && "vV+-".indexOf(text.charAt(k)) >= 0) k++;
+            if (k < length && "eE€".indexOf(text.charAt(k)) >= 0) k++;
+            return text.substring(i, k);
+        }
+        return null;
+    }
+
+    String dateOfBirth() {
+        Best best = new Best();
+        best.offer(dateAfterDateOfBirth(), LABELLED);
+        best.offer(dateAfterLabel(Label.BIRTH), LABELLED);
+        best.offer(dateAfterLabel(Label.DOB), LABELLED);
+        best.offer(bareDate(), LOOSE);
+        return best.value;
+    }
+
+    private String dateAfterDateOfBirth() {
+        for (Token token : tokens.labelled(Label.DATE)) {
+            int j = skipSpaces(token.end);
+            if (!startsWithIgnoreCase(j, "of")) continue;
+            j = skipSpaces(j + 2);
+            if (!startsWithIgnoreCase(j, "birth")) continue;
+            String value = separatedDate(afterSeparator(j + 5, false));
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    private String dateAfterLabel(Label label) {
+        for (Token token : tokens.labelled(label)) {
+            String value = separatedDate(afterSeparator(token.end, false));
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    // 12-Mar-2004, 05/Oct/2003, 1\April\2002
+    private String separatedDate(int start) {
+        int day = digitRun(start, 3);
+        if (day < 1 || day > 2) return null;
+        int k = start + day;
+        if (!isDateSeparator(k)) return null;
+        int month = 0;
+        while (k + 1 + month < length && isWordChar(text.charAt(k + 1 + month))) month++;
+        if (month < 3 || month > 9) return null;
+        k += 1 + month;
+        if (!isDateSeparator(k) || digitRun(k + 1, 4) != 4) return null;
+        return text.substring(start, k + 5);
+    }
+
+    // "12 Mar 2004", "12-Mar-2004", "12Mar2004" anywhere
+    private String bareDate() {
+        for (Token token : tokens.all) {
+            if (token.kind != OcrTokenizer.Kind.NUMBER) continue;
+            int start = Math.max(token.start, token.end - 2);
+            int k = skipOptionalDateSeparator(token.end);
+            int letters = letterRun(k);
+            if (letters < 3 || letters > 9) continue;
+            k = skipOptionalDateSeparator(k + letters);
+            if (digitRun(k, 4) == 4) return text.substring(start, k + 4);
+        }
+        return null;
+    }
+
+    private int skipOptionalDateSeparator(int i) {
+        i = skipSpaces(i);
+        if (isDateSeparator(i)) i++;
+        return skipSpaces(i);
+    }
+
+    /**
+     * Raw text between "Address" and the pin, the contact numbers or the end of the
+     * text, still to be cleaned.
+     */
+    String address() {
+        List<Token> labels = tokens.labelled(Label.ADDRESS);
+        if (labels.isEmpty()) return null;
+
+        // Nearest position at or after k where the address may end
+        int[] nextStop = new int[length + 1];
+        nextStop[length] = length;
+        for (int k = length - 1; k >= 0; k--) {
+            boolean stop = isLineTerminator(text.charAt(k))
+                    || (startsWithIgnoreCase(k, "pin") && digitsAfterSeparator(k + 3, 6, false) != null)
+                    || (startsWithIgnoreCase(k, "perm") && startsWithIgnoreCase(skipSpaces(skipChar(k + 4, '.')), "cont"));
+            nextStop[k] = stop ? k : nextStop[k + 1];
+        }
+
+        for (Token token : labels) {
+            for (int start = afterSeparator(token.end, false); start >= token.end; start--) {
+                int min = start + MIN_ADDRESS_LENGTH;
+                if (min <= length && nextStop[min] - start <= MAX_ADDRESS_LENGTH) {
+                    return text.substring(start, nextStop[min]);
+                }
+            }
+        }
+        return null;
+    }
+
+    String pin() {
+        Best best = new Best();
+        best.offer(pinAfterLabel(), LABELLED);
+        best.offer(barePin(), BARE);
+        return best.value;
+    }
+
+    // "Pin : 600040", "Pin Code 600040", "Pincode+600040"
+    private String pinAfterLabel() {
+        for (Token token : tokens.all) {
+            int j;
+            if (token.label == Label.PINCODE) {
+                j = token.end;
+            } else if (token.label == Label.PIN) {
+                j = skipSpaces(token.end);
+                j = startsWithIgnoreCase(j, "code") ? j + 4 : token.end;
+            } else {
+                continue;
+            }
+            String value = digitsAfterSeparator(j, 6, true);
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    // Last six digits of the first run of six or more that ends at a space
+    private String barePin() {
+        for (Token token : tokens.all) {
+            if (token.kind == OcrTokenizer.Kind.NUMBER && token.length() >= 6
+                    && (token.end == length || OcrTokenizer.isSpace(text.charAt(token.end)))) {
+                return text.substring(token.end - 6, token.end);
+            }
+        }
+        return null;
+    }
+
+    String permanentContact() {
+        return contact(Label.PERM, Label.PERMANENT);
+    }
+
+    String emergencyContact() {
+        return contact(Label.EMG, Label.EMERGENCY);
+    }
+
+    // "Perm. Cont. No : ...", then "Permanent Contact ...", then "Perm ..."
+    private String contact(Label shortLabel, Label longLabel) {
+        for (Token token : tokens.labelled(shortLabel)) {
+            int j = skipSpaces(skipChar(token.end, '.'));
+            if (!startsWithIgnoreCase(j, "cont")) continue;
+            j = skipSpaces(skipChar(j + 4, '.'));
+            if (!startsWithIgnoreCase(j, "no")) continue;
+            String value = digitsAfterSeparator(skipChar(j + 2, '.'), 10, false);
+            if (value != null) return value;
+        }
+        for (Token token : tokens.labelled(longLabel)) {
+            int j = skipSpaces(token.end);
+            if (!startsWithIgnoreCase(j, "contact")) continue;
+            String value = digitsAfterSeparator(j + 7, 10, false);
+            if (value != null) return value;
+        }
+        for (Token token : tokens.labelled(shortLabel)) {
+            String value = digitsAfterSeparator(token.end, 10, false);
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    String email() {
+        Best best = new Best();
+        best.offer(emailAfterLabel(true), LABELLED);
+        best.offer(emailAfterLabel(false), LABELLED);
+        best.offer(bareEmail(), BARE);
+        return best.value;
+    }
+
+    // "E-mail ID : ..." (withId) or "Email : ..."
+    private String emailAfterLabel(boolean withId) {
+        for (Token token : tokens.all) {
+            int j = emailLabelEnd(token, withId);
+            if (j < 0) continue;
+            if (withId) {
+                j = skipSpaces(j);
+                if (!startsWithIgnoreCase(j, "id")) continue;
+                j += 2;
+            }
+            String value = emailAt(afterSeparator(j, false));
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    // "Email", "eMail" and, when a gap is allowed, "E-mail" / "E mail"
+    private int emailLabelEnd(Token token, boolean allowGap) {
+        if (token.label == Label.EMAIL) return token.end;
+        if (token.label != Label.MAIL || token.start < 1) return -1;
+        if (lower(text.charAt(token.start - 1)) == 'e') return token.end;
+        if (!allowGap || token.start < 2) return -1;
+        char gap = text.charAt(token.start - 1);
+        boolean joined = gap == '-' || OcrTokenizer.isSpace(gap);
+        return joined && lower(text.charAt(token.start - 2)) == 'e' ? token.end : -1;
+    }
+
+    private String bareEmail() {
+        for (Token token : tokens.all) {
+            if (token.kind != OcrTokenizer.Kind.SYMBOL || text.charAt(token.start) != '@') continue;
+            int start = token.start;
+            while (start > 0 && isEmailLocalChar(text.charAt(start - 1))) start--;
+            String value = emailAt(start);
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    // local@domain.tld starting exactly at start; the domain ends after the letters
+    // that follow its last usable dot
+    private String emailAt(int start) {
+        int at = start;
+        while (at < length && isEmailLocalChar(text.charAt(at))) at++;
+        if (at == start || at >= length || text.charAt(at) != '@') return null;
+        int domainStart = at + 1;
+        int domainEnd = domainStart;
+        while (domainEnd < length && isEmailDomainChar(text.charAt(domainEnd))) domainEnd++;
+        for (int dot = domainEnd - 1; dot > domainStart; dot--) {
+            if (text.charAt(dot) != '.' || letterRun(dot + 1) < 2) continue;
+            return text.substring(start, dot + 1 + letterRun(dot + 1));
+        }
+        return null;
+    }
+
+    // ========== SCANNING HELPERS ==========
+
+    /**
+     * Shortest run starting at start, of at least min and at most max characters, whose
+     * first character passes first, the rest pass rest, and that is followed by a
+     * position where stop holds. Returns the end of the run, or -(p + 1) where p is the
+     * position the run gave up at.
+     */
+    private int lazyRun(int start, int min, int max, IntPredicate first, IntPredicate rest, IntPredicate stop) {
+        if (start >= length || !first.test(text.charAt(start))) return -1 - start;
+        int end = start + 1;
+        while (true) {
+            if (end - start >= min && stop.test(end)) return end;
+            if (end - start >= max || end >= length || !rest.test(text.charAt(end))) return -1 - end;
+            end++;
+        }
+    }
+
+    // Spaces, an optional colon (or plus), spaces
+    private int afterSeparator(int i, boolean allowPlus) {
+        i = skipSpaces(i);
+        if (i < length && (text.charAt(i) == ':' || (allowPlus && text.charAt(i) == '+'))) i++;
+        return skipSpaces(i);
+    }
+
+    private String digitsAfterSeparator(int i, int count, boolean allowPlus) {
+        int start = afterSeparator(i, allowPlus);
+        return digitRun(start, count) == count ? text.substring(start, start + count) : null;
+    }
+
+    private int skipSpaces(int i) {
+        while (i < length && OcrTokenizer.isSpace(text.charAt(i))) i++;
+        return i;
+    }
+
+    private int skipChar(int i, char c) {
+        return i < length && text.charAt(i) == c ? i + 1 : i;
+    }
+
+    // Digits starting at i, counting at most max
+    private int digitRun(int i, int max) {
+        int n = 0;
+        while (n < max && i + n < length && isDigitChar(text.charAt(i + n))) n++;
+        return n;
+    }
+
+    private int letterRun(int i) {
+        int n = 0;
+        while (i + n < length && isLetterChar(text.charAt(i + n))) n++;
+        return n;
+    }
+
+    private boolean startsWithIgnoreCase(int i, String lowerCaseWord) {
+        if (i < 0 || i + lowerCaseWord.length() > length) return false;
+        for (int k = 0; k < lowerCaseWord.length(); k++) {
+            if (lower(text.charAt(i + k)) != lowerCaseWord.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private boolean isRhesus(int i) {
+        return i < length && (text.charAt(i) == '+' || text.charAt(i) == '-');
+    }
+
+    private boolean isDateSeparator(int i) {
+        return i < length && (text.charAt(i) == '-' || text.charAt(i) == '/' || text.charAt(i) == '\\');
+    }
+
+    // ASCII-only, like the (?i) flag without UNICODE_CASE
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+
+    private static char upper(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
+    }
+
+    private static boolean isLetterChar(int c) {
+        return OcrTokenizer.isLetter((char) c);
+    }
+
+    private static boolean isDigitChar(int c) {
+        return OcrTokenizer.isDigit((char) c);
+    }
+
+    private static boolean isUpper(int c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLetterOrSpace(int c) {
+        return isLetterChar(c) || OcrTokenizer.isSpace((char) c);
+    }
+
+    private static boolean isUpperOrSpace(int c) {
+        return isUpper(c) || OcrTokenizer.isSpace((char) c);
+    }
+
+    private static boolean isWordChar(int c) {
+        return isLetterChar(c) || isDigitChar(c) || c == '_';
+    }
+
+    private static boolean isBloodType(int c) {
+        return c == 'A' || c == 'B' || c == 'O';
+    }
+
+    private static boolean isProgrammeChar(int c) {
+        return isLetterChar(c) || isDigitChar(c) || OcrTokenizer.isSpace((char) c) || ".()&-".indexOf(c) >= 0;
+    }
+
+    private static boolean isEmailLocalChar(int c) {
+        return isLetterChar(c) || isDigitChar(c) || "._%+-".indexOf(c) >= 0;
+    }
+
+    private static boolean isEmailDomainChar(int c) {
+        return isLetterChar(c) || isDigitChar(c) || c == '.' || c == '-';
+    }
+
+    // Where a MULTILINE $ matches
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean hasOnlyExpectedCharacters(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isLetterChar(c) && !isDigitChar(c) && !OcrTokenizer.isSpace(c) && "@.-+()&:/,".indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
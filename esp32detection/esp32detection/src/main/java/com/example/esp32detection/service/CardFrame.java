@@ -0,0 +1,74 @@
+package com.example.esp32detection.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * One uploaded card image as the OCR steps of a request see it. A login reads the
+ * same frame for its barcode, its template regions and every stage of the cascade;
+ * the frame is decoded, quality-checked and hashed for the result cache at most once
+ * however many of those steps run, and not at all when they are all cache hits.
+ */
+public final class CardFrame {
+
+    private final byte[] bytes;
+    private String hash;
+    private BufferedImage image;
+    private FrameRejectedException rejection;
+    private boolean checked;
+
+    public CardFrame(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * SHA-256 of the uploaded bytes, the key the OCR result cache files this frame under.
+     */
+    public synchronized String getHash() {
+        if (hash == null) {
+            try {
+                hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * The decoded image, without any quality check.
+     */
+    public synchronized BufferedImage decode() throws IOException {
+        if (image == null) {
+            image = OCRService.decodeImage(bytes);
+        }
+        return image;
+    }
+
+    /**
+     * The decoded image once it has passed the frame quality gate. A frame the gate
+     * turned down is turned down again without another look.
+     */
+    public synchronized BufferedImage check(FrameQualityGate qualityGate) throws IOException {
+        BufferedImage decoded = decode();
+        if (!checked) {
+            try {
+                qualityGate.check(decoded);
+            } catch (FrameRejectedException e) {
+                rejection = e;
+            }
+            checked = true;
+        }
+        if (rejection != null) {
+            throw rejection;
+        }
+        return decoded;
+    }
+}
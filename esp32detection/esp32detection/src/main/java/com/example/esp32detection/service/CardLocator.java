@@ -0,0 +1,336 @@
+package com.example.esp32detection.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.esp32detection.model.CardRegion;
+
+/**
+ * Finds the ID card in a camera frame and cuts it out with perspective correction.
+ * Detection runs on a ~320px thumbnail: Sobel edges, connected edge components,
+ * and the extreme points of the largest card-shaped component as its corners.
+ */
+@Component
+public class CardLocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardLocator.class);
+
+    // ISO/IEC 7810 ID-1 card, 85.60 x 53.98 mm
+    static final double CARD_ASPECT = 85.60 / 53.98;
+
+    private static final int THUMBNAIL_WIDTH = 320;
+    private static final int LINK_RADIUS = 2;
+
+    /**
+     * Thumbnail and edge buffers reused from frame to frame; part of the
+     * preprocessing workspace each OcrEngine owns.
+     */
+    static final class Workspace {
+        byte[] thumbnail = new byte[0];
+        int[] magnitude = new int[0];
+        boolean[] edges = new boolean[0];
+        boolean[] visited = new boolean[0];
+        int[] queue = new int[0];
+    }
+
+    private final boolean enabled;
+    private final double minAreaRatio;
+
+    public CardLocator(@Value("${ocr.locate.enabled:true}") boolean enabled,
+                       @Value("${ocr.locate.min-area-ratio:0.2}") double minAreaRatio) {
+        this.enabled = enabled;
+        this.minAreaRatio = minAreaRatio;
+    }
+
+    /**
+     * Locate the card, or return null if no plausible card outline was found
+     * (the caller then OCRs the whole frame).
+     */
+    public CardRegion locate(GrayImage frame) {
+        return locate(frame, new Workspace());
+    }
+
+    CardRegion locate(GrayImage frame, Workspace workspace) {
+        if (!enabled) {
+            return null;
+        }
+
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        double scale = Math.max(1.0, (double) width / THUMBNAIL_WIDTH);
+        int thumbWidth = Math.max(1, (int) (width / scale));
+        int thumbHeight = Math.max(1, (int) (height / scale));
+        if (thumbWidth < 16 || thumbHeight < 16) {
+            return null;
+        }
+
+        int size = thumbWidth * thumbHeight;
+        if (workspace.thumbnail.length < size) {
+            workspace.thumbnail = new byte[size];
+            workspace.magnitude = new int[size];
+            workspace.edges = new boolean[size];
+            workspace.visited = new boolean[size];
+            workspace.queue = new int[size];
+        }
+
+        buildThumbnail(frame, workspace.thumbnail, thumbWidth, thumbHeight);
+        detectEdges(workspace, thumbWidth, thumbHeight);
+        int[][] corners = largestCardOutline(workspace, thumbWidth, thumbHeight);
+        if (corners == null) {
+            logger.debug("No card outline found in {}x{} frame", width, height);
+            return null;
+        }
+
+        for (int[] corner : corners) {
+            corner[0] = (int) Math.min(width - 1, Math.round(corner[0] * scale));
+            corner[1] = (int) Math.min(height - 1, Math.round(corner[1] * scale));
+        }
+        CardRegion region = new CardRegion(corners);
+        logger.debug("Card located at {},{} {}x{} in {}x{} frame",
+                region.getX(), region.getY(), region.getWidth(), region.getHeight(), width, height);
+        return region;
+    }
+
+    private static void buildThumbnail(GrayImage frame, byte[] thumbnail, int thumbWidth, int thumbHeight) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        byte[] pixels = frame.getPixels();
+        for (int y = 0; y < thumbHeight; y++) {
+            int sy0 = (int) ((long) y * height / thumbHeight);
+            int sy1 = Math.max(sy0 + 1, (int) ((long) (y + 1) * height / thumbHeight));
+            for (int x = 0; x < thumbWidth; x++) {
+                int sx0 = (int) ((long) x * width / thumbWidth);
+                int sx1 = Math.max(sx0 + 1, (int) ((long) (x + 1) * width / thumbWidth));
+                int sum = 0;
+                for (int sy = sy0; sy < sy1; sy++) {
+                    for (int sx = sx0; sx < sx1; sx++) {
+                        sum += pixels[sy * width + sx] & 0xFF;
+                    }
+                }
+                thumbnail[y * thumbWidth + x] = (byte) (sum / ((sy1 - sy0) * (sx1 - sx0)));
+            }
+        }
+    }
+
+    /**
+     * Sobel gradient magnitude, thresholded at mean + 1.5 standard deviations.
+     */
+    private static void detectEdges(Workspace workspace, int width, int height) {
+        byte[] t = workspace.thumbnail;
+        int[] magnitude = workspace.magnitude;
+        long sum = 0;
+        long sumSquares = 0;
+        int count = 0;
+
+        for (int y = 1; y < height - 1; y++) {
+            for (int x = 1; x < width - 1; x++) {
+                int i = y * width + x;
+                int tl = t[i - width - 1] & 0xFF, tc = t[i - width] & 0xFF, tr = t[i - width + 1] & 0xFF;
+                int ml = t[i - 1] & 0xFF, mr = t[i + 1] & 0xFF;
+                int bl = t[i + width - 1] & 0xFF, bc = t[i + width] & 0xFF, br = t[i + width + 1] & 0xFF;
+                int gx = (tr + 2 * mr + br) - (tl + 2 * ml + bl);
+                int gy = (bl + 2 * bc + br) - (tl + 2 * tc + tr);
+                int m = Math.abs(gx) + Math.abs(gy);
+                magnitude[i] = m;
+                sum += m;
+                sumSquares += (long) m * m;
+                count++;
+            }
+        }
+
+        double mean = (double) sum / Math.max(1, count);
+        double deviation = Math.sqrt(Math.max(0, (double) sumSquares / Math.max(1, count) - mean * mean));
+        double threshold = Math.max(40, mean + 1.5 * deviation);
+
+        boolean[] edges = workspace.edges;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                edges[i] = x > 0 && y > 0 && x < width - 1 && y < height - 1 && magnitude[i] > threshold;
+                workspace.visited[i] = false;
+            }
+        }
+    }
+
+    /**
+     * Group edge pixels into components (bridging gaps of up to LINK_RADIUS pixels)
+     * and return the corners of the largest component whose outline is card-shaped.
+     */
+    private int[][] largestCardOutline(Workspace workspace, int width, int height) {
+        boolean[] edges = workspace.edges;
+        boolean[] visited = workspace.visited;
+        int[] queue = workspace.queue;
+        double minArea = minAreaRatio * width * height;
+
+        int[][] best = null;
+        double bestArea = 0;
+
+        for (int start = 0; start < width * height; start++) {
+            if (!edges[start] || visited[start]) {
+                continue;
+            }
+
+            // Extreme points along the diagonals approximate the four corners
+            int minSum = Integer.MAX_VALUE, maxSum = Integer.MIN_VALUE;
+            int minDiff = Integer.MAX_VALUE, maxDiff = Integer.MIN_VALUE;
+            int tl = start, br = start, tr = start, bl = start;
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            visited[start] = true;
+            while (head < tail) {
+                int index = queue[head++];
+                int x = index % width;
+                int y = index / width;
+
+                if (x + y < minSum) { minSum = x + y; tl = index; }
+                if (x + y > maxSum) { maxSum = x + y; br = index; }
+                if (x - y > maxDiff) { maxDiff = x - y; tr = index; }
+                if (x - y < minDiff) { minDiff = x - y; bl = index; }
+
+                for (int dy = -LINK_RADIUS; dy <= LINK_RADIUS; dy++) {
+                    int ny = y + dy;
+                    if (ny < 0 || ny >= height) {
+                        continue;
+                    }
+                    for (int dx = -LINK_RADIUS; dx <= LINK_RADIUS; dx++) {
+                        int nx = x + dx;
+                        if (nx < 0 || nx >= width) {
+                            continue;
+                        }
+                        int neighbour = ny * width + nx;
+                        if (edges[neighbour] && !visited[neighbour]) {
+                            visited[neighbour] = true;
+                            queue[tail++] = neighbour;
+                        }
+                    }
+                }
+            }
+
+            if (tail < 8) {
+                continue;
+            }
+            int[][] quad = {
+                { tl % width, tl / width }, { tr % width, tr / width },
+                { br % width, br / width }, { bl % width, bl / width } };
+            double area = quadArea(quad);
+            if (area > bestArea && area >= minArea && area < 0.98 * width * height && isCardShaped(quad)) {
+                bestArea = area;
+                best = quad;
+            }
+        }
+        return best;
+    }
+
+    private static double quadArea(int[][] quad) {
+        double twiceArea = 0;
+        for (int i = 0; i < 4; i++) {
+            int[] a = quad[i];
+            int[] b = quad[(i + 1) % 4];
+            twiceArea += (double) a[0] * b[1] - (double) b[0] * a[1];
+        }
+        return Math.abs(twiceArea) / 2;
+    }
+
+    private static boolean isCardShaped(int[][] quad) {
+        double top = distance(quad[0], quad[1]);
+        double bottom = distance(quad[3], quad[2]);
+        double left = distance(quad[0], quad[3]);
+        double right = distance(quad[1], quad[2]);
+        if (left + right == 0) {
+            return false;
+        }
+        double aspect = (top + bottom) / (left + right);
+        return aspect > CARD_ASPECT * 0.75 && aspect < CARD_ASPECT * 1.3;
+    }
+
+    private static double distance(int[] a, int[] b) {
+        return Math.hypot(a[0] - b[0], a[1] - b[1]);
+    }
+
+    /**
+     * Warp the located card into an upright rectangle no wider than maxWidth,
+     * sampling the source bilinearly through the corner homography.
+     */
+    public GrayImage crop(GrayImage source, CardRegion region, GrayImage target, int maxWidth) {
+        int[][] c = region.getCorners();
+        double cardWidth = Math.max(distance(c[0], c[1]), distance(c[3], c[2]));
+        int outWidth = (int) Math.max(1, Math.min(maxWidth, Math.round(cardWidth)));
+        int outHeight = (int) Math.max(1, Math.round(outWidth / CARD_ASPECT));
+
+        double[] h = homography(new double[][] {
+                { 0, 0 }, { outWidth, 0 }, { outWidth, outHeight }, { 0, outHeight } }, c);
+
+        int srcWidth = source.getWidth();
+        int srcHeight = source.getHeight();
+        byte[] src = source.getPixels();
+        byte[] dst = target.reset(outWidth, outHeight).getPixels();
+        target.setDpi((int) Math.round(outWidth / ImagePreprocessor.CARD_WIDTH_INCHES));
+
+        for (int v = 0; v < outHeight; v++) {
+            for (int u = 0; u < outWidth; u++) {
+                double w = h[6] * u + h[7] * v + 1;
+                double sx = (h[0] * u + h[1] * v + h[2]) / w;
+                double sy = (h[3] * u + h[4] * v + h[5]) / w;
+
+                int x0 = (int) Math.floor(sx);
+                int y0 = (int) Math.floor(sy);
+                if (x0 < 0 || y0 < 0 || x0 >= srcWidth - 1 || y0 >= srcHeight - 1) {
+                    dst[v * outWidth + u] = (byte) 255;
+                    continue;
+                }
+                double fx = sx - x0;
+                double fy = sy - y0;
+                int i = y0 * srcWidth + x0;
+                double top = (src[i] & 0xFF) * (1 - fx) + (src[i + 1] & 0xFF) * fx;
+                double bottom = (src[i + srcWidth] & 0xFF) * (1 - fx) + (src[i + srcWidth + 1] & 0xFF) * fx;
+                dst[v * outWidth + u] = (byte) (int) (top * (1 - fy) + bottom * fy + 0.5);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Solve the 8-parameter homography mapping each from[i] onto to[i].
+     */
+    static double[] homography(double[][] from, int[][] to) {
+        double[][] a = new double[8][9];
+        for (int i = 0; i < 4; i++) {
+            double u = from[i][0], v = from[i][1];
+            double x = to[i][0], y = to[i][1];
+            a[2 * i] = new double[] { u, v, 1, 0, 0, 0, -u * x, -v * x, x };
+            a[2 * i + 1] = new double[] { 0, 0, 0, u, v, 1, -u * y, -v * y, y };
+        }
+
+        // Gaussian elimination with partial pivoting
+        for (int col = 0; col < 8; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < 8; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            double[] swap = a[col];
+            a[col] = a[pivot];
+            a[pivot] = swap;
+
+            for (int row = 0; row < 8; row++) {
+                if (row != col && a[col][col] != 0) {
+                    double factor = a[row][col] / a[col][col];
+                    for (int k = col; k < 9; k++) {
+                        a[row][k] -= factor * a[col][k];
+                    }
+                }
+            }
+        }
+
+        double[] h = new double[8];
+        for (int i = 0; i < 8; i++) {
+            h[i] = a[i][i] == 0 ? 0 : a[i][8] / a[i][i];
+        }
+        return h;
+    }
+}
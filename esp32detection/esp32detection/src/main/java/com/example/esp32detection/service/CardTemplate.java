@@ -0,0 +1,160 @@
+package com.example.esp32detection.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.example.esp32detection.service.OcrTokenizer.Label;
+
+/**
+ * One institution's ID card layout: the keywords that identify it, the markers that
+ * tell its front from its back, extra label words, and patterns for fields its cards
+ * print differently from the built-in rules.
+ */
+public class CardTemplate {
+
+    /**
+     * Fields a template may give its own pattern for, by IDCardData property name.
+     */
+    static final List<String> FIELDS = List.of(
+            "name", "programme", "registerNumber", "validFrom", "validTo",
+            "bloodGroup", "dateOfBirth", "address", "pin", "permanentContact",
+            "emergencyContact", "email");
+
+    static final String DEFAULT_REGISTER_NUMBER_FORMAT = "[A-Z]{2}\\d{8,12}";
+
+    /**
+     * Alternative keywords worth one weight when any of them appears in the text.
+     */
+    static final class Marker {
+        final List<String> keywords;
+        final int weight;
+
+        Marker(List<String> keywords, int weight) {
+            this.keywords = List.copyOf(keywords);
+            this.weight = weight;
+        }
+    }
+
+    private final String name;
+    private final String institution;
+    private final String faculty;
+    private final List<String> keywords;
+    private final List<Marker> frontMarkers;
+    private final List<Marker> backMarkers;
+    private final int pinCodeWeight;
+    private final Pattern registerNumberFormat;
+    private final Map<String, Pattern> fieldPatterns;
+    private final OcrTokenizer.Vocabulary vocabulary;
+
+    public CardTemplate(String name, String institution, String faculty, List<String> keywords,
+                        String frontMarkers, String backMarkers, int pinCodeWeight,
+                        String registerNumberFormat, String labels, Map<String, String> fieldPatterns) {
+        this.name = name;
+        this.institution = institution;
+        this.faculty = faculty;
+        this.keywords = List.copyOf(keywords);
+        this.frontMarkers = parseMarkers(name, frontMarkers);
+        this.backMarkers = parseMarkers(name, backMarkers);
+        this.pinCodeWeight = pinCodeWeight;
+        this.registerNumberFormat = Pattern.compile(registerNumberFormat);
+        this.vocabulary = OcrTokenizer.Vocabulary.withAliases(parseLabels(name, labels));
+
+        Map<String, Pattern> patterns = new LinkedHashMap<>();
+        for (Map.Entry<String, String> field : fieldPatterns.entrySet()) {
+            if (!FIELDS.contains(field.getKey())) {
+                throw new IllegalArgumentException("Template '" + name + "' has a pattern for unknown field: " + field.getKey());
+            }
+            patterns.put(field.getKey(), Pattern.compile(field.getValue()));
+        }
+        this.fieldPatterns = Collections.unmodifiableMap(patterns);
+    }
+
+    /**
+     * The SRM card the parser was written for; used when no templates are configured.
+     */
+    public static CardTemplate srm() {
+        return new CardTemplate("srm",
+                "SRM INSTITUTE OF SCIENCE & TECHNOLOGY",
+                "FACULTY OF ENGINEERING & TECHNOLOGY",
+                List.of("SRM", "srmist"),
+                "FACULTY:3, Programme|Program:2, Register:2, Valid From|Valid To:2",
+                "Blood Group:3, Address:2, Cont.No|Contact:2, Date of Birth|Birth:2",
+                2, DEFAULT_REGISTER_NUMBER_FORMAT, "", Collections.emptyMap());
+    }
+
+    /**
+     * Parse "keyword|alternative:weight, keyword:weight" marker lists.
+     */
+    static List<Marker> parseMarkers(String template, String spec) {
+        List<Marker> markers = new ArrayList<>();
+        if (spec == null || spec.isBlank()) return markers;
+
+        for (String entry : spec.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Template '" + template + "' marker must be keyword:weight but was: " + entry);
+            }
+            List<String> alternatives = new ArrayList<>();
+            for (String keyword : entry.substring(0, colon).split("\\|")) {
+                if (!keyword.trim().isEmpty()) alternatives.add(keyword.trim());
+            }
+            if (alternatives.isEmpty()) {
+                throw new IllegalArgumentException("Template '" + template + "' has a marker without keywords: " + entry);
+            }
+            markers.add(new Marker(alternatives, Integer.parseInt(entry.substring(colon + 1).trim())));
+        }
+        return markers;
+    }
+
+    /**
+     * Parse "word:LABEL, word:LABEL" extra label words.
+     */
+    static Map<String, Label> parseLabels(String template, String spec) {
+        Map<String, Label> aliases = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) return aliases;
+
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Template '" + template + "' label must be word:LABEL but was: " + entry);
+            }
+            aliases.put(parts[0].trim(), Label.valueOf(parts[1].trim().toUpperCase(Locale.ROOT)));
+        }
+        return aliases;
+    }
+
+    public String getName() { return name; }
+
+    public String getInstitution() { return institution; }
+
+    public String getFaculty() { return faculty; }
+
+    List<String> getKeywords() { return keywords; }
+
+    List<Marker> getFrontMarkers() { return frontMarkers; }
+
+    List<Marker> getBackMarkers() { return backMarkers; }
+
+    int getPinCodeWeight() { return pinCodeWeight; }
+
+    Pattern getRegisterNumberFormat() { return registerNumberFormat; }
+
+    OcrTokenizer.Vocabulary getVocabulary() { return vocabulary; }
+
+    /**
+     * This template's own pattern for a field, or null to use the built-in rules.
+     */
+    Pattern getFieldPattern(String field) {
+        return fieldPatterns.get(field);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.esp32detection.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * The card templates from configuration, and one Aho-Corasick pass that picks the
+ * template and scores the card's sides together. Every keyword of every template lives
+ * in the same automaton, so more templates do not mean more passes over the text.
+ * <p>
+ * Templates are listed in card.templates and configured under card.template.NAME.*;
+ * the first one is used when no template's keywords appear.
+ */
+@Component
+public class CardTemplateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardTemplateRegistry.class);
+
+    /**
+     * The template a text was identified as, and how strongly it reads as each side.
+     */
+    static final class Detection {
+        final CardTemplate template;
+        final int frontScore;
+        final int backScore;
+
+        Detection(CardTemplate template, int frontScore, int backScore) {
+            this.template = template;
+            this.frontScore = frontScore;
+            this.backScore = backScore;
+        }
+    }
+
+    private final List<CardTemplate> templates;
+    private final KeywordAutomaton automaton;
+    // Per template: automaton indexes of its identifying keywords, then of each marker's alternatives
+    private final int[][] identifiers;
+    private final int[][][] frontMarkers;
+    private final int[][][] backMarkers;
+
+    @Autowired
+    public CardTemplateRegistry(Environment environment) {
+        this(load(environment));
+    }
+
+    public CardTemplateRegistry(List<CardTemplate> templates) {
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("At least one card template is required");
+        }
+        this.templates = List.copyOf(templates);
+
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        this.identifiers = new int[templates.size()][];
+        this.frontMarkers = new int[templates.size()][][];
+        this.backMarkers = new int[templates.size()][][];
+        for (int t = 0; t < templates.size(); t++) {
+            CardTemplate template = templates.get(t);
+            identifiers[t] = indexes(template.getKeywords(), ids);
+            frontMarkers[t] = markerIndexes(template.getFrontMarkers(), ids);
+            backMarkers[t] = markerIndexes(template.getBackMarkers(), ids);
+        }
+        this.automaton = new KeywordAutomaton(new ArrayList<>(ids.keySet()));
+
+        logger.info("Loaded {} card template(s) {} with {} keywords", templates.size(), templates, ids.size());
+    }
+
+    /**
+     * Identify the template and score both sides in one pass over the text. The
+     * template with the most identifying keywords wins, earlier templates on a tie.
+     */
+    Detection detect(String text) {
+        boolean[] found = automaton.scan(text);
+
+        int best = 0;
+        int bestHits = 0;
+        for (int t = 0; t < templates.size(); t++) {
+            int hits = 0;
+            for (int k : identifiers[t]) {
+                if (found[k]) hits++;
+            }
+            if (hits > bestHits) {
+                best = t;
+                bestHits = hits;
+            }
+        }
+
+        return new Detection(templates.get(best), score(frontMarkers[best], templates.get(best).getFrontMarkers(), found),
+                score(backMarkers[best], templates.get(best).getBackMarkers(), found));
+    }
+
+    List<CardTemplate> getTemplates() {
+        return templates;
+    }
+
+    private static int score(int[][] markerKeywords, List<CardTemplate.Marker> markers, boolean[] found) {
+        int score = 0;
+        for (int m = 0; m < markerKeywords.length; m++) {
+            for (int k : markerKeywords[m]) {
+                if (found[k]) {
+                    score += markers.get(m).weight;
+                    break;
+                }
+            }
+        }
+        return score;
+    }
+
+    private static int[][] markerIndexes(List<CardTemplate.Marker> markers, Map<String, Integer> ids) {
+        int[][] indexes = new int[markers.size()][];
+        for (int m = 0; m < markers.size(); m++) {
+            indexes[m] = indexes(markers.get(m).keywords, ids);
+        }
+        return indexes;
+    }
+
+    private static int[] indexes(List<String> keywords, Map<String, Integer> ids) {
+        int[] indexes = new int[keywords.size()];
+        for (int i = 0; i < keywords.size(); i++) {
+            indexes[i] = ids.computeIfAbsent(keywords.get(i), k -> ids.size());
+        }
+        return indexes;
+    }
+
+    private static List<CardTemplate> load(Environment environment) {
+        String names = environment.getProperty("card.templates", "");
+        if (names.isBlank()) {
+            return List.of(CardTemplate.srm());
+        }
+
+        List<CardTemplate> templates = new ArrayList<>();
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) continue;
+            String prefix = "card.template." + name + ".";
+
+            Map<String, String> fieldPatterns = new HashMap<>();
+            for (String field : CardTemplate.FIELDS) {
+                String pattern = environment.getProperty(prefix + "field." + field);
+                if (pattern != null && !pattern.isBlank()) fieldPatterns.put(field, pattern);
+            }
+
+            templates.add(new CardTemplate(name,
+                    environment.getProperty(prefix + "institution", ""),
+                    environment.getProperty(prefix + "faculty", ""),
+                    Arrays.stream(environment.getProperty(prefix + "keywords", "").split(","))
+                            .map(String::trim).filter(k -> !k.isEmpty()).toList(),
+                    environment.getProperty(prefix + "front-markers", ""),
+                    environment.getProperty(prefix + "back-markers", ""),
+                    environment.getProperty(prefix + "pin-code-weight", Integer.class, 0),
+                    environment.getProperty(prefix + "register-number-format", CardTemplate.DEFAULT_REGISTER_NUMBER_FORMAT),
+                    environment.getProperty(prefix + "labels", ""),
+                    fieldPatterns));
+        }
+        return templates;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.esp32detection.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.example.esp32detection.model.IDCardData;
+
+/**
+ * Field-by-field majority vote over the cards parsed from several frames of the
+ * same scan. Values are compared case- and whitespace-insensitively; the first
+ * spelling seen for a value is the one reported. Not thread-safe.
+ */
+public class FieldVote {
+
+    public static final String REGISTER_NUMBER = "registerNumber";
+    public static final String NAME = "name";
+
+    private static final Map<String, Function<IDCardData, String>> GETTERS = new LinkedHashMap<>();
+    private static final Map<String, BiConsumer<IDCardData, String>> SETTERS = new LinkedHashMap<>();
+
+    static {
+        field(REGISTER_NUMBER, IDCardData::getRegisterNumber, IDCardData::setRegisterNumber);
+        field(NAME, IDCardData::getName, IDCardData::setName);
+        field("programme", IDCardData::getProgramme, IDCardData::setProgramme);
+        field("institution", IDCardData::getInstitution, IDCardData::setInstitution);
+        field("faculty", IDCardData::getFaculty, IDCardData::setFaculty);
+        field("validFrom", IDCardData::getValidFrom, IDCardData::setValidFrom);
+        field("validTo", IDCardData::getValidTo, IDCardData::setValidTo);
+        field("bloodGroup", IDCardData::getBloodGroup, IDCardData::setBloodGroup);
+        field("dateOfBirth", IDCardData::getDateOfBirth, IDCardData::setDateOfBirth);
+        field("email", IDCardData::getEmail, IDCardData::setEmail);
+    }
+
+    private static void field(String name, Function<IDCardData, String> getter, BiConsumer<IDCardData, String> setter) {
+        GETTERS.put(name, getter);
+        SETTERS.put(name, setter);
+    }
+
+    private static final class Tally {
+        final String value;
+        int votes;
+
+        Tally(String value) {
+            this.value = value;
+        }
+    }
+
+    // field -> normalised value -> tally, in first-seen order
+    private final Map<String, Map<String, Tally>> tallies = new LinkedHashMap<>();
+    private int frames;
+
+    public void add(IDCardData card) {
+        frames++;
+        for (Map.Entry<String, Function<IDCardData, String>> field : GETTERS.entrySet()) {
+            String value = field.getValue().apply(card);
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            String trimmed = value.trim().replaceAll("\\s+", " ");
+            tallies.computeIfAbsent(field.getKey(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(trimmed.toUpperCase(), k -> new Tally(trimmed))
+                    .votes++;
+        }
+    }
+
+    /**
+     * Number of frames that agree on the leading value of a field.
+     */
+    public int agreement(String field) {
+        Tally leader = leader(field);
+        return leader == null ? 0 : leader.votes;
+    }
+
+    /**
+     * The value most frames agree on; ties go to the value seen first.
+     */
+    public String winner(String field) {
+        Tally leader = leader(field);
+        return leader == null ? null : leader.value;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public IDCardData fuse() {
+        IDCardData fused = new IDCardData();
+        for (Map.Entry<String, BiConsumer<IDCardData, String>> field : SETTERS.entrySet()) {
+            String value = winner(field.getKey());
+            if (value != null) {
+                field.getValue().accept(fused, value);
+            }
+        }
+        fused.setCardType("BURST");
+        return fused;
+    }
+
+    /**
+     * Leading vote count per field, for reporting.
+     */
+    public Map<String, Integer> getAgreement() {
+        Map<String, Integer> agreement = new LinkedHashMap<>();
+        for (String field : tallies.keySet()) {
+            agreement.put(field, agreement(field));
+        }
+        return agreement;
+    }
+
+    private Tally leader(String field) {
+        Map<String, Tally> values = tallies.get(field);
+        if (values == null) {
+            return null;
+        }
+        Tally leader = null;
+        for (Tally tally : values.values()) {
+            if (leader == null || tally.votes > leader.votes) {
+                leader = tally;
+            }
+        }
+        return leader;
+    }
+}
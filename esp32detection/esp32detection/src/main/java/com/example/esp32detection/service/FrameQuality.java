@@ -0,0 +1,60 @@
+package com.example.esp32detection.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of the frame quality gate: the measurements taken on the frame and,
+ * when it is not worth running OCR on, the reason the device should act on.
+ */
+public class FrameQuality {
+
+    public enum Reason {
+        OK,
+        BLURRY,
+        OVEREXPOSED,
+        UNDEREXPOSED,
+        LOW_CONTRAST
+    }
+
+    private final Reason reason;
+    private final double sharpness;
+    private final double meanLuminance;
+    private final double clippedRatio;
+    private final int contrast;
+
+    public FrameQuality(Reason reason, double sharpness, double meanLuminance, double clippedRatio, int contrast) {
+        this.reason = reason;
+        this.sharpness = sharpness;
+        this.meanLuminance = meanLuminance;
+        this.clippedRatio = clippedRatio;
+        this.contrast = contrast;
+    }
+
+    public boolean isAcceptable() {
+        return reason == Reason.OK;
+    }
+
+    public Reason getReason() { return reason; }
+
+    /** Variance of the Laplacian; low values mean a blurred frame. */
+    public double getSharpness() { return sharpness; }
+
+    public double getMeanLuminance() { return meanLuminance; }
+
+    /** Share of samples at or near full white. */
+    public double getClippedRatio() { return clippedRatio; }
+
+    /** Spread between the 5th and 95th luminance percentiles. */
+    public int getContrast() { return contrast; }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("reason", reason.name());
+        map.put("sharpness", Math.round(sharpness * 10) / 10.0);
+        map.put("meanLuminance", Math.round(meanLuminance * 10) / 10.0);
+        map.put("clippedRatio", Math.round(clippedRatio * 1000) / 1000.0);
+        map.put("contrast", contrast);
+        return map;
+    }
+}
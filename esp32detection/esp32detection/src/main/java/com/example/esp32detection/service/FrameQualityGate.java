@@ -0,0 +1,228 @@
+package com.example.esp32detection.service;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.esp32detection.service.FrameQuality.Reason;
+
+/**
+ * Cheap blur and exposure check run on a decoded frame before any preprocessing or
+ * OCR. It looks at a sparse grid of sample points only: luminance at each point
+ * feeds an exposure histogram, and a 4-neighbour Laplacian taken at full resolution
+ * around the point feeds the sharpness estimate, so motion blur is still visible
+ * even though the grid is a thumbnail-sized fraction of the frame.
+ */
+@Component
+public class FrameQualityGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrameQualityGate.class);
+
+    // Luminance at or above this counts as clipped highlights
+    private static final int CLIPPED_LEVEL = 250;
+
+    private final boolean enabled;
+    private final int gridWidth;
+    private final double minSharpness;
+    private final double maxClippedRatio;
+    private final int minContrast;
+    private final int minBrightLevel;
+
+    private final Map<Reason, LongAdder> outcomes = new EnumMap<>(Reason.class);
+    private final LongAdder assessNanos = new LongAdder();
+
+    public FrameQualityGate(@Value("${ocr.quality.enabled:true}") boolean enabled,
+                            @Value("${ocr.quality.grid-width:128}") int gridWidth,
+                            @Value("${ocr.quality.min-sharpness:40}") double minSharpness,
+                            @Value("${ocr.quality.max-clipped-ratio:0.35}") double maxClippedRatio,
+                            @Value("${ocr.quality.min-contrast:40}") int minContrast,
+                            @Value("${ocr.quality.min-bright-level:60}") int minBrightLevel) {
+        this.enabled = enabled;
+        this.gridWidth = Math.max(8, gridWidth);
+        this.minSharpness = minSharpness;
+        this.maxClippedRatio = maxClippedRatio;
+        this.minContrast = minContrast;
+        this.minBrightLevel = minBrightLevel;
+        for (Reason reason : Reason.values()) {
+            outcomes.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * Reject the frame with a {@link FrameRejectedException} when it is not worth OCR.
+     */
+    public void check(BufferedImage image) throws FrameRejectedException {
+        if (!enabled) {
+            return;
+        }
+        FrameQuality quality = assess(image);
+        if (!quality.isAcceptable()) {
+            logger.debug("Rejected {}x{} frame: {}", image.getWidth(), image.getHeight(), quality.toMap());
+            throw new FrameRejectedException(quality);
+        }
+    }
+
+    public FrameQuality assess(BufferedImage image) {
+        long start = System.nanoTime();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width < 3 || height < 3) {
+            return record(new FrameQuality(Reason.LOW_CONTRAST, 0, 0, 0, 0), start);
+        }
+
+        int columns = Math.min(gridWidth, width - 2);
+        int rows = Math.max(1, Math.min(height - 2, (int) Math.round((double) columns * height / width)));
+        Sampler sampler = new Sampler(image);
+        int[] histogram = new int[256];
+        long sum = 0;
+        double laplacianSum = 0;
+        double laplacianSquares = 0;
+
+        for (int gy = 0; gy < rows; gy++) {
+            int y = 1 + (int) ((gy + 0.5) * (height - 2) / rows);
+            for (int gx = 0; gx < columns; gx++) {
+                int x = 1 + (int) ((gx + 0.5) * (width - 2) / columns);
+                int centre = sampler.luminance(x, y);
+                int laplacian = sampler.luminance(x, y - 1) + sampler.luminance(x - 1, y)
+                        + sampler.luminance(x + 1, y) + sampler.luminance(x, y + 1) - 4 * centre;
+                histogram[centre]++;
+                sum += centre;
+                laplacianSum += laplacian;
+                laplacianSquares += (double) laplacian * laplacian;
+            }
+        }
+
+        int samples = columns * rows;
+        double mean = (double) sum / samples;
+        double laplacianMean = laplacianSum / samples;
+        double sharpness = laplacianSquares / samples - laplacianMean * laplacianMean;
+
+        int clipped = 0;
+        for (int level = CLIPPED_LEVEL; level < 256; level++) {
+            clipped += histogram[level];
+        }
+        double clippedRatio = (double) clipped / samples;
+        int low = percentile(histogram, samples, 0.05);
+        int high = percentile(histogram, samples, 0.95);
+
+        Reason reason;
+        // Exposure first: the Laplacian says little about a washed-out or black frame
+        if (clippedRatio > maxClippedRatio) {
+            reason = Reason.OVEREXPOSED;
+        } else if (high < minBrightLevel) {
+            reason = Reason.UNDEREXPOSED;
+        } else if (high - low < minContrast) {
+            reason = Reason.LOW_CONTRAST;
+        } else if (sharpness < minSharpness) {
+            reason = Reason.BLURRY;
+        } else {
+            reason = Reason.OK;
+        }
+        return record(new FrameQuality(reason, sharpness, mean, clippedRatio, high - low), start);
+    }
+
+    private FrameQuality record(FrameQuality quality, long start) {
+        assessNanos.add(System.nanoTime() - start);
+        outcomes.get(quality.getReason()).increment();
+        return quality;
+    }
+
+    /**
+     * Single-pixel luminance reads straight from the backing array for the layouts
+     * ImageIO decodes camera JPEGs into, and through the colour model otherwise.
+     */
+    private static final class Sampler {
+        private final BufferedImage image;
+        private final byte[] bytes;
+        private final int[] ints;
+        private final int stride;
+        private final int pixelStride;
+        private final int blueOffset;
+
+        Sampler(BufferedImage image) {
+            this.image = image;
+            Raster raster = image.getRaster();
+            boolean untranslated = raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+            int type = image.getType();
+
+            if (untranslated && raster.getDataBuffer() instanceof DataBufferByte dataBuffer
+                    && raster.getSampleModel() instanceof ComponentSampleModel sampleModel
+                    && (type == BufferedImage.TYPE_BYTE_GRAY || type == BufferedImage.TYPE_3BYTE_BGR
+                        || type == BufferedImage.TYPE_4BYTE_ABGR)) {
+                this.bytes = dataBuffer.getData();
+                this.ints = null;
+                this.stride = sampleModel.getScanlineStride();
+                this.pixelStride = sampleModel.getPixelStride();
+                this.blueOffset = type == BufferedImage.TYPE_4BYTE_ABGR ? 1 : 0;
+            } else if (untranslated && raster.getDataBuffer() instanceof DataBufferInt dataBuffer
+                    && raster.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel
+                    && (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)) {
+                this.bytes = null;
+                this.ints = dataBuffer.getData();
+                this.stride = sampleModel.getScanlineStride();
+                this.pixelStride = 1;
+                this.blueOffset = 0;
+            } else {
+                this.bytes = null;
+                this.ints = null;
+                this.stride = 0;
+                this.pixelStride = 0;
+                this.blueOffset = 0;
+            }
+        }
+
+        int luminance(int x, int y) {
+            if (bytes != null) {
+                int i = y * stride + x * pixelStride;
+                if (pixelStride == 1) {
+                    return bytes[i] & 0xFF;
+                }
+                i += blueOffset;
+                return ((bytes[i + 2] & 0xFF) * 77 + (bytes[i + 1] & 0xFF) * 150 + (bytes[i] & 0xFF) * 29) >> 8;
+            }
+            return rgbLuminance(ints != null ? ints[y * stride + x] : image.getRGB(x, y));
+        }
+
+        private static int rgbLuminance(int rgb) {
+            return (((rgb >> 16) & 0xFF) * 77 + ((rgb >> 8) & 0xFF) * 150 + (rgb & 0xFF) * 29) >> 8;
+        }
+    }
+
+    private static int percentile(int[] histogram, int samples, double fraction) {
+        int target = (int) Math.ceil(samples * fraction);
+        int seen = 0;
+        for (int level = 0; level < histogram.length; level++) {
+            seen += histogram[level];
+            if (seen >= target) {
+                return level;
+            }
+        }
+        return histogram.length - 1;
+    }
+
+    public Map<String, Object> getMetrics() {
+        long assessed = 0;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (Map.Entry<Reason, LongAdder> entry : outcomes.entrySet()) {
+            long count = entry.getValue().sum();
+            assessed += count;
+            metrics.put(entry.getKey().name().toLowerCase(), count);
+        }
+        metrics.put("enabled", enabled);
+        metrics.put("assessed", assessed);
+        metrics.put("avgAssessMs", assessed == 0 ? 0.0 : assessNanos.sum() / 1_000_000.0 / assessed);
+        return metrics;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.esp32detection.service;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a frame fails the quality gate and is not sent to Tesseract.
+ */
+public class FrameRejectedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    // Only meaningful in the process that measured the frame
+    private final transient FrameQuality quality;
+
+    public FrameRejectedException(FrameQuality quality) {
+        super("Frame rejected: " + quality.getReason());
+        this.quality = quality;
+    }
+
+    public FrameQuality getQuality() {
+        return quality;
+    }
+}
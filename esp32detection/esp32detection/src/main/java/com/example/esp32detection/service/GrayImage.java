@@ -0,0 +1,48 @@
+package com.example.esp32detection.service;
+
+import com.example.esp32detection.model.CardRegion;
+
+/**
+ * 8-bit grayscale image backed by a reusable byte array (row-major, stride = width).
+ * Instances are owned by a single thread and resized in place between frames.
+ */
+public class GrayImage {
+
+    private int width;
+    private int height;
+    private int dpi;
+    private byte[] pixels = new byte[0];
+    private CardRegion cardRegion;
+
+    /**
+     * Resize for a new frame, growing the backing array only when it is too small.
+     */
+    public GrayImage reset(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        if (pixels.length < size) {
+            pixels = new byte[size];
+        }
+        return this;
+    }
+
+    public int getWidth() { return width; }
+
+    public int getHeight() { return height; }
+
+    public int getDpi() { return dpi; }
+
+    public void setDpi(int dpi) { this.dpi = dpi; }
+
+    public byte[] getPixels() { return pixels; }
+
+    /** Where this image was cropped from in the original frame, or null for the whole frame. */
+    public CardRegion getCardRegion() { return cardRegion; }
+
+    public void setCardRegion(CardRegion cardRegion) { this.cardRegion = cardRegion; }
+
+    public int get(int x, int y) {
+        return pixels[y * width + x] & 0xFF;
+    }
+}
@@ -2,40 +2,82 @@ package com.example.esp32detection.service;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.example.esp32detection.model.IDCardData;
+import com.example.esp32detection.model.OcrResult;
+import com.example.esp32detection.model.OcrWord;
 
 @Service
 public class IDCardParserService {
     
     private static final Logger logger = LoggerFactory.getLogger(IDCardParserService.class);
 
-    // Inner class for field extraction results with confidence scoring
-    private static class FieldResult {
-        String value;
-        int confidence;
-        
-        FieldResult(String value, int confidence) {
-            this.value = value;
-            this.confidence = confidence;
-        }
-    }
-    
     // Field types for validation
     private enum FieldType {
-        NAME, REGISTER_NUMBER, PROGRAMME, DATE, BLOOD_GROUP, 
+        NAME, PROGRAMME, DATE, BLOOD_GROUP, 
         PIN_CODE, PHONE, EMAIL, ADDRESS, GENERIC
     }
 
+    // Parsed fields by the names CardTemplate.FIELDS uses, for attaching word confidences
+    private static final Map<String, Function<IDCardData, String>> FIELD_VALUES = new LinkedHashMap<>();
+
+    static {
+        FIELD_VALUES.put("name", IDCardData::getName);
+        FIELD_VALUES.put("programme", IDCardData::getProgramme);
+        FIELD_VALUES.put("registerNumber", IDCardData::getRegisterNumber);
+        FIELD_VALUES.put("validFrom", IDCardData::getValidFrom);
+        FIELD_VALUES.put("validTo", IDCardData::getValidTo);
+        FIELD_VALUES.put("bloodGroup", IDCardData::getBloodGroup);
+        FIELD_VALUES.put("dateOfBirth", IDCardData::getDateOfBirth);
+        FIELD_VALUES.put("address", IDCardData::getAddress);
+        FIELD_VALUES.put("pin", IDCardData::getPin);
+        FIELD_VALUES.put("permanentContact", IDCardData::getPermanentContact);
+        FIELD_VALUES.put("emergencyContact", IDCardData::getEmergencyContact);
+        FIELD_VALUES.put("email", IDCardData::getEmail);
+    }
+
+    private final CardTemplateRegistry templates;
+
+    /**
+     * Parser for the built-in SRM card template only.
+     */
+    public IDCardParserService() {
+        this(new CardTemplateRegistry(List.of(CardTemplate.srm())));
+    }
+
+    @Autowired
+    public IDCardParserService(CardTemplateRegistry templates) {
+        this.templates = templates;
+    }
+
     public IDCardData parseIDCardText(String ocrText) {
+        return parseIDCardText(ocrText, List.of());
+    }
+
+    /**
+     * Parse OCR text, and give each field found the confidence Tesseract had in the
+     * words it was read from.
+     */
+    public IDCardData parseIDCardText(OcrResult ocrResult) {
+        return parseIDCardText(ocrResult.getText(), ocrResult.getWords());
+    }
+
+    private IDCardData parseIDCardText(String ocrText, List<OcrWord> words) {
         IDCardData idCardData = new IDCardData();
         
         // Preprocess and normalize OCR text
@@ -43,387 +85,300 @@ public class IDCardParserService {
         
         logger.debug("Processing OCR text. Length: {}", cleanedText.length());
         
+        // One keyword pass identifies the card template and scores both sides
+        CardTemplateRegistry.Detection detection = templates.detect(cleanedText);
+        CardTemplate template = detection.template;
+        logger.debug("Card template: {}", template.getName());
+        
+        // Tokenize once; every field is read from the same token stream
+        CardFieldExtractor fields = new CardFieldExtractor(cleanedText, template.getVocabulary());
+        
         // Determine card type
-        String cardType = determineCardType(cleanedText);
+        String cardType = determineCardType(detection, fields);
         idCardData.setCardType(cardType);
         
         if ("FRONT".equals(cardType)) {
-            parseFrontSide(cleanedText, idCardData);
+            parseFrontSide(fields, template, idCardData);
         } else if ("BACK".equals(cardType)) {
-            parseBackSide(cleanedText, idCardData);
+            parseBackSide(fields, template, idCardData);
         } else {
             logger.warn("Unable to determine card type from text");
         }
         
         idCardData.setRawText(ocrText);
+        attachConfidences(idCardData, words);
         return idCardData;
     }
 
+    /**
+     * Required fields that parsing left empty because nothing valid was found. An
+     * unknown card type makes every field missing, reported as "cardType".
+     */
+    public List<String> missingFields(IDCardData data, List<String> required) {
+        if (!"FRONT".equals(data.getCardType()) && !"BACK".equals(data.getCardType())) {
+            return List.of("cardType");
+        }
+        
+        List<String> missing = new ArrayList<>();
+        for (String field : required) {
+            Function<IDCardData, String> value = FIELD_VALUES.get(field);
+            if (value == null) {
+                throw new IllegalArgumentException("Unknown ID card field: " + field);
+            }
+            String parsed = value.apply(data);
+            if (parsed == null || parsed.isEmpty()) missing.add(field);
+        }
+        return missing;
+    }
+
+    private void attachConfidences(IDCardData data, List<OcrWord> words) {
+        WordConfidence confidence = new WordConfidence(words);
+        if (confidence.isEmpty()) return;
+        
+        for (Map.Entry<String, Function<IDCardData, String>> field : FIELD_VALUES.entrySet()) {
+            int value = confidence.of(field.getValue().apply(data));
+            if (value != OcrResult.UNKNOWN_CONFIDENCE) {
+                data.getFieldConfidences().put(field.getKey(), value);
+            }
+        }
+        logger.debug("Field confidences: {}", data.getFieldConfidences());
+    }
+
+    /**
+     * Pick the register number out of text read from the register number region
+     * of the card, in the format of any configured template. Returns an empty string
+     * when nothing valid is found.
+     */
+    public String parseRegisterNumberRegion(String regionText) {
+        if (regionText == null) return "";
+        
+        String compact = ParserPatterns.WHITESPACE.matcher(regionText).replaceAll("").toUpperCase();
+        for (CardTemplate template : templates.getTemplates()) {
+            Matcher matcher = template.getRegisterNumberFormat().matcher(compact);
+            if (matcher.find()) return matcher.group();
+        }
+        return "";
+    }
+
+    /**
+     * Clean text read from the name region of the card, dropping a leading
+     * "Name" label. Returns an empty string when it is not a plausible name.
+     */
+    public String parseNameRegion(String regionText) {
+        if (regionText == null) return "";
+        
+        String name = ParserPatterns.NAME_LABEL.matcher(regionText).replaceAll("");
+        name = ParserPatterns.WHITESPACE.matcher(name).replaceAll(" ").trim();
+        return validateAndClean(name, FieldType.NAME);
+    }
+
     /**
      * Normalize common OCR errors and clean text
      */
     private String normalizeOCRText(String text) {
         if (text == null || text.isEmpty()) return "";
         
-        return text
-            // Replace common special character misreads
-            .replaceAll("[©€]", ":")
-            // Fix common number/letter confusions
-            .replaceAll("8\\s*Tech", "B.Tech")
-            .replaceAll("(?i)4VE", "B +ve")
-            .replaceAll("(?i)apri1", "April")
-            .replaceAll("(?i)0ct", "Oct")
-            // Normalize whitespace
-            .replaceAll("\\s+", " ")
-            .trim();
+        // Replace common special character misreads
+        text = ParserPatterns.SEPARATOR_MISREAD.matcher(text).replaceAll(":");
+        // Fix common number/letter confusions
+        text = ParserPatterns.B_TECH_MISREAD.matcher(text).replaceAll("B.Tech");
+        text = ParserPatterns.B_POSITIVE_MISREAD.matcher(text).replaceAll("B +ve");
+        text = ParserPatterns.APRIL_MISREAD.matcher(text).replaceAll("April");
+        text = ParserPatterns.OCTOBER_MISREAD.matcher(text).replaceAll("Oct");
+        // Normalize whitespace
+        return ParserPatterns.WHITESPACE.matcher(text).replaceAll(" ").trim();
     }
 
     /**
-     * Determine card type based on content
+     * Determine card type from the template's side markers
      */
-    private String determineCardType(String text) {
-        int frontScore = 0;
-        int backScore = 0;
-        
-        // Front side indicators
-        if (text.contains("FACULTY")) frontScore += 3;
-        if (text.contains("Programme") || text.contains("Program")) frontScore += 2;
-        if (text.contains("Register")) frontScore += 2;
-        if (text.contains("Valid From") || text.contains("Valid To")) frontScore += 2;
-        
-        // Back side indicators
-        if (text.contains("Blood Group")) backScore += 3;
-        if (text.contains("Address")) backScore += 2;
-        if (text.contains("Pin") && text.matches(".*Pin\\s*[:©€+]?\\s*\\d{6}.*")) backScore += 2;
-        if (text.contains("Cont.No") || text.contains("Contact")) backScore += 2;
-        if (text.contains("Date of Birth") || text.contains("Birth")) backScore += 2;
+    private String determineCardType(CardTemplateRegistry.Detection detection, CardFieldExtractor fields) {
+        int frontScore = detection.frontScore;
+        int backScore = detection.backScore;
+        
+        // A labelled pin code is a back side indicator the keywords alone cannot see
+        int pinCodeWeight = detection.template.getPinCodeWeight();
+        if (pinCodeWeight > 0 && fields.hasPinCode()) backScore += pinCodeWeight;
         
         logger.debug("Card type scoring - Front: {}, Back: {}", frontScore, backScore);
         
         return frontScore > backScore ? "FRONT" : (backScore > 0 ? "BACK" : "UNKNOWN");
     }
 
-    private void parseFrontSide(String text, IDCardData data) {
+    private void parseFrontSide(CardFieldExtractor fields, CardTemplate template, IDCardData data) {
         logger.info("Parsing front side of ID card");
         
-        // Extract Institution
-        String institution = "SRM INSTITUTE OF SCIENCE & TECHNOLOGY";
-        data.setInstitution(institution);
-
-        // Extract Faculty
-        String faculty = "FACULTY OF ENGINEERING & TECHNOLOGY";
-        data.setFaculty(faculty);
+        // Institution and faculty come from the card template
+        data.setInstitution(template.getInstitution());
+        data.setFaculty(template.getFaculty());
 
         // Extract Name with multiple patterns and validation
-        String name = extractName(text);
+        String name = extract(template, "name", fields, () -> extractName(fields));
         data.setName(validateAndClean(name, FieldType.NAME));
         logger.debug("Extracted name: {}", data.getName());
 
         // Extract Programme
-        String programme = extractProgramme(text);
+        String programme = extract(template, "programme", fields, () -> extractProgramme(fields));
         data.setProgramme(validateAndClean(programme, FieldType.PROGRAMME));
         logger.debug("Extracted programme: {}", data.getProgramme());
 
         // Extract Register Number
-        String registerNo = extractRegisterNumber(text);
-        data.setRegisterNumber(validateAndClean(registerNo, FieldType.REGISTER_NUMBER));
+        String registerNo = extract(template, "registerNumber", fields, () -> extractRegisterNumber(fields));
+        data.setRegisterNumber(cleanRegisterNumber(registerNo, template.getRegisterNumberFormat()));
         logger.debug("Extracted register number: {}", data.getRegisterNumber());
 
         // Extract Valid From
-        String validFrom = extractValidFrom(text);
+        String validFrom = extract(template, "validFrom", fields, () -> extractValidFrom(fields));
         data.setValidFrom(validateAndClean(validFrom, FieldType.DATE));
         logger.debug("Extracted valid from: {}", data.getValidFrom());
 
         // Extract Valid To
-        String validTo = extractValidTo(text);
+        String validTo = extract(template, "validTo", fields, () -> extractValidTo(fields));
         data.setValidTo(validateAndClean(validTo, FieldType.DATE));
         logger.debug("Extracted valid to: {}", data.getValidTo());
     }
 
-    private void parseBackSide(String text, IDCardData data) {
+    private void parseBackSide(CardFieldExtractor fields, CardTemplate template, IDCardData data) {
         logger.info("Parsing back side of ID card");
         
         // Extract Blood Group
-        String bloodGroup = extractBloodGroup(text);
+        String bloodGroup = extract(template, "bloodGroup", fields, () -> extractBloodGroup(fields));
         data.setBloodGroup(validateAndClean(bloodGroup, FieldType.BLOOD_GROUP));
         logger.debug("Extracted blood group: {}", data.getBloodGroup());
 
         // Extract Date of Birth
-        String dob = extractDateOfBirth(text);
+        String dob = extract(template, "dateOfBirth", fields, () -> extractDateOfBirth(fields));
         data.setDateOfBirth(normalizeDateOfBirth(dob));
         logger.debug("Extracted date of birth: {}", data.getDateOfBirth());
 
         // Extract Address
-        String address = extractAddress(text);
+        String address = extract(template, "address", fields, () -> extractAddress(fields));
         data.setAddress(validateAndClean(address, FieldType.ADDRESS));
         logger.debug("Extracted address: {}", data.getAddress());
 
         // Extract Pin
-        String pin = extractPin(text);
+        String pin = extract(template, "pin", fields, () -> extractPin(fields));
         data.setPin(validateAndClean(pin, FieldType.PIN_CODE));
         logger.debug("Extracted pin: {}", data.getPin());
 
         // Extract Permanent Contact
-        String permContact = extractPermanentContact(text);
+        String permContact = extract(template, "permanentContact", fields, () -> extractPermanentContact(fields));
         data.setPermanentContact(validateAndClean(permContact, FieldType.PHONE));
         logger.debug("Extracted permanent contact: {}", data.getPermanentContact());
 
         // Extract Emergency Contact
-        String emgContact = extractEmergencyContact(text);
+        String emgContact = extract(template, "emergencyContact", fields, () -> extractEmergencyContact(fields));
         data.setEmergencyContact(validateAndClean(emgContact, FieldType.PHONE));
         logger.debug("Extracted emergency contact: {}", data.getEmergencyContact());
 
         // Extract Email
-        String email = extractEmail(text);
+        String email = extract(template, "email", fields, () -> extractEmail(fields));
         data.setEmail(validateAndClean(email, FieldType.EMAIL));
         logger.debug("Extracted email: {}", data.getEmail());
     }
 
     /**
-     * Extract name with multiple pattern attempts
+     * A field from the template's own pattern when it has one that matches, otherwise
+     * from the built-in rules
      */
-    private String extractName(String text) {
-        String[] patterns = {
-            "(?i)Name\\s*[:©€]?\\s*([A-Z][A-Z\\s]{2,50}?)(?=\\n|Programme|Register|$)",
-            "(?i)Name[^:]*[:©€]\\s*([A-Z][A-Z\\s]+?)(?=\\n|Programme)",
-            "(?<=TECHNOLOGY\\s{1,30})([A-Z][A-Z\\s]{2,50}?)(?=\\s*Programme|\\s*Register|\\s*Name)"
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null && isValidName(result.value) ? result.value : "";
+    private String extract(CardTemplate template, String field, CardFieldExtractor fields, Supplier<String> builtIn) {
+        Pattern pattern = template.getFieldPattern(field);
+        if (pattern != null) {
+            String value = fields.find(pattern);
+            if (value != null) return value;
+        }
+        return builtIn.get();
     }
 
     /**
-     * Extract programme with multiple patterns
+     * Extract name, dropping implausible matches
      */
-    private String extractProgramme(String text) {
-        String[] patterns = {
-            "(?i)Programme\\s*[:©€]?\\s*([A-Z0-9\\.\\(\\)\\s&-]+?)(?=\\n|Register|Valid|$)",
-            "(?i)Program\\s*[:©€]?\\s*([A-Z0-9\\.\\(\\)\\s&-]+?)(?=\\n|Register|Valid|$)",
-            "(?i)[:©€]\\s*(B\\.?\\s*Tech[^\\n]*)",
-            "(?i)(B\\.?\\s*Tech\\s*\\([^)]+\\))"
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null ? result.value : "";
+    private String extractName(CardFieldExtractor fields) {
+        String name = fields.name();
+        return name != null && isValidName(name) ? name : "";
     }
 
     /**
-     * Extract register number with validation
+     * Extract programme
      */
-    private String extractRegisterNumber(String text) {
-        String[] patterns = {
-            "(?i)Register\\s*No\\.?\\s*[:©€]?\\s*([A-Z]{2}\\d{8,12})",
-            "(?i)Reg\\.?\\s*No\\.?\\s*[:©€]?\\s*([A-Z]{2}\\d{8,12})",
-            "(?i)Register\\s*Number\\s*[:©€]?\\s*([A-Z]{2}\\d{8,12})",
-            "([A-Z]{2}\\d{10})" // Direct pattern for common format
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null ? result.value : "";
+    private String extractProgramme(CardFieldExtractor fields) {
+        return orEmpty(fields.programme());
+    }
+
+    /**
+     * Extract register number
+     */
+    private String extractRegisterNumber(CardFieldExtractor fields) {
+        return orEmpty(fields.registerNumber());
     }
 
     /**
      * Extract valid from date
      */
-    private String extractValidFrom(String text) {
-        String[] patterns = {
-            "(?i)Valid\\s*From\\s*[:©€]?\\s*([A-Za-z]+[-\\s]?\\d{4})",
-            "(?i)From\\s*[:©€]?\\s*([A-Za-z]{3,9}[-\\s]?\\d{4})"
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null ? result.value : "";
+    private String extractValidFrom(CardFieldExtractor fields) {
+        return orEmpty(fields.validFrom());
     }
 
     /**
      * Extract valid to date
      */
-    private String extractValidTo(String text) {
-        String[] patterns = {
-            "(?i)To\\s*[:©€]?\\s*([A-Za-z]+[-\\s]?\\d{4})",
-            "(?i)Valid\\s*To\\s*[:©€]?\\s*([A-Za-z]+[-\\s]?\\d{4})"
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null ? result.value : "";
+    private String extractValidTo(CardFieldExtractor fields) {
+        return orEmpty(fields.validTo());
     }
 
     /**
      * Extract blood group with normalization
      */
-    private String extractBloodGroup(String text) {
-        String[] patterns = {
-            "(?i)Blood\\s*Group\\s*[:©€]?\\s*([ABO]+\\s*[+\\-]\\s*(?:ve|VE)?)",
-            "(?i)Blood\\s*Group\\s*[:©€]?\\s*([ABO]\\s*[+\\-])",
-            "([ABO]+\\s*[+\\-]\\s*(?:ve|VE)?)",
-            "([0-9ABO]+\\s*[vV+\\-]?[eE€]?)" // Handle misreads
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        if (result != null) {
-            return normalizeBloodGroup(result.value);
-        }
-        return "";
+    private String extractBloodGroup(CardFieldExtractor fields) {
+        String bloodGroup = fields.bloodGroup();
+        return bloodGroup != null ? normalizeBloodGroup(bloodGroup) : "";
     }
 
     /**
      * Extract date of birth
      */
-    private String extractDateOfBirth(String text) {
-        String[] patterns = {
-            "(?i)Date\\s*of\\s*Birth\\s*[:©€]?\\s*(\\d{1,2}[-\\/\\\\]\\w{3,9}[-\\/\\\\]\\d{4})",
-            "(?i)Birth\\s*[:©€]?\\s*(\\d{1,2}[-\\/\\\\]\\w{3,9}[-\\/\\\\]\\d{4})",
-            "(?i)DOB\\s*[:©€]?\\s*(\\d{1,2}[-\\/\\\\]\\w{3,9}[-\\/\\\\]\\d{4})",
-            "(\\d{1,2}\\s*[-\\/\\\\]?\\s*[A-Za-z]{3,9}\\s*[-\\/\\\\]?\\s*\\d{4})"
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null ? result.value : "";
+    private String extractDateOfBirth(CardFieldExtractor fields) {
+        return orEmpty(fields.dateOfBirth());
     }
 
     /**
-     * Extract address with improved context handling
+     * Extract address between its label and the pin or contact numbers
      */
-    private String extractAddress(String text) {
-        // Primary pattern: between "Address" and "Pin"
-        Pattern pattern = Pattern.compile(
-            "(?i)Address\\s*[:©€]?\\s*([\\s\\S]{10,200}?)(?=Pin\\s*[:©€]?\\s*\\d{6}|Perm\\.?\\s*Cont|$)",
-            Pattern.MULTILINE
-        );
-        Matcher matcher = pattern.matcher(text);
-        
-        if (matcher.find()) {
-            String address = cleanAddress(matcher.group(1));
-            if (isValidAddress(address)) {
-                return address;
-            }
-        }
-        
-        // Fallback: extract between DOB and Pin
-        pattern = Pattern.compile(
-            "(?i)(?:Birth|DOB)[^\\n]*\\n\\s*([\\s\\S]{10,200}?)(?=Pin\\s*[:©€]?\\s*\\d{6})",
-            Pattern.MULTILINE
-        );
-        matcher = pattern.matcher(text);
-        
-        if (matcher.find()) {
-            String address = cleanAddress(matcher.group(1));
-            if (isValidAddress(address)) {
-                return address;
-            }
-        }
-        
-        return "";
+    private String extractAddress(CardFieldExtractor fields) {
+        String address = cleanAddress(fields.address());
+        return isValidAddress(address) ? address : "";
     }
 
     /**
      * Extract pin code
      */
-    private String extractPin(String text) {
-        String[] patterns = {
-            "(?i)Pin\\s*(?:Code)?\\s*[:©€+]?\\s*(\\d{6})",
-            "(?i)Pincode\\s*[:©€+]?\\s*(\\d{6})",
-            "(?i)Pin\\s*[:©€+]?\\s*(\\d{6})",
-            "(\\d{6})(?=\\s|$)" // Any 6-digit number as fallback
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null ? result.value : "";
+    private String extractPin(CardFieldExtractor fields) {
+        return orEmpty(fields.pin());
     }
 
     /**
      * Extract permanent contact
      */
-    private String extractPermanentContact(String text) {
-        String[] patterns = {
-            "(?i)Perm\\.?\\s*Cont\\.?\\s*No\\.?\\s*[:©€]?\\s*(\\d{10})",
-            "(?i)Permanent\\s*Contact\\s*[:©€]?\\s*(\\d{10})",
-            "(?i)Perm\\s*[:©€]?\\s*(\\d{10})"
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null ? result.value : "";
+    private String extractPermanentContact(CardFieldExtractor fields) {
+        return orEmpty(fields.permanentContact());
     }
 
     /**
      * Extract emergency contact
      */
-    private String extractEmergencyContact(String text) {
-        String[] patterns = {
-            "(?i)Emg\\.?\\s*Cont\\.?\\s*No\\.?\\s*[:©€]?\\s*(\\d{10})",
-            "(?i)Emergency\\s*Contact\\s*[:©€]?\\s*(\\d{10})",
-            "(?i)Emg\\s*[:©€]?\\s*(\\d{10})"
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null ? result.value : "";
+    private String extractEmergencyContact(CardFieldExtractor fields) {
+        return orEmpty(fields.emergencyContact());
     }
 
     /**
      * Extract email
      */
-    private String extractEmail(String text) {
-        String[] patterns = {
-            "(?i)E[-\\s]?mail\\s*ID\\s*[:©€]?\\s*([a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,})",
-            "(?i)Email\\s*[:©€]?\\s*([a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,})",
-            "([a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,})"
-        };
-        
-        FieldResult result = extractFieldWithConfidence(text, patterns);
-        return result != null ? result.value : "";
+    private String extractEmail(CardFieldExtractor fields) {
+        return orEmpty(fields.email());
     }
 
-    /**
-     * Extract field with confidence scoring from multiple patterns
-     */
-    private FieldResult extractFieldWithConfidence(String text, String... regexes) {
-        FieldResult bestResult = null;
-        
-        for (String regex : regexes) {
-            try {
-                Pattern pattern = Pattern.compile(regex);
-                Matcher matcher = pattern.matcher(text);
-                
-                if (matcher.find()) {
-                    int groupCount = matcher.groupCount();
-                    if (groupCount >= 1) {
-                        String value = matcher.group(groupCount);
-                        int confidence = calculateConfidence(value, regex);
-                        
-                        if (bestResult == null || confidence > bestResult.confidence) {
-                            bestResult = new FieldResult(value, confidence);
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("Error processing regex pattern: {}", regex, e);
-            }
-        }
-        
-        return bestResult;
-    }
-
-    /**
-     * Calculate confidence score for extracted value
-     */
-    private int calculateConfidence(String value, String pattern) {
-        if (value == null || value.trim().isEmpty()) return 0;
-        
-        int score = 50; // Base score
-        
-        // Length bonus (reasonable length is good)
-        if (value.length() >= 3 && value.length() <= 100) score += 10;
-        
-        // Pattern specificity bonus (more specific patterns get higher scores)
-        if (pattern.contains("(?i)")) score += 5; // Case insensitive is more flexible
-        if (pattern.contains("\\s*")) score += 5; // Handles whitespace variations
-        
-        // Content quality checks
-        if (!value.matches(".*[^a-zA-Z0-9\\s@.\\-+()&:/,].*")) score += 10; // No weird chars
-        if (value.trim().equals(value)) score += 5; // No leading/trailing spaces
-        
-        return score;
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
     }
 
     /**
@@ -438,18 +393,15 @@ public class IDCardParserService {
             case NAME:
                 return isValidName(value) ? value : "";
                 
-            case REGISTER_NUMBER:
-                return value.matches("[A-Z]{2}\\d{8,12}") ? value : "";
-                
             case PIN_CODE:
-                return value.matches("\\d{6}") ? value : "";
+                return ParserPatterns.PIN_CODE_VALUE.matcher(value).matches() ? value : "";
                 
             case PHONE:
-                String cleaned = value.replaceAll("\\D", "");
-                return cleaned.matches("\\d{10}") ? cleaned : "";
+                String cleaned = ParserPatterns.NON_DIGIT.matcher(value).replaceAll("");
+                return ParserPatterns.PHONE_VALUE.matcher(cleaned).matches() ? cleaned : "";
                 
             case EMAIL:
-                return value.matches("^[\\w._%+-]+@[\\w.-]+\\.\\w{2,}$") ? value.toLowerCase() : "";
+                return ParserPatterns.EMAIL_VALUE.matcher(value).matches() ? value.toLowerCase() : "";
                 
             case BLOOD_GROUP:
                 return normalizeBloodGroup(value);
@@ -465,6 +417,16 @@ public class IDCardParserService {
         }
     }
 
+    /**
+     * Validate a register number against the template's format
+     */
+    private String cleanRegisterNumber(String value, Pattern format) {
+        if (value == null || value.trim().isEmpty()) return "";
+        
+        value = value.trim();
+        return format.matcher(value).matches() ? value : "";
+    }
+
     /**
      * Validate name format
      */
@@ -472,13 +434,14 @@ public class IDCardParserService {
         if (name == null || name.length() < 3) return false;
         
         // Should contain only letters and spaces
-        if (!name.matches("[A-Za-z\\s]+")) return false;
+        if (!ParserPatterns.NAME_VALUE.matcher(name).matches()) return false;
         
         // Should not be all uppercase noise
-        if (name.matches("[A-Z\\s]+") && name.split("\\s+").length < 2) return false;
+        if (ParserPatterns.UPPERCASE_NAME_VALUE.matcher(name).matches()
+            && ParserPatterns.WHITESPACE.split(name).length < 2) return false;
         
         // Should have at least 2 words for full name
-        String[] words = name.trim().split("\\s+");
+        String[] words = ParserPatterns.WHITESPACE.split(name.trim());
         return words.length >= 2 || name.length() >= 5;
     }
 
@@ -488,12 +451,10 @@ public class IDCardParserService {
     private String cleanAddress(String address) {
         if (address == null) return "";
         
-        return address
-            .replaceAll("(?i)(Blood Group|Date of Birth|DOB|Birth)[^\\n]*", "")
-            .replaceAll("[\\\\]+", ", ")
-            .replaceAll("\\s+", " ")
-            .replaceAll(",\\s*,", ",")
-            .trim();
+        address = ParserPatterns.ADDRESS_NOISE.matcher(address).replaceAll("");
+        address = ParserPatterns.BACKSLASHES.matcher(address).replaceAll(", ");
+        address = ParserPatterns.WHITESPACE.matcher(address).replaceAll(" ");
+        return ParserPatterns.EMPTY_LIST_ITEM.matcher(address).replaceAll(",").trim();
     }
 
     /**
@@ -503,10 +464,10 @@ public class IDCardParserService {
         if (address == null || address.length() < 10) return false;
         
         // Should contain letters
-        if (!address.matches(".*[A-Za-z]{3,}.*")) return false;
+        if (!ParserPatterns.LETTER_RUN.matcher(address).find()) return false;
         
         // Should not contain only special characters
-        if (address.replaceAll("[^A-Za-z0-9]", "").length() < 5) return false;
+        if (ParserPatterns.NON_ALPHANUMERIC.matcher(address).replaceAll("").length() < 5) return false;
         
         return true;
     }
@@ -522,13 +483,12 @@ public class IDCardParserService {
             .replace("4VE", "B +ve")
             .replace("4", "A")
             .replace("0", "O")
-            .replace("€", "e")
-            .replaceAll("\\s+", " ")
-            .trim();
+            .replace("€", "e");
+        bloodGroup = ParserPatterns.WHITESPACE.matcher(bloodGroup).replaceAll(" ").trim();
         
         // Normalize format to "X +ve" or "X -ve"
-        if (bloodGroup.matches("[ABO]+\\s*[+\\-].*")) {
-            String type = bloodGroup.replaceAll("[^ABO]", "");
+        if (ParserPatterns.BLOOD_GROUP_VALUE.matcher(bloodGroup).matches()) {
+            String type = ParserPatterns.NON_BLOOD_TYPE.matcher(bloodGroup).replaceAll("");
             String rh = bloodGroup.contains("+") ? "+" : "-";
             return type + " " + rh + "ve";
         }
@@ -573,6 +533,7 @@ public class IDCardParserService {
         IDCardData merged = new IDCardData();
         
         if (front != null) {
+            merged.getFieldConfidences().putAll(front.getFieldConfidences());
             merged.setName(front.getName());
             merged.setRegisterNumber(front.getRegisterNumber());
             merged.setProgramme(front.getProgramme());
@@ -583,6 +544,7 @@ public class IDCardParserService {
         }
         
         if (back != null) {
+            merged.getFieldConfidences().putAll(back.getFieldConfidences());
             merged.setBloodGroup(back.getBloodGroup());
             merged.setDateOfBirth(back.getDateOfBirth());
             merged.setAddress(back.getAddress());
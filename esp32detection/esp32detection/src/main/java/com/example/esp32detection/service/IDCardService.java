@@ -0,0 +1,591 @@
+package com.example.esp32detection.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.example.esp32detection.model.CardRegion;
+import com.example.esp32detection.model.IDCardData;
+import com.example.esp32detection.model.OcrResult;
+import com.example.esp32detection.repository.IDCardRepository;
+
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * ID card registration and login flows, shared by the synchronous OCR endpoints
+ * and the asynchronous OCR job API.
+ */
+@Service
+public class IDCardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IDCardService.class);
+
+    private final OCRService ocrService;
+    private final OcrCascade ocrCascade;
+    private final IDCardParserService parserService;
+    private final IDCardRepository idCardRepository;
+    private final RegisterNumberIndex registerNumberIndex;
+    private final NameMatcher nameMatcher;
+    private final ExecutorService ocrExecutor;
+    private final long registerTimeoutMs;
+    private final int burstMaxFrames;
+    private final int burstParallelism;
+    private final int burstAgreement;
+    private final long burstTimeoutMs;
+    private final int rejectBelowConfidence;
+    private final int acceptAtConfidence;
+
+    private final LongAdder loginBarcode = new LongAdder();
+    private final LongAdder loginBarcodeNameMismatch = new LongAdder();
+    private final LongAdder loginFastPath = new LongAdder();
+    private final LongAdder loginFallback = new LongAdder();
+    private final LongAdder bursts = new LongAdder();
+    private final LongAdder burstFrames = new LongAdder();
+    private final LongAdder burstEarlyStops = new LongAdder();
+    private final LongAdder lowConfidenceReads = new LongAdder();
+    private final LongAdder confidentStops = new LongAdder();
+
+    public IDCardService(OCRService ocrService,
+                         OcrCascade ocrCascade,
+                         IDCardParserService parserService,
+                         IDCardRepository idCardRepository,
+                         RegisterNumberIndex registerNumberIndex,
+                         NameMatcher nameMatcher,
+                         ExecutorService ocrExecutor,
+                         @Value("${ocr.register.timeout-ms:30000}") long registerTimeoutMs,
+                         @Value("${ocr.burst.max-frames:8}") int burstMaxFrames,
+                         @Value("${ocr.burst.parallelism:2}") int burstParallelism,
+                         @Value("${ocr.burst.agreement:2}") int burstAgreement,
+                         @Value("${ocr.burst.timeout-ms:30000}") long burstTimeoutMs,
+                         @Value("${ocr.confidence.reject-below:60}") int rejectBelowConfidence,
+                         @Value("${ocr.confidence.accept-at:90}") int acceptAtConfidence) {
+        this.ocrService = ocrService;
+        this.ocrCascade = ocrCascade;
+        this.parserService = parserService;
+        this.idCardRepository = idCardRepository;
+        this.registerNumberIndex = registerNumberIndex;
+        this.nameMatcher = nameMatcher;
+        this.ocrExecutor = ocrExecutor;
+        this.registerTimeoutMs = registerTimeoutMs;
+        this.burstMaxFrames = burstMaxFrames;
+        this.burstParallelism = Math.max(1, burstParallelism);
+        this.burstAgreement = Math.max(1, burstAgreement);
+        this.burstTimeoutMs = burstTimeoutMs;
+        this.rejectBelowConfidence = rejectBelowConfidence;
+        this.acceptAtConfidence = acceptAtConfidence;
+    }
+
+    public ResponseEntity<Map<String, Object>> register(byte[] frontBytes, String frontName,
+                                                        byte[] backBytes, String backName) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            // OCR and parse both sides concurrently, then merge
+            Map<String, CardRegion> cropBoxes = new ConcurrentHashMap<>();
+            IDCardData mergedData = parseBothSides(frontBytes, backBytes, cropBoxes);
+            mergedData.setFileName(frontName + " & " + backName);
+            mergedData.setVerified(false);
+            
+            // Check if user already exists by register number
+            if (mergedData.getRegisterNumber() != null && 
+                registerNumberIndex.findExact(mergedData.getRegisterNumber()).isPresent()) {
+                response.put("status", "error");
+                response.put("message", "User with this register number already exists");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            
+            // Save merged data
+            IDCardData savedData = idCardRepository.save(mergedData);
+            registerNumberIndex.put(savedData);
+            
+            logger.debug("Registered card {}: name={}, registerNumber={}, programme={}, email={}, bloodGroup={}, "
+                    + "dateOfBirth={}, validFrom={}, validTo={}", savedData.getId(), savedData.getName(),
+                    savedData.getRegisterNumber(), savedData.getProgramme(), savedData.getEmail(),
+                    savedData.getBloodGroup(), savedData.getDateOfBirth(), savedData.getValidFrom(),
+                    savedData.getValidTo());
+            
+            response.put("status", "success");
+            response.put("message", "New user registered successfully");
+            response.put("data", savedData);
+            response.put("userId", savedData.getId());
+            response.put("cropBox", cropBoxes);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (FrameRejectedException e) {
+            return frameRejected(e, response);
+        } catch (OcrPoolExhaustedException | RejectedExecutionException e) {
+            response.put("status", "error");
+            response.put("message", "OCR service is busy, please retry");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (TimeoutException | OcrTimeoutException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+        } catch (IOException | TesseractException e) {
+            response.put("status", "error");
+            response.put("message", "Failed to process ID card: " + e.getMessage());
+            logger.error("Registration failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> frameRejected(FrameRejectedException e, Map<String, Object> response) {
+        FrameQuality quality = e.getQuality();
+        response.put("status", "error");
+        response.put("message", "Frame is not readable, please capture again");
+        response.put("reason", quality.getReason().name());
+        response.put("quality", quality.toMap());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
+    /**
+     * Run OCR and parsing for the front and back images in parallel on the OCR executor.
+     * The first failure, or the overall timeout, cancels whichever side is still running.
+     */
+    IDCardData parseBothSides(byte[] frontBytes, byte[] backBytes, Map<String, CardRegion> cropBoxes)
+            throws IOException, TesseractException, TimeoutException {
+        CompletionService<IDCardData> completion = new ExecutorCompletionService<>(ocrExecutor);
+        Future<IDCardData> front = completion.submit(() -> parseSide("FRONT", frontBytes, cropBoxes));
+        Future<IDCardData> back = completion.submit(() -> parseSide("BACK", backBytes, cropBoxes));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(registerTimeoutMs);
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                Future<IDCardData> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException("ID card processing timed out after " + registerTimeoutMs + " ms");
+                }
+                done.get();
+            }
+            return parserService.mergeCardData(front.get(), back.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while processing ID card", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof TesseractException tesseractException) {
+                throw tesseractException;
+            }
+            throw new TesseractException(cause.getMessage(), cause);
+        } finally {
+            front.cancel(true);
+            back.cancel(true);
+        }
+    }
+
+    private IDCardData parseSide(String side, byte[] imageBytes, Map<String, CardRegion> cropBoxes)
+            throws IOException, TesseractException {
+        // Cheapest OCR first; costlier stages only while required fields are still empty
+        String profile = "BACK".equals(side) ? OcrProfiles.BACK_SIDE : OcrProfiles.REGISTER_FULL;
+        OcrCascade.Result read = ocrCascade.read(new CardFrame(imageBytes), profile);
+        OcrResult ocrResult = read.getOcrResult();
+        if (ocrResult.getCardRegion() != null) {
+            cropBoxes.put(side.toLowerCase(), ocrResult.getCardRegion());
+        }
+        logger.debug("{} OCR text ({}):\n{}", side, read.getStage().getName(), ocrResult.getText());
+
+        return read.getData();
+    }
+
+    /**
+     * The registered card whose register number the image's barcode carries, once the
+     * name in the card's name region matches it; null when there is no readable
+     * barcode, its number is not registered or the name does not match, and the
+     * caller falls back to OCR of both fields. The barcode spares reading the register
+     * number but is not proof on its own: Code 39 has no check character, so a
+     * misread bar can land on another registered number.
+     */
+    private IDCardData scanBarcode(CardFrame front, Map<String, Object> response) throws IOException, TesseractException {
+        String registerNumber = parserService.parseRegisterNumberRegion(ocrService.readBarcode(front));
+        if (registerNumber.isEmpty()) return null;
+        RegisterNumberIndex.Match match = registerNumberIndex.lookup(registerNumber).orElse(null);
+        if (match == null || match.isCorrected()) return null;
+        
+        // The OCR fallback starts with this same read, which the result cache then answers
+        OcrResult roiResult = ocrService.recognizeLoginFields(front);
+        String name = parserService.parseNameRegion(roiResult.getField(OCRService.FIELD_NAME));
+        int confidence = roiResult.getFieldConfidence(OCRService.FIELD_NAME);
+        boolean confident = confidence == OcrResult.UNKNOWN_CONFIDENCE || confidence >= rejectBelowConfidence;
+        if (!confident || !nameMatcher.matches(match.getNameKey(), name)) {
+            loginBarcodeNameMismatch.increment();
+            return null;
+        }
+        response.put("cropBox", roiResult.getCardRegion());
+        return match.getCard();
+    }
+
+    /**
+     * OCR the login fields from the card template regions, falling back to a full-card
+     * OCR when the regions do not yield a valid register number and a name, or read
+     * them with too little confidence.
+     */
+    private IDCardData scanLoginFields(CardFrame front, Map<String, Object> response)
+            throws IOException, TesseractException {
+        OcrResult roiResult = ocrService.recognizeLoginFields(front);
+        String registerNumber = parserService.parseRegisterNumberRegion(roiResult.getField(OCRService.FIELD_REGISTER_NUMBER));
+        String name = parserService.parseNameRegion(roiResult.getField(OCRService.FIELD_NAME));
+        
+        IDCardData roiData = new IDCardData();
+        roiData.setRegisterNumber(registerNumber);
+        roiData.setName(name);
+        putConfidence(roiData, FieldVote.REGISTER_NUMBER, roiResult.getFieldConfidence(OCRService.FIELD_REGISTER_NUMBER));
+        putConfidence(roiData, FieldVote.NAME, roiResult.getFieldConfidence(OCRService.FIELD_NAME));
+        
+        if (!registerNumber.isEmpty() && !name.isEmpty() && !isLowConfidence(roiData)) {
+            loginFastPath.increment();
+            response.put("cropBox", roiResult.getCardRegion());
+            response.put("ocrMode", "ROI");
+            return roiData;
+        }
+        
+        loginFallback.increment();
+        OcrCascade.Result read = ocrCascade.read(front, OcrProfiles.LOGIN_FAST);
+        OcrResult ocrResult = read.getOcrResult();
+        response.put("cropBox", ocrResult.getCardRegion());
+        response.put("ocrMode", "FULL");
+        response.put("ocrStage", read.getStage().getName());
+        logger.debug("Login OCR text ({}):\n{}", read.getStage().getName(), ocrResult.getText());
+        
+        return read.getData();
+    }
+
+    private static void putConfidence(IDCardData data, String field, int confidence) {
+        if (confidence != OcrResult.UNKNOWN_CONFIDENCE) {
+            data.getFieldConfidences().put(field, confidence);
+        }
+    }
+
+    /**
+     * Whether Tesseract was unsure of the register number or the name. Fields without
+     * a reported confidence are given the benefit of the doubt.
+     */
+    private boolean isLowConfidence(IDCardData data) {
+        Map<String, Integer> confidences = data.getFieldConfidences();
+        return confidences.getOrDefault(FieldVote.REGISTER_NUMBER, 100) < rejectBelowConfidence
+                || confidences.getOrDefault(FieldVote.NAME, 100) < rejectBelowConfidence;
+    }
+
+    /**
+     * Whether Tesseract was sure enough of both login fields that another frame
+     * could not change the outcome.
+     */
+    private boolean isConfident(IDCardData data) {
+        Map<String, Integer> confidences = data.getFieldConfidences();
+        return confidences.getOrDefault(FieldVote.REGISTER_NUMBER, 0) >= acceptAtConfidence
+                && confidences.getOrDefault(FieldVote.NAME, 0) >= acceptAtConfidence;
+    }
+
+    private ResponseEntity<Map<String, Object>> lowConfidence(IDCardData scannedData, Map<String, Object> response) {
+        lowConfidenceReads.increment();
+        response.put("status", "error");
+        response.put("message", "ID card text was read with low confidence, please capture again");
+        response.put("reason", "LOW_CONFIDENCE");
+        response.put("confidence", scannedData.getFieldConfidences());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
+    public Map<String, Object> getLoginMetrics() {
+        long fast = loginFastPath.sum();
+        long total = fast + loginFallback.sum();
+        long barcode = loginBarcode.sum();
+        
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("barcode", barcode);
+        metrics.put("barcodeNameMismatch", loginBarcodeNameMismatch.sum());
+        metrics.put("barcodeRatio", barcode + total == 0 ? 0.0 : (double) barcode / (barcode + total));
+        metrics.put("roi", fast);
+        metrics.put("fullFallback", total - fast);
+        metrics.put("roiRatio", total == 0 ? 0.0 : (double) fast / total);
+        metrics.put("bursts", bursts.sum());
+        metrics.put("burstEarlyStops", burstEarlyStops.sum());
+        metrics.put("burstAvgFrames", bursts.sum() == 0 ? 0.0 : (double) burstFrames.sum() / bursts.sum());
+        metrics.put("lowConfidenceReads", lowConfidenceReads.sum());
+        metrics.put("confidentStops", confidentStops.sum());
+        return metrics;
+    }
+
+    public ResponseEntity<Map<String, Object>> login(byte[] frontBytes) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            // One decode and quality check for every read of this frame below
+            CardFrame front = new CardFrame(frontBytes);
+            
+            // Fastest path: the barcode gives the register number, only the name is OCR'd
+            IDCardData barcodeUser = scanBarcode(front, response);
+            if (barcodeUser != null) {
+                loginBarcode.increment();
+                response.put("ocrMode", "BARCODE");
+                response.put("status", "success");
+                response.put("message", "Login successful");
+                response.put("authenticated", true);
+                response.put("user", barcodeUser);
+                return ResponseEntity.ok(response);
+            }
+            
+            // Fast path: read just the register number and name regions of the card
+            IDCardData scannedData = scanLoginFields(front, response);
+            
+            logger.debug("Login read register number {}, name {}", scannedData.getRegisterNumber(), scannedData.getName());
+            
+            // A doubtful register number would be looked up as if it were certain
+            if (isLowConfidence(scannedData)) {
+                return lowConfidence(scannedData, response);
+            }
+            
+            return matchLogin(scannedData, response);
+            
+        } catch (FrameRejectedException e) {
+            return frameRejected(e, response);
+        } catch (OcrPoolExhaustedException e) {
+            response.put("status", "error");
+            response.put("message", "OCR service is busy, please retry");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (OcrTimeoutException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+        } catch (IOException | TesseractException e) {
+            response.put("status", "error");
+            response.put("message", "Failed to process ID card: " + e.getMessage());
+            logger.error("Login failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Log in from a burst of frames of the same card. Frames are OCR'd on the OCR
+     * executor with at most {@code ocr.burst.parallelism} in flight, and their fields
+     * are voted on as results arrive. Frames read with low confidence do not vote.
+     * Scanning stops as soon as enough frames agree on both the register number and
+     * the name, or one frame reads both with high confidence; frames still queued are
+     * cancelled, and frames already being read finish in the background.
+     */
+    public ResponseEntity<Map<String, Object>> loginBurst(List<byte[]> frames) {
+        Map<String, Object> response = new HashMap<>();
+        
+        if (frames.isEmpty() || frames.size() > burstMaxFrames) {
+            response.put("status", "error");
+            response.put("message", "A burst must contain between 1 and " + burstMaxFrames + " frames");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        
+        try {
+            FieldVote vote = new FieldVote();
+            Map<String, Object> burst = scanBurst(frames, vote, response);
+            response.put("burst", burst);
+            
+            IDCardData scannedData = vote.fuse();
+            logger.debug("Burst read register number {}, name {} ({})", scannedData.getRegisterNumber(),
+                    scannedData.getName(), burst);
+            
+            if (vote.getFrames() == 0) {
+                // Every frame that could be read was read with low confidence
+                response.put("status", "error");
+                response.put("message", "ID card text was read with low confidence, please capture again");
+                response.put("reason", "LOW_CONFIDENCE");
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+            }
+            
+            return matchLogin(scannedData, response);
+            
+        } catch (FrameRejectedException e) {
+            return frameRejected(e, response);
+        } catch (OcrPoolExhaustedException | RejectedExecutionException e) {
+            response.put("status", "error");
+            response.put("message", "OCR service is busy, please retry");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (OcrTimeoutException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+        } catch (IOException | TesseractException e) {
+            response.put("status", "error");
+            response.put("message", "Failed to process ID card: " + e.getMessage());
+            logger.error("Burst login failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Feed frames through OCR into the vote until register number and name reach the
+     * agreement threshold, every frame is done, or the burst deadline passes. If no
+     * frame could be read at all, the last failure is rethrown.
+     */
+    private Map<String, Object> scanBurst(List<byte[]> frames, FieldVote vote, Map<String, Object> response)
+            throws IOException, TesseractException {
+        CompletionService<IDCardData> completion = new ExecutorCompletionService<>(ocrExecutor);
+        List<Future<IDCardData>> futures = new ArrayList<>();
+        Map<String, Integer> rejections = new LinkedHashMap<>();
+        AtomicReference<Object> firstCropBox = new AtomicReference<>();
+        int required = Math.min(burstAgreement, frames.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(burstTimeoutMs);
+        Exception lastFailure = null;
+        boolean agreed = false;
+        boolean timedOut = false;
+        int completed = 0;
+
+        try {
+            int next = 0;
+            for (; next < Math.min(burstParallelism, frames.size()); next++) {
+                futures.add(submitFrame(completion, frames.get(next), firstCropBox));
+            }
+            while (completed < futures.size()) {
+                Future<IDCardData> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    timedOut = true;
+                    break;
+                }
+                completed++;
+                try {
+                    IDCardData frame = done.get();
+                    if (isLowConfidence(frame)) {
+                        lowConfidenceReads.increment();
+                        rejections.merge("LOW_CONFIDENCE", 1, Integer::sum);
+                    } else {
+                        vote.add(frame);
+                        if (isConfident(frame) && hasLoginFields(frame)) {
+                            confidentStops.increment();
+                            agreed = true;
+                            break;
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof FrameRejectedException rejected) {
+                        rejections.merge(rejected.getQuality().getReason().name(), 1, Integer::sum);
+                    }
+                    lastFailure = e.getCause() instanceof Exception cause ? cause : e;
+                }
+                
+                if (vote.agreement(FieldVote.REGISTER_NUMBER) >= required && vote.agreement(FieldVote.NAME) >= required) {
+                    agreed = true;
+                    break;
+                }
+                if (next < frames.size()) {
+                    futures.add(submitFrame(completion, frames.get(next++), firstCropBox));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while processing ID card burst", e);
+        } finally {
+            // Frames still queued never start. One already running is left to finish rather
+            // than interrupted: it may be leading an OCR result cache entry that another
+            // request is waiting on, which an interrupt would fail for both.
+            for (Future<IDCardData> future : futures) {
+                future.cancel(false);
+            }
+        }
+
+        if (vote.getFrames() == 0 && !rejections.containsKey("LOW_CONFIDENCE")) {
+            if (lastFailure instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (lastFailure instanceof TesseractException tesseractException) {
+                throw tesseractException;
+            }
+            if (timedOut) {
+                throw new TesseractException("ID card burst timed out after " + burstTimeoutMs + " ms");
+            }
+            throw new TesseractException("No frame in the burst could be processed", lastFailure);
+        }
+
+        bursts.increment();
+        burstFrames.add(completed);
+        if (agreed) {
+            burstEarlyStops.increment();
+        }
+        response.put("cropBox", firstCropBox.get());
+        
+        Map<String, Object> burst = new LinkedHashMap<>();
+        burst.put("framesSubmitted", frames.size());
+        burst.put("framesProcessed", completed);
+        burst.put("framesRead", vote.getFrames());
+        burst.put("rejected", rejections);
+        burst.put("earlyStop", agreed);
+        burst.put("agreement", vote.getAgreement());
+        return burst;
+    }
+
+    private static boolean hasLoginFields(IDCardData data) {
+        return data.getRegisterNumber() != null && !data.getRegisterNumber().isEmpty()
+                && data.getName() != null && !data.getName().isEmpty();
+    }
+
+    private Future<IDCardData> submitFrame(CompletionService<IDCardData> completion, byte[] frame,
+                                           AtomicReference<Object> firstCropBox) {
+        return completion.submit(() -> {
+            Map<String, Object> frameResponse = new HashMap<>();
+            IDCardData scannedData = scanLoginFields(new CardFrame(frame), frameResponse);
+            firstCropBox.compareAndSet(null, frameResponse.get("cropBox"));
+            return scannedData;
+        });
+    }
+
+    /**
+     * Check scanned login fields against the registered card with the same register
+     * number, or the one it is unambiguously an OCR slip of.
+     */
+    private ResponseEntity<Map<String, Object>> matchLogin(IDCardData scannedData, Map<String, Object> response) {
+        String registerNumber = scannedData.getRegisterNumber();
+        
+        if (registerNumber == null || registerNumber.isEmpty()) {
+            response.put("status", "error");
+            response.put("message", "Could not extract register number from ID card");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        
+        return registerNumberIndex.lookup(registerNumber)
+                .map(match -> {
+                    IDCardData userData = match.getCard();
+                    if (match.isCorrected()) {
+                        response.put("registerNumberCorrected", userData.getRegisterNumber());
+                    }
+                    boolean nameMatches = nameMatcher.matches(match.getNameKey(), scannedData.getName());
+                    
+                    if (nameMatches) {
+                        response.put("status", "success");
+                        response.put("message", "Login successful");
+                        response.put("authenticated", true);
+                        response.put("user", userData);
+                        return ResponseEntity.ok(response);
+                    } else {
+                        response.put("status", "error");
+                        response.put("message", "ID card details do not match records");
+                        response.put("authenticated", false);
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+                    }
+                })
+                .orElseGet(() -> {
+                    response.put("status", "error");
+                    response.put("message", "User not found. Please register first.");
+                    response.put("authenticated", false);
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                });
+    }
+}
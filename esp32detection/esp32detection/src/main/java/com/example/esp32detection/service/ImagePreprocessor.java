@@ -0,0 +1,498 @@
+package com.example.esp32detection.service;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.esp32detection.model.CardRegion;
+
+/**
+ * Prepares card frames for OCR: luminance straight from the raster, card localisation
+ * and crop (or area-average downscaling when no card is found) to the target DPI,
+ * adaptive binarization and deskew. All stages work on primitive arrays held in a
+ * workspace, so steady-state processing allocates nothing. OCR preprocesses with the
+ * workspace of the pooled engine it holds, which keeps the number of full-frame
+ * buffers at the pool size. The returned image belongs to the workspace and is only
+ * valid until the workspace processes its next frame.
+ */
+@Component
+public class ImagePreprocessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagePreprocessor.class);
+
+    // ISO/IEC 7810 ID-1 card width
+    static final double CARD_WIDTH_INCHES = 85.6 / 25.4;
+
+    public enum Binarization { NONE, OTSU, SAUVOLA }
+
+    private enum Stage { LUMINANCE, LOCATE, DOWNSCALE, BINARIZE, DESKEW }
+
+    /**
+     * Buffers reused from frame to frame. Not thread-safe; one is owned by each
+     * OcrEngine and used only by the thread holding that engine.
+     */
+    static final class Workspace {
+        final GrayImage gray = new GrayImage();
+        final GrayImage scaled = new GrayImage();
+        final GrayImage rotated = new GrayImage();
+        final CardLocator.Workspace locator = new CardLocator.Workspace();
+        final int[] histogram = new int[256];
+        int[] row = new int[0];
+        int[] integral = new int[0];
+        long[] integralSquares = new long[0];
+        int[] inkX = new int[0];
+        int[] inkY = new int[0];
+        long[] profile = new long[0];
+    }
+
+    private final int targetDpi;
+    private final Binarization binarization;
+    private final int sauvolaWindow;
+    private final double sauvolaK;
+    private final boolean deskewEnabled;
+    private final double maxSkewDegrees;
+    private final CardLocator cardLocator;
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder[] stageNanos = new LongAdder[Stage.values().length];
+
+    public ImagePreprocessor(@Value("${ocr.preprocess.target-dpi:300}") int targetDpi,
+                             @Value("${ocr.preprocess.binarization:SAUVOLA}") Binarization binarization,
+                             @Value("${ocr.preprocess.sauvola-window:25}") int sauvolaWindow,
+                             @Value("${ocr.preprocess.sauvola-k:0.34}") double sauvolaK,
+                             @Value("${ocr.preprocess.deskew:true}") boolean deskewEnabled,
+                             @Value("${ocr.preprocess.max-skew-degrees:5}") double maxSkewDegrees,
+                             CardLocator cardLocator) {
+        this.targetDpi = targetDpi;
+        this.binarization = binarization;
+        this.sauvolaWindow = sauvolaWindow;
+        this.sauvolaK = sauvolaK;
+        this.deskewEnabled = deskewEnabled;
+        this.maxSkewDegrees = maxSkewDegrees;
+        this.cardLocator = cardLocator;
+        for (int i = 0; i < stageNanos.length; i++) {
+            stageNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Preprocess into buffers of its own, for a one-off frame.
+     */
+    public GrayImage process(BufferedImage image) {
+        return process(image, binarization, targetDpi, new Workspace());
+    }
+
+    GrayImage process(BufferedImage image, Workspace workspace) {
+        return process(image, binarization, targetDpi, workspace);
+    }
+
+    GrayImage process(BufferedImage image, int dpi, Workspace workspace) {
+        return process(image, binarization, dpi, workspace);
+    }
+
+    /**
+     * Preprocess for a card width of the given DPI instead of the configured one, as
+     * OCR profiles and the later stages of the OCR cascade do.
+     */
+    GrayImage process(BufferedImage image, Binarization mode, int dpi, Workspace workspace) {
+        long start = System.nanoTime();
+        GrayImage gray = toLuminance(image, workspace);
+        long luminanceDone = System.nanoTime();
+        CardRegion region = cardLocator.locate(gray, workspace.locator);
+        long locateDone = System.nanoTime();
+        GrayImage scaled = region != null
+                ? cardLocator.crop(gray, region, workspace.scaled, targetWidth(dpi))
+                : downscale(gray, workspace.scaled, dpi);
+        long downscaleDone = System.nanoTime();
+        binarize(scaled, mode, workspace);
+        long binarizeDone = System.nanoTime();
+        GrayImage result = deskewEnabled ? deskew(scaled, workspace) : scaled;
+        result.setCardRegion(region);
+        long deskewDone = System.nanoTime();
+
+        frames.increment();
+        stageNanos[Stage.LUMINANCE.ordinal()].add(luminanceDone - start);
+        stageNanos[Stage.LOCATE.ordinal()].add(locateDone - luminanceDone);
+        stageNanos[Stage.DOWNSCALE.ordinal()].add(downscaleDone - locateDone);
+        stageNanos[Stage.BINARIZE.ordinal()].add(binarizeDone - downscaleDone);
+        stageNanos[Stage.DESKEW.ordinal()].add(deskewDone - binarizeDone);
+
+        logger.debug("Preprocessed {}x{} -> {}x{} @ {} dpi in {} ms (luminance {}, locate {}, downscale {}, binarize {}, deskew {})",
+                image.getWidth(), image.getHeight(), result.getWidth(), result.getHeight(), result.getDpi(),
+                millis(deskewDone - start), millis(luminanceDone - start), millis(locateDone - luminanceDone),
+                millis(downscaleDone - locateDone), millis(binarizeDone - downscaleDone), millis(deskewDone - binarizeDone));
+        return result;
+    }
+
+    // ========== LUMINANCE ==========
+
+    private GrayImage toLuminance(BufferedImage image, Workspace workspace) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] out = workspace.gray.reset(width, height).getPixels();
+        Raster raster = image.getRaster();
+        boolean untranslated = raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+
+        if (untranslated && raster.getDataBuffer() instanceof DataBufferByte dataBuffer
+                && raster.getSampleModel() instanceof ComponentSampleModel sampleModel) {
+            byte[] data = dataBuffer.getData();
+            int stride = sampleModel.getScanlineStride();
+            switch (image.getType()) {
+                case BufferedImage.TYPE_BYTE_GRAY:
+                    for (int y = 0; y < height; y++) {
+                        System.arraycopy(data, y * stride, out, y * width, width);
+                    }
+                    return workspace.gray;
+                case BufferedImage.TYPE_3BYTE_BGR:
+                    packedBytesToLuminance(data, stride, 3, 0, width, height, out);
+                    return workspace.gray;
+                case BufferedImage.TYPE_4BYTE_ABGR:
+                case BufferedImage.TYPE_4BYTE_ABGR_PRE:
+                    packedBytesToLuminance(data, stride, 4, 1, width, height, out);
+                    return workspace.gray;
+                default:
+                    break;
+            }
+        }
+
+        if (untranslated && raster.getDataBuffer() instanceof DataBufferInt dataBuffer
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel
+                && (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB)) {
+            int[] data = dataBuffer.getData();
+            int stride = sampleModel.getScanlineStride();
+            for (int y = 0; y < height; y++) {
+                rgbToLuminance(data, y * stride, width, out, y * width);
+            }
+            return workspace.gray;
+        }
+
+        // Uncommon layouts (indexed, 16-bit...) go through the colour model one row at a time
+        if (workspace.row.length < width) {
+            workspace.row = new int[width];
+        }
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, workspace.row, 0, width);
+            rgbToLuminance(workspace.row, 0, width, out, y * width);
+        }
+        return workspace.gray;
+    }
+
+    // Byte layouts store colour as B, G, R after an optional alpha byte
+    private static void packedBytesToLuminance(byte[] data, int stride, int pixelStride, int blueOffset,
+                                               int width, int height, byte[] out) {
+        for (int y = 0; y < height; y++) {
+            int in = y * stride + blueOffset;
+            int o = y * width;
+            for (int x = 0; x < width; x++, in += pixelStride) {
+                int b = data[in] & 0xFF;
+                int g = data[in + 1] & 0xFF;
+                int r = data[in + 2] & 0xFF;
+                out[o + x] = (byte) ((r * 77 + g * 150 + b * 29) >> 8);
+            }
+        }
+    }
+
+    private static void rgbToLuminance(int[] rgb, int offset, int width, byte[] out, int outOffset) {
+        for (int x = 0; x < width; x++) {
+            int pixel = rgb[offset + x];
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            out[outOffset + x] = (byte) ((r * 77 + g * 150 + b * 29) >> 8);
+        }
+    }
+
+    // ========== DOWNSCALE ==========
+
+    /**
+     * Area-average downscale so the card width lands at the target DPI. Frames that
+     * are already at or below the target are passed through untouched.
+     */
+    private GrayImage downscale(GrayImage source, GrayImage target, int dpi) {
+        int srcWidth = source.getWidth();
+        int srcHeight = source.getHeight();
+        int targetWidth = targetWidth(dpi);
+
+        if (srcWidth <= targetWidth * 1.05) {
+            source.setDpi(Math.max(70, (int) Math.round(srcWidth / CARD_WIDTH_INCHES)));
+            return source;
+        }
+
+        int dstWidth = targetWidth;
+        int dstHeight = Math.max(1, (int) ((long) srcHeight * dstWidth / srcWidth));
+        byte[] src = source.getPixels();
+        byte[] dst = target.reset(dstWidth, dstHeight).getPixels();
+        target.setDpi(dpi);
+
+        for (int y = 0; y < dstHeight; y++) {
+            int sy0 = (int) ((long) y * srcHeight / dstHeight);
+            int sy1 = Math.max(sy0 + 1, (int) ((long) (y + 1) * srcHeight / dstHeight));
+            for (int x = 0; x < dstWidth; x++) {
+                int sx0 = (int) ((long) x * srcWidth / dstWidth);
+                int sx1 = Math.max(sx0 + 1, (int) ((long) (x + 1) * srcWidth / dstWidth));
+                int sum = 0;
+                for (int sy = sy0; sy < sy1; sy++) {
+                    int rowStart = sy * srcWidth;
+                    for (int sx = sx0; sx < sx1; sx++) {
+                        sum += src[rowStart + sx] & 0xFF;
+                    }
+                }
+                dst[y * dstWidth + x] = (byte) (sum / ((sy1 - sy0) * (sx1 - sx0)));
+            }
+        }
+        return target;
+    }
+
+    private static int targetWidth(int dpi) {
+        return (int) Math.round(dpi * CARD_WIDTH_INCHES);
+    }
+
+    // ========== BINARIZATION ==========
+
+    private void binarize(GrayImage image, Binarization mode, Workspace workspace) {
+        switch (mode) {
+            case OTSU:
+                applyThreshold(image, otsuThreshold(image, workspace.histogram));
+                break;
+            case SAUVOLA:
+                sauvola(image, workspace);
+                break;
+            case NONE:
+            default:
+                break;
+        }
+    }
+
+    static int otsuThreshold(GrayImage image, int[] histogram) {
+        byte[] pixels = image.getPixels();
+        int size = image.getWidth() * image.getHeight();
+        Arrays.fill(histogram, 0);
+        for (int i = 0; i < size; i++) {
+            histogram[pixels[i] & 0xFF]++;
+        }
+
+        long weightedTotal = 0;
+        for (int level = 0; level < 256; level++) {
+            weightedTotal += (long) level * histogram[level];
+        }
+
+        long backgroundWeight = 0;
+        long backgroundSum = 0;
+        double bestVariance = -1;
+        int threshold = 127;
+        for (int level = 0; level < 256; level++) {
+            backgroundWeight += histogram[level];
+            if (backgroundWeight == 0) {
+                continue;
+            }
+            long foregroundWeight = size - backgroundWeight;
+            if (foregroundWeight == 0) {
+                break;
+            }
+            backgroundSum += (long) level * histogram[level];
+            double backgroundMean = (double) backgroundSum / backgroundWeight;
+            double foregroundMean = (double) (weightedTotal - backgroundSum) / foregroundWeight;
+            double between = (double) backgroundWeight * foregroundWeight
+                    * (backgroundMean - foregroundMean) * (backgroundMean - foregroundMean);
+            if (between > bestVariance) {
+                bestVariance = between;
+                threshold = level;
+            }
+        }
+        return threshold;
+    }
+
+    private static void applyThreshold(GrayImage image, int threshold) {
+        byte[] pixels = image.getPixels();
+        int size = image.getWidth() * image.getHeight();
+        for (int i = 0; i < size; i++) {
+            pixels[i] = (pixels[i] & 0xFF) > threshold ? (byte) 255 : 0;
+        }
+    }
+
+    /**
+     * Sauvola local thresholding, using integral images of the sum and sum of squares
+     * so each window mean/deviation is O(1) regardless of window size.
+     */
+    private void sauvola(GrayImage image, Workspace workspace) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int stride = width + 1;
+        int integralSize = stride * (height + 1);
+        if (workspace.integral.length < integralSize) {
+            workspace.integral = new int[integralSize];
+            workspace.integralSquares = new long[integralSize];
+        }
+        int[] integral = workspace.integral;
+        long[] squares = workspace.integralSquares;
+        byte[] pixels = image.getPixels();
+
+        Arrays.fill(integral, 0, stride, 0);
+        Arrays.fill(squares, 0, stride, 0L);
+        for (int y = 1; y <= height; y++) {
+            int rowSum = 0;
+            long rowSquares = 0;
+            int base = y * stride;
+            integral[base] = 0;
+            squares[base] = 0;
+            for (int x = 1; x <= width; x++) {
+                int value = pixels[(y - 1) * width + x - 1] & 0xFF;
+                rowSum += value;
+                rowSquares += value * value;
+                integral[base + x] = integral[base - stride + x] + rowSum;
+                squares[base + x] = squares[base - stride + x] + rowSquares;
+            }
+        }
+
+        int half = Math.max(1, sauvolaWindow / 2);
+        for (int y = 0; y < height; y++) {
+            int y0 = Math.max(0, y - half);
+            int y1 = Math.min(height, y + half + 1);
+            for (int x = 0; x < width; x++) {
+                int x0 = Math.max(0, x - half);
+                int x1 = Math.min(width, x + half + 1);
+                int count = (y1 - y0) * (x1 - x0);
+
+                long sum = (long) integral[y1 * stride + x1] - integral[y0 * stride + x1]
+                        - integral[y1 * stride + x0] + integral[y0 * stride + x0];
+                long sumSquares = squares[y1 * stride + x1] - squares[y0 * stride + x1]
+                        - squares[y1 * stride + x0] + squares[y0 * stride + x0];
+
+                double mean = (double) sum / count;
+                double variance = Math.max(0, (double) sumSquares / count - mean * mean);
+                double threshold = mean * (1 + sauvolaK * (Math.sqrt(variance) / 128.0 - 1));
+
+                int index = y * width + x;
+                pixels[index] = (pixels[index] & 0xFF) > threshold ? (byte) 255 : 0;
+            }
+        }
+    }
+
+    // ========== DESKEW ==========
+
+    /**
+     * Estimate skew from the horizontal projection profile of dark pixels (text lines
+     * give the sharpest profile when level) and rotate back if it is noticeable.
+     */
+    private GrayImage deskew(GrayImage image, Workspace workspace) {
+        double angle = estimateSkewDegrees(image, workspace);
+        if (Math.abs(angle) < 0.3) {
+            return image;
+        }
+        logger.debug("Deskewing frame by {} degrees", String.format(Locale.ROOT, "%.1f", angle));
+        return rotate(image, -angle, workspace.rotated);
+    }
+
+    private double estimateSkewDegrees(GrayImage image, Workspace workspace) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] pixels = image.getPixels();
+
+        // Sample ink pixels on a sparse grid to bound the cost of each trial angle
+        int maxSamples = 20_000;
+        int step = Math.max(1, (int) Math.sqrt((double) width * height / (maxSamples * 4.0)));
+        if (workspace.inkX.length < maxSamples) {
+            workspace.inkX = new int[maxSamples];
+            workspace.inkY = new int[maxSamples];
+        }
+        int samples = 0;
+        for (int y = 0; y < height && samples < maxSamples; y += step) {
+            for (int x = 0; x < width && samples < maxSamples; x += step) {
+                if ((pixels[y * width + x] & 0xFF) < 128) {
+                    workspace.inkX[samples] = x;
+                    workspace.inkY[samples] = y;
+                    samples++;
+                }
+            }
+        }
+        if (samples < 50) {
+            return 0;
+        }
+
+        int bins = height + width;
+        if (workspace.profile.length < bins) {
+            workspace.profile = new long[bins];
+        }
+
+        double bestAngle = 0;
+        long bestScore = -1;
+        for (double angle = -maxSkewDegrees; angle <= maxSkewDegrees + 1e-9; angle += 0.5) {
+            double radians = Math.toRadians(angle);
+            double sin = Math.sin(radians);
+            double cos = Math.cos(radians);
+            Arrays.fill(workspace.profile, 0, bins, 0L);
+            for (int i = 0; i < samples; i++) {
+                int bin = (int) (workspace.inkY[i] * cos - workspace.inkX[i] * sin) + width;
+                if (bin >= 0 && bin < bins) {
+                    workspace.profile[bin]++;
+                }
+            }
+            long score = 0;
+            for (int i = 0; i < bins; i++) {
+                score += workspace.profile[i] * workspace.profile[i];
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestAngle = angle;
+            }
+        }
+        return bestAngle;
+    }
+
+    private static GrayImage rotate(GrayImage source, double degrees, GrayImage target) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        byte[] src = source.getPixels();
+        byte[] dst = target.reset(width, height).getPixels();
+        target.setDpi(source.getDpi());
+
+        double radians = Math.toRadians(degrees);
+        double sin = Math.sin(radians);
+        double cos = Math.cos(radians);
+        double cx = width / 2.0;
+        double cy = height / 2.0;
+
+        for (int y = 0; y < height; y++) {
+            double dy = y - cy;
+            for (int x = 0; x < width; x++) {
+                double dx = x - cx;
+                int sx = (int) Math.round(cx + dx * cos + dy * sin);
+                int sy = (int) Math.round(cy - dx * sin + dy * cos);
+                dst[y * width + x] = sx >= 0 && sx < width && sy >= 0 && sy < height
+                        ? src[sy * width + sx]
+                        : (byte) 255;
+            }
+        }
+        return target;
+    }
+
+    // ========== METRICS ==========
+
+    public Map<String, Object> getMetrics() {
+        long count = frames.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("frames", count);
+        for (Stage stage : Stage.values()) {
+            double avgMs = count == 0 ? 0.0 : stageNanos[stage.ordinal()].sum() / 1_000_000.0 / count;
+            metrics.put(stage.name().toLowerCase(Locale.ROOT) + "AvgMs", avgMs);
+        }
+        return metrics;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.esp32detection.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over a fixed keyword list: one left-to-right pass reports
+ * which keywords occur anywhere in a text, however many keywords there are. Matching
+ * is case-sensitive, as String.contains is. The transition table is complete, so each
+ * character costs one array lookup. Immutable and safe to share between threads.
+ */
+final class KeywordAutomaton {
+
+    private final List<String> keywords;
+    // Alphabet index of each ASCII char; 0 means the char is in no keyword
+    private final int[] asciiClass = new int[128];
+    // Non-ASCII keyword chars, sorted, at alphabet index 128 + position
+    private final char[] otherChars;
+    private final int alphabetSize;
+    private final int[][] next;
+    private final int[][] matches;
+
+    KeywordAutomaton(List<String> keywords) {
+        this.keywords = List.copyOf(keywords);
+
+        StringBuilder others = new StringBuilder();
+        int size = 1;
+        for (String keyword : this.keywords) {
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must not be empty");
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (c < 128) {
+                    if (asciiClass[c] == 0) asciiClass[c] = size++;
+                } else if (others.indexOf(String.valueOf(c)) < 0) {
+                    others.append(c);
+                }
+            }
+        }
+        this.otherChars = others.toString().toCharArray();
+        Arrays.sort(otherChars);
+        int firstOther = size;
+        this.alphabetSize = size + otherChars.length;
+
+        // Trie, with -1 for a missing edge
+        List<int[]> edges = new ArrayList<>();
+        List<List<Integer>> outputs = new ArrayList<>();
+        edges.add(newRow());
+        outputs.add(new ArrayList<>());
+        for (int k = 0; k < this.keywords.size(); k++) {
+            String keyword = this.keywords.get(k);
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int c = classOf(keyword.charAt(i), firstOther);
+                if (edges.get(state)[c] < 0) {
+                    edges.get(state)[c] = edges.size();
+                    edges.add(newRow());
+                    outputs.add(new ArrayList<>());
+                }
+                state = edges.get(state)[c];
+            }
+            outputs.get(state).add(k);
+        }
+
+        // Breadth-first: fill missing edges from the failure state, and inherit its matches
+        int[] failure = new int[edges.size()];
+        Deque<Integer> queue = new ArrayDeque<>();
+        int[] root = edges.get(0);
+        for (int c = 0; c < alphabetSize; c++) {
+            if (root[c] < 0) {
+                root[c] = 0;
+            } else {
+                failure[root[c]] = 0;
+                queue.add(root[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs.get(state).addAll(outputs.get(failure[state]));
+            int[] row = edges.get(state);
+            int[] fallback = edges.get(failure[state]);
+            for (int c = 0; c < alphabetSize; c++) {
+                if (row[c] < 0) {
+                    row[c] = fallback[c];
+                } else {
+                    failure[row[c]] = fallback[c];
+                    queue.add(row[c]);
+                }
+            }
+        }
+
+        this.next = edges.toArray(new int[0][]);
+        this.matches = new int[outputs.size()][];
+        for (int s = 0; s < outputs.size(); s++) {
+            matches[s] = outputs.get(s).stream().distinct().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    List<String> keywords() {
+        return keywords;
+    }
+
+    /**
+     * Which keywords occur in the text, indexed like the keyword list.
+     */
+    boolean[] scan(String text) {
+        boolean[] found = new boolean[keywords.size()];
+        int firstOther = alphabetSize - otherChars.length;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next[state][classOf(text.charAt(i), firstOther)];
+            for (int k : matches[state]) {
+                found[k] = true;
+            }
+        }
+        return found;
+    }
+
+    private int classOf(char c, int firstOther) {
+        if (c < 128) return asciiClass[c];
+        int position = Arrays.binarySearch(otherChars, c);
+        return position >= 0 ? firstOther + position : 0;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.esp32detection.service;
+
+import java.util.Arrays;
+
+/**
+ * A name prepared for fuzzy matching, computed once when a card is indexed: the
+ * normalized text, a Soundex code per word and the sorted set of padded letter
+ * trigrams. Scoring two keys then only walks int arrays.
+ */
+public final class NameKey {
+
+    private static final NameKey EMPTY = new NameKey("", new int[0], new int[0]);
+
+    private final String normalized;
+    final int[] phonetics;
+    final int[] trigrams;
+
+    private NameKey(String normalized, int[] phonetics, int[] trigrams) {
+        this.normalized = normalized;
+        this.phonetics = phonetics;
+        this.trigrams = trigrams;
+    }
+
+    public static NameKey of(String name) {
+        String normalized = normalize(name);
+        if (normalized.isEmpty()) return EMPTY;
+
+        String[] words = normalized.split(" ");
+        int[] phonetics = new int[words.length];
+        int codes = 0;
+        for (String word : words) {
+            // Initials sound like nothing; they still count through the trigrams
+            if (word.length() > 1) phonetics[codes++] = soundex(word);
+        }
+
+        int[] trigrams = new int[normalized.length() + words.length];
+        int count = 0;
+        for (String word : words) {
+            for (int i = -1; i < word.length() - 1; i++) {
+                trigrams[count++] = letter(word, i) * 729 + letter(word, i + 1) * 27 + letter(word, i + 2);
+            }
+        }
+        Arrays.sort(trigrams, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || trigrams[unique - 1] != trigrams[i]) trigrams[unique++] = trigrams[i];
+        }
+
+        return new NameKey(normalized, Arrays.copyOf(phonetics, codes), Arrays.copyOf(trigrams, unique));
+    }
+
+    public String getNormalized() {
+        return normalized;
+    }
+
+    public boolean isEmpty() {
+        return normalized.isEmpty();
+    }
+
+    /**
+     * Upper-case letters with single spaces between words. Digits OCR puts in place of
+     * look-alike letters are turned back (0 to O, 1 to I, 5 to S, ...), since names
+     * have none; anything else separates words.
+     */
+    static String normalize(String name) {
+        if (name == null) return "";
+        StringBuilder out = new StringBuilder(name.length());
+        boolean gap = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toUpperCase(name.charAt(i));
+            switch (c) {
+                case '0' -> c = 'O';
+                case '1', '|' -> c = 'I';
+                case '2' -> c = 'Z';
+                case '4' -> c = 'A';
+                case '5' -> c = 'S';
+                case '6' -> c = 'G';
+                case '8' -> c = 'B';
+                default -> { }
+            }
+            if (c >= 'A' && c <= 'Z') {
+                if (gap && out.length() > 0) out.append(' ');
+                out.append(c);
+                gap = false;
+            } else {
+                gap = true;
+            }
+        }
+        return out.toString();
+    }
+
+    // 0 for the padding around a word, 1-26 for A-Z
+    private static int letter(String word, int i) {
+        return i < 0 || i >= word.length() ? 0 : word.charAt(i) - 'A' + 1;
+    }
+
+    private static final String SOUNDEX_DIGITS = "01230120022455012623010202";
+
+    // American Soundex packed as first letter * 1000 + three digits
+    static int soundex(String word) {
+        int code = letter(word, 0) * 1000;
+        int digits = 0;
+        char last = SOUNDEX_DIGITS.charAt(word.charAt(0) - 'A');
+        for (int i = 1; i < word.length() && digits < 3; i++) {
+            char c = word.charAt(i);
+            char digit = SOUNDEX_DIGITS.charAt(c - 'A');
+            if (digit != '0' && digit != last) {
+                code += (digit - '0') * (digits == 0 ? 100 : digits == 1 ? 10 : 1);
+                digits++;
+            }
+            // H and W do not separate letters of the same code; vowels do
+            if (c != 'H' && c != 'W') last = digit;
+        }
+        return code;
+    }
+}
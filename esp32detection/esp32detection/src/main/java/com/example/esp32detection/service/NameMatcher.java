@@ -0,0 +1,83 @@
+package com.example.esp32detection.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fuzzy comparison of a scanned name with a registered one. The score, from 0 to 1,
+ * averages how many of the scanned trigrams the registered name has and how many of
+ * the scanned words sound like one of its words, so a name read in part ("ANITA R")
+ * or with OCR slips ("AN1TA R0Y") still matches while a different surname does not.
+ */
+@Component
+public class NameMatcher {
+
+    private final double threshold;
+    private final int minLength;
+
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+
+    public NameMatcher(@Value("${ocr.name-match.threshold:0.6}") double threshold,
+                       @Value("${ocr.name-match.min-length:3}") int minLength) {
+        this.threshold = threshold;
+        this.minLength = minLength;
+    }
+
+    /**
+     * Whether a scanned name is close enough to the registered name's key.
+     */
+    public boolean matches(NameKey registered, String scanned) {
+        NameKey read = NameKey.of(scanned);
+        boolean match = read.getNormalized().length() >= minLength && score(registered, read) >= threshold;
+        (match ? matches : mismatches).increment();
+        return match;
+    }
+
+    /**
+     * Similarity of a scanned name to a registered one; allocates nothing.
+     */
+    public static double score(NameKey registered, NameKey scanned) {
+        if (registered.isEmpty() || scanned.isEmpty()) return 0;
+
+        int[] a = scanned.trigrams;
+        int[] b = registered.trigrams;
+        int common = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        double trigramScore = (double) common / a.length;
+
+        if (scanned.phonetics.length == 0) return trigramScore;
+        int sounding = 0;
+        for (int code : scanned.phonetics) {
+            for (int other : registered.phonetics) {
+                if (code == other) {
+                    sounding++;
+                    break;
+                }
+            }
+        }
+        return (trigramScore + (double) sounding / scanned.phonetics.length) / 2;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("threshold", threshold);
+        metrics.put("matches", matches.sum());
+        metrics.put("mismatches", mismatches.sum());
+        return metrics;
+    }
+}
@@ -1,38 +1,75 @@
 package com.example.esp32detection.service;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import javax.imageio.ImageIO;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import net.sourceforge.tess4j.Tesseract;
+import com.example.esp32detection.model.OcrResult;
+
 import net.sourceforge.tess4j.TesseractException;
 
 @Service
 public class OCRService {
 
-    private final Tesseract tesseract;
+    static {
+        // Decode uploads purely in memory; by default ImageIO spools streams to a temp cache file
+        ImageIO.setUseCache(false);
+    }
 
-    public OCRService() {
-    this.tesseract = new Tesseract();
-    tesseract.setDatapath("/usr/share/tesseract-ocr/5/tessdata");
-    tesseract.setLanguage("eng");
-    tesseract.setPageSegMode(6);
-    tesseract.setTessVariable("user_defined_dpi", "300");
-}
+    public static final String FIELD_REGISTER_NUMBER = "registerNumber";
+    public static final String FIELD_NAME = "name";
 
+    private final TesseractPool tesseractPool;
+    private final OcrResultCache resultCache;
+    private final ImagePreprocessor preprocessor;
+    private final FrameQualityGate qualityGate;
+    private final OcrProfiles profiles;
+    private final BarcodeReader barcodeReader;
+    private final List<TextRegion> loginRegions;
+
+    public OCRService(TesseractPool tesseractPool,
+                      OcrResultCache resultCache,
+                      ImagePreprocessor preprocessor,
+                      FrameQualityGate qualityGate,
+                      OcrProfiles profiles,
+                      BarcodeReader barcodeReader,
+                      @Value("${ocr.login.roi.register-number:0.25,0.58,0.72,0.14}") String registerNumberRegion,
+                      @Value("${ocr.login.roi.register-number-whitelist:ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789}") String registerNumberWhitelist,
+                      @Value("${ocr.login.roi.name:0.25,0.38,0.72,0.14}") String nameRegion,
+                      @Value("${ocr.login.roi.name-whitelist:ABCDEFGHIJKLMNOPQRSTUVWXYZ abcdefghijklmnopqrstuvwxyz}") String nameWhitelist) {
+        this.tesseractPool = tesseractPool;
+        this.resultCache = resultCache;
+        this.preprocessor = preprocessor;
+        this.qualityGate = qualityGate;
+        this.profiles = profiles;
+        this.barcodeReader = barcodeReader;
+        this.loginRegions = List.of(
+                TextRegion.parse(FIELD_REGISTER_NUMBER, registerNumberRegion, registerNumberWhitelist),
+                TextRegion.parse(FIELD_NAME, nameRegion, nameWhitelist));
+    }
 
     public String extractTextFromImage(MultipartFile file) throws IOException, TesseractException {
+        byte[] imageBytes = file.getBytes();
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (image != null) {
+            return tesseractPool.execute(engine -> engine.recognize(image));
+        }
+
+        // Not a raster image ImageIO understands (e.g. PDF) - let Tesseract handle the file itself
         Path tempFile = Files.createTempFile("ocr-", file.getOriginalFilename());
-        
+
         try {
-            file.transferTo(tempFile.toFile());
-            String extractedText = tesseract.doOCR(tempFile.toFile());
+            Files.write(tempFile, imageBytes);
+            String extractedText = tesseractPool.execute(engine -> engine.recognizeFile(tempFile.toFile()));
             return extractedText;
         } finally {
             Files.deleteIfExists(tempFile);
@@ -40,28 +77,89 @@ public class OCRService {
     }
 
     public String extractIDCardData(MultipartFile file) throws IOException, TesseractException {
-        Path tempFile = Files.createTempFile("id-card-", file.getOriginalFilename());
-        
-        try {
-            file.transferTo(tempFile.toFile());
-            BufferedImage image = ImageIO.read(tempFile.toFile());
-            BufferedImage processedImage = preprocessImage(image);
-            String result = tesseract.doOCR(processedImage);
-            return result;
-        } finally {
-            Files.deleteIfExists(tempFile);
-        }
+        return extractIDCardData(file.getBytes());
     }
 
-    private BufferedImage preprocessImage(BufferedImage image) {
-        BufferedImage gray = new BufferedImage(
-            image.getWidth(), 
-            image.getHeight(), 
-            BufferedImage.TYPE_BYTE_GRAY
-        );
-        java.awt.Graphics2D g = gray.createGraphics();
-        g.drawImage(image, 0, 0, null);
-        g.dispose();
-        return gray;
+    public String extractIDCardData(byte[] imageBytes) throws IOException, TesseractException {
+        return recognizeIDCard(imageBytes).getText();
+    }
+
+    /**
+     * OCR an ID card image, cropped to the card when it can be located in the frame.
+     * Blurred or badly exposed frames are rejected with a FrameRejectedException
+     * before any OCR capacity is spent on them.
+     */
+    public OcrResult recognizeIDCard(byte[] imageBytes) throws IOException, TesseractException {
+        CardFrame frame = new CardFrame(imageBytes);
+        return resultCache.get("id-card", frame, () -> {
+            BufferedImage image = frame.check(qualityGate);
+            // Preprocess on the engine's workspace, held only as long as the engine is
+            return tesseractPool.execute(engine -> engine.recognizePage(preprocessor.process(image, engine.getWorkspace())));
+        });
+    }
+
+    /**
+     * OCR an ID card frame the way one stage of the OCR cascade prescribes, with the
+     * named profile's model and whitelist. A stage without its own DPI or page
+     * segmentation mode (0) takes the profile's. Each profile and stage's results are
+     * cached separately, and a stage that runs out of time throws OcrTimeoutException.
+     */
+    public OcrResult recognizeIDCard(CardFrame frame, String profileName, OcrStage stage)
+            throws IOException, TesseractException {
+        OcrProfile profile = profiles.get(profileName);
+        int dpi = stage.getDpi() > 0 ? stage.getDpi() : profile.getDpi();
+        int pageSegMode = stage.getPageSegMode() > 0 ? stage.getPageSegMode() : profile.getPageSegMode();
+
+        return resultCache.get("id-card/" + profile.getName() + "/" + stage.getName(), frame, () -> {
+            BufferedImage image = frame.check(qualityGate);
+            return tesseractPool.execute(profile, engine -> {
+                GrayImage processedImage = preprocessor.process(image, stage.getBinarization(), dpi, engine.getWorkspace());
+                return engine.recognizePage(processedImage, pageSegMode, profile.getWhitelist(), stage.getTimeoutMs());
+            });
+        });
+    }
+
+    /**
+     * Login fast path: OCR only the register number and name regions of the card
+     * template, with the login-fast profile's model and resolution. Each region keeps
+     * its own whitelist and single-line segmentation. Fields are empty when the card
+     * could not be located in the frame.
+     */
+    public OcrResult recognizeLoginFields(CardFrame frame) throws IOException, TesseractException {
+        OcrProfile profile = profiles.get(OcrProfiles.LOGIN_FAST);
+        return resultCache.get("login-roi", frame, () -> {
+            BufferedImage image = frame.check(qualityGate);
+            return tesseractPool.execute(profile, engine -> {
+                GrayImage card = preprocessor.process(image, profile.getDpi(), engine.getWorkspace());
+                if (card.getCardRegion() == null) {
+                    // Template offsets are only meaningful on a cropped card
+                    return new OcrResult("", null);
+                }
+                return engine.recognizeRegions(card, loginRegions);
+            });
+        });
+    }
+
+    /**
+     * Read the card's barcode, before any OCR capacity or frame quality checks are
+     * spent on it. Returns an empty string when no barcode could be decoded.
+     */
+    public String readBarcode(CardFrame frame) throws IOException, TesseractException {
+        if (!barcodeReader.isEnabled()) return "";
+        return resultCache.get("barcode", frame, () -> {
+            String text = barcodeReader.read(frame.decode());
+            return new OcrResult(text == null ? "" : text, null);
+        }).getText();
+    }
+
+    /**
+     * Decode an uploaded image straight from its bytes, without touching the disk.
+     */
+    static BufferedImage decodeImage(byte[] imageBytes) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (image == null) {
+            throw new IOException("Unsupported or corrupt image");
+        }
+        return image;
     }
 }
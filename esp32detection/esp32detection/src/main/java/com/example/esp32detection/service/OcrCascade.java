@@ -0,0 +1,199 @@
+package com.example.esp32detection.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.esp32detection.model.IDCardData;
+import com.example.esp32detection.model.OcrResult;
+
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * Reads an ID card in stages, cheapest first: a downscaled, single-block pass, and
+ * only when that leaves required fields empty, passes with other binarization, page
+ * segmentation or resolution. Each stage is capped in time by Tesseract's deadline; a
+ * stage that runs out moves on to the next. The whole read is capped as well, with a
+ * shorter deadline for login than for registration: each stage may only use what is
+ * left of it, and no stage starts once it has passed. The first stage that fills every
+ * required field wins, otherwise the read missing the fewest.
+ * <p>
+ * Every stage reads with the caller's OCR profile, whose model and whitelist stay the
+ * same throughout; the first stage also takes the profile's resolution and page
+ * segmentation.
+ */
+@Service
+public class OcrCascade {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrCascade.class);
+
+    /**
+     * What the cascade read, and at which stage.
+     */
+    public static final class Result {
+        private final IDCardData data;
+        private final OcrResult ocrResult;
+        private final OcrStage stage;
+        private final List<String> missing;
+
+        Result(IDCardData data, OcrResult ocrResult, OcrStage stage, List<String> missing) {
+            this.data = data;
+            this.ocrResult = ocrResult;
+            this.stage = stage;
+            this.missing = missing;
+        }
+
+        public IDCardData getData() { return data; }
+
+        public OcrResult getOcrResult() { return ocrResult; }
+
+        public OcrStage getStage() { return stage; }
+
+        /** Required fields no stage could read; empty when the card was read completely. */
+        public List<String> getMissing() { return missing; }
+    }
+
+    private final OCRService ocrService;
+    private final IDCardParserService parserService;
+    private final List<OcrStage> stages;
+    private final List<String> requiredFront;
+    private final List<String> requiredBack;
+    private final long deadlineMs;
+    private final long loginDeadlineMs;
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder incomplete = new LongAdder();
+    private final LongAdder deadlineStops = new LongAdder();
+    private final LongAdder[] reached;
+    private final LongAdder[] completed;
+    private final LongAdder[] timedOut;
+    private final LongAdder[] stageNanos;
+
+    public OcrCascade(OCRService ocrService,
+                      IDCardParserService parserService,
+                      @Value("${ocr.cascade.stages:fast:OTSU:0:0:2000,sauvola:SAUVOLA:300:6:4000,sparse:SAUVOLA:300:11:4000,high-res:SAUVOLA:400:3:6000}") String stages,
+                      @Value("${ocr.cascade.required-front:registerNumber,name}") String requiredFront,
+                      @Value("${ocr.cascade.required-back:dateOfBirth,bloodGroup}") String requiredBack,
+                      @Value("${ocr.cascade.deadline-ms:12000}") long deadlineMs,
+                      @Value("${ocr.cascade.login-deadline-ms:2500}") long loginDeadlineMs) {
+        this.ocrService = ocrService;
+        this.parserService = parserService;
+        this.stages = OcrStage.parseAll(stages);
+        this.requiredFront = fieldList(requiredFront);
+        this.requiredBack = fieldList(requiredBack);
+        this.deadlineMs = deadlineMs;
+        this.loginDeadlineMs = loginDeadlineMs;
+        this.reached = adders(this.stages.size());
+        this.completed = adders(this.stages.size());
+        this.timedOut = adders(this.stages.size());
+        this.stageNanos = adders(this.stages.size());
+
+        logger.info("OCR cascade stages: {} (deadline {} ms, login {} ms)", this.stages, deadlineMs, loginDeadlineMs);
+    }
+
+    /**
+     * Read and parse an ID card image with the named OCR profile, escalating through
+     * the stages until the required fields of the side it turns out to be are all filled.
+     * The frame is decoded and quality-checked once for all the stages.
+     */
+    public Result read(CardFrame frame, String profile) throws IOException, TesseractException {
+        reads.increment();
+        long budgetMs = OcrProfiles.LOGIN_FAST.equals(profile) ? loginDeadlineMs : deadlineMs;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        Result best = null;
+        OcrTimeoutException lastTimeout = null;
+
+        for (int i = 0; i < stages.size(); i++) {
+            OcrStage stage = stages.get(i);
+            if (budgetMs > 0) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    deadlineStops.increment();
+                    logger.debug("OCR cascade deadline of {} ms passed before stage {}", budgetMs, stage.getName());
+                    break;
+                }
+                if (stage.getTimeoutMs() <= 0 || stage.getTimeoutMs() > remainingMs) {
+                    stage = stage.withTimeoutMs((int) remainingMs);
+                }
+            }
+            reached[i].increment();
+            long start = System.nanoTime();
+
+            OcrResult ocrResult;
+            try {
+                ocrResult = ocrService.recognizeIDCard(frame, profile, stage);
+            } catch (OcrTimeoutException e) {
+                timedOut[i].increment();
+                lastTimeout = e;
+                logger.debug("OCR stage {} timed out", stage.getName());
+                continue;
+            } finally {
+                stageNanos[i].add(System.nanoTime() - start);
+            }
+
+            IDCardData data = parserService.parseIDCardText(ocrResult);
+            List<String> missing = parserService.missingFields(data, required(data));
+            if (missing.isEmpty()) {
+                completed[i].increment();
+                return new Result(data, ocrResult, stage, missing);
+            }
+            logger.debug("OCR stage {} left {} empty", stage.getName(), missing);
+            if (best == null || missing.size() < best.getMissing().size()) {
+                best = new Result(data, ocrResult, stage, missing);
+            }
+        }
+
+        if (best == null) {
+            // Every stage that started ran out of time
+            throw lastTimeout != null ? lastTimeout
+                    : new OcrTimeoutException("OCR stopped after " + budgetMs + " ms");
+        }
+        incomplete.increment();
+        return best;
+    }
+
+    private List<String> required(IDCardData data) {
+        return "BACK".equals(data.getCardType()) ? requiredBack : requiredFront;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("reads", reads.sum());
+        metrics.put("incomplete", incomplete.sum());
+        metrics.put("deadlineStops", deadlineStops.sum());
+        for (int i = 0; i < stages.size(); i++) {
+            long count = reached[i].sum();
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("reached", count);
+            stage.put("completed", completed[i].sum());
+            stage.put("timedOut", timedOut[i].sum());
+            stage.put("avgMs", count == 0 ? 0.0 : stageNanos[i].sum() / 1_000_000.0 / count);
+            metrics.put(stages.get(i).getName(), stage);
+        }
+        return metrics;
+    }
+
+    private static List<String> fieldList(String fields) {
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .toList();
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
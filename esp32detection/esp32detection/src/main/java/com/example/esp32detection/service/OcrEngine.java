@@ -0,0 +1,301 @@
+package com.example.esp32detection.service;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.esp32detection.model.OcrResult;
+import com.example.esp32detection.model.OcrWord;
+import com.sun.jna.Pointer;
+
+import net.sourceforge.tess4j.ITessAPI.ETEXT_DESC;
+import net.sourceforge.tess4j.ITessAPI.TessBaseAPI;
+import net.sourceforge.tess4j.ITessAPI.TessPageIterator;
+import net.sourceforge.tess4j.ITessAPI.TessPageIteratorLevel;
+import net.sourceforge.tess4j.ITessAPI.TessResultIterator;
+import net.sourceforge.tess4j.TessAPI1;
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * A long-lived native Tesseract engine. The language model is loaded once and
+ * pixels are handed over through a direct buffer that is reused across calls,
+ * avoiding the per-call init/teardown and buffer conversion of Tesseract.doOCR.
+ * Not thread-safe: instances are confined to one thread at a time by TesseractPool.
+ * Each engine also carries the preprocessing workspace for the frames it reads, so
+ * those buffers are confined and bounded the same way.
+ */
+public class OcrEngine implements AutoCloseable {
+
+    private final String datapath;
+    private final String language;
+    private final int pageSegMode;
+    private final int dpi;
+    private final TessBaseAPI handle;
+
+    private final IntBuffer left = IntBuffer.allocate(1);
+    private final IntBuffer top = IntBuffer.allocate(1);
+    private final IntBuffer right = IntBuffer.allocate(1);
+    private final IntBuffer bottom = IntBuffer.allocate(1);
+    private ByteBuffer pixelBuffer;
+    private int[] rowBuffer;
+    private Tesseract documentEngine;
+    private final ImagePreprocessor.Workspace workspace = new ImagePreprocessor.Workspace();
+
+    OcrEngine(String datapath, String language, int pageSegMode, int dpi) throws TesseractException {
+        this.datapath = datapath;
+        this.language = language;
+        this.pageSegMode = pageSegMode;
+        this.dpi = dpi;
+        this.handle = TessAPI1.TessBaseAPICreate();
+
+        if (TessAPI1.TessBaseAPIInit3(handle, datapath, language) != 0) {
+            TessAPI1.TessBaseAPIDelete(handle);
+            throw new TesseractException("Could not initialise Tesseract '" + language + "' from " + datapath);
+        }
+        TessAPI1.TessBaseAPISetPageSegMode(handle, pageSegMode);
+        TessAPI1.TessBaseAPISetVariable(handle, "user_defined_dpi", String.valueOf(dpi));
+    }
+
+    /**
+     * An engine with no native counterpart, for tests of the pool that hands engines out.
+     */
+    OcrEngine(String datapath, String language) {
+        this.datapath = datapath;
+        this.language = language;
+        this.pageSegMode = 0;
+        this.dpi = 0;
+        this.handle = null;
+    }
+
+    /**
+     * Recognize text in an image, converted to 8-bit grayscale in the reusable buffer.
+     */
+    public String recognize(BufferedImage image) throws TesseractException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        return recognizeBuffer(loadGrayPixels(image, width, height), width, height, dpi);
+    }
+
+    /**
+     * Recognize a preprocessed grayscale image at the resolution it reports, keeping
+     * each word's confidence and box along with the text.
+     */
+    public OcrResult recognizePage(GrayImage image) throws TesseractException {
+        return recognizePage(image, pageSegMode, "", 0);
+    }
+
+    /**
+     * Recognize a preprocessed grayscale image with the given page segmentation mode
+     * and character whitelist (empty for none), letting Tesseract run for at most
+     * timeoutMs (0 for no limit).
+     */
+    public OcrResult recognizePage(GrayImage image, int segMode, String whitelist, int timeoutMs) throws TesseractException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ByteBuffer pixels = ensureCapacity(width * height);
+        pixels.put(image.getPixels(), 0, width * height).flip();
+
+        ETEXT_DESC monitor = TessAPI1.TessMonitorCreate();
+        try {
+            TessAPI1.TessBaseAPISetPageSegMode(handle, segMode);
+            TessAPI1.TessBaseAPISetVariable(handle, "tessedit_char_whitelist", whitelist);
+            TessAPI1.TessBaseAPISetImage(handle, pixels, width, height, 1, width);
+            TessAPI1.TessBaseAPISetSourceResolution(handle, image.getDpi() > 0 ? image.getDpi() : dpi);
+            if (timeoutMs > 0) {
+                TessAPI1.TessMonitorSetDeadlineMSecs(monitor, timeoutMs);
+            }
+            // Recognize up front so the deadline applies; the text and words below reuse the result
+            if (TessAPI1.TessBaseAPIRecognize(handle, monitor) != 0) {
+                if (timeoutMs > 0) {
+                    throw new OcrTimeoutException("Tesseract stopped after " + timeoutMs + " ms");
+                }
+                throw new TesseractException("Tesseract could not recognize the image");
+            }
+            String text = readText();
+            return new OcrResult(text, image.getCardRegion(), Map.of(), readWords(), Map.of());
+        } finally {
+            TessAPI1.TessMonitorDelete(monitor);
+            TessAPI1.TessBaseAPISetVariable(handle, "tessedit_char_whitelist", "");
+            TessAPI1.TessBaseAPISetPageSegMode(handle, pageSegMode);
+            TessAPI1.TessBaseAPIClear(handle);
+        }
+    }
+
+    /**
+     * Recognize only the given template regions of a cropped card, each as a single
+     * line restricted to the region's character whitelist. Each region's confidence
+     * is that of its least confident word.
+     */
+    public OcrResult recognizeRegions(GrayImage image, List<TextRegion> regions) throws TesseractException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ByteBuffer pixels = ensureCapacity(width * height);
+        pixels.put(image.getPixels(), 0, width * height).flip();
+
+        Map<String, String> texts = new LinkedHashMap<>();
+        List<OcrWord> words = new ArrayList<>();
+        Map<String, Integer> confidences = new LinkedHashMap<>();
+        try {
+            TessAPI1.TessBaseAPISetImage(handle, pixels, width, height, 1, width);
+            TessAPI1.TessBaseAPISetSourceResolution(handle, image.getDpi() > 0 ? image.getDpi() : dpi);
+
+            for (TextRegion region : regions) {
+                int[] rect = region.toPixels(width, height);
+                TessAPI1.TessBaseAPISetPageSegMode(handle, region.getPageSegMode());
+                TessAPI1.TessBaseAPISetVariable(handle, "tessedit_char_whitelist", region.getWhitelist());
+                TessAPI1.TessBaseAPISetRectangle(handle, rect[0], rect[1], rect[2], rect[3]);
+                texts.put(region.getName(), readText());
+
+                List<OcrWord> regionWords = readWords();
+                if (!regionWords.isEmpty()) {
+                    float lowest = 100;
+                    for (OcrWord word : regionWords) {
+                        lowest = Math.min(lowest, word.getConfidence());
+                    }
+                    confidences.put(region.getName(), Math.round(lowest));
+                }
+                words.addAll(regionWords);
+            }
+        } finally {
+            TessAPI1.TessBaseAPISetVariable(handle, "tessedit_char_whitelist", "");
+            TessAPI1.TessBaseAPISetPageSegMode(handle, pageSegMode);
+            TessAPI1.TessBaseAPIClear(handle);
+        }
+        return new OcrResult(String.join("\n", texts.values()), image.getCardRegion(), texts, words, confidences);
+    }
+
+    private String recognizeBuffer(ByteBuffer pixels, int width, int height, int resolution) throws TesseractException {
+        try {
+            TessAPI1.TessBaseAPISetImage(handle, pixels, width, height, 1, width);
+            TessAPI1.TessBaseAPISetSourceResolution(handle, resolution);
+            return readText();
+        } finally {
+            TessAPI1.TessBaseAPIClear(handle);
+        }
+    }
+
+    private String readText() throws TesseractException {
+        Pointer text = TessAPI1.TessBaseAPIGetUTF8Text(handle);
+        if (text == null) {
+            throw new TesseractException("Tesseract returned no text");
+        }
+        try {
+            return text.getString(0, StandardCharsets.UTF_8.name());
+        } finally {
+            TessAPI1.TessDeleteText(text);
+        }
+    }
+
+    /**
+     * Words of the last recognition with their confidences and bounding boxes. Must
+     * follow readText, which runs the recognizer.
+     */
+    private List<OcrWord> readWords() {
+        List<OcrWord> words = new ArrayList<>();
+        TessResultIterator iterator = TessAPI1.TessBaseAPIGetIterator(handle);
+        if (iterator == null) return words;
+
+        int level = TessPageIteratorLevel.RIL_WORD;
+        try {
+            TessPageIterator page = TessAPI1.TessResultIteratorGetPageIterator(iterator);
+            TessAPI1.TessPageIteratorBegin(page);
+            do {
+                Pointer text = TessAPI1.TessResultIteratorGetUTF8Text(iterator, level);
+                if (text == null) continue;
+                String word;
+                try {
+                    word = text.getString(0, StandardCharsets.UTF_8.name()).trim();
+                } finally {
+                    TessAPI1.TessDeleteText(text);
+                }
+                if (word.isEmpty()) continue;
+
+                TessAPI1.TessPageIteratorBoundingBox(page, level, left, top, right, bottom);
+                words.add(new OcrWord(word, TessAPI1.TessResultIteratorConfidence(iterator, level),
+                        left.get(0), top.get(0), right.get(0) - left.get(0), bottom.get(0) - top.get(0)));
+            } while (TessAPI1.TessResultIteratorNext(iterator, level) == 1);
+        } finally {
+            TessAPI1.TessResultIteratorDelete(iterator);
+        }
+        return words;
+    }
+
+    /**
+     * Recognize a document file (PDF, multi-page TIFF) that cannot be decoded as one image.
+     */
+    public String recognizeFile(File file) throws TesseractException {
+        if (documentEngine == null) {
+            documentEngine = new Tesseract();
+            documentEngine.setDatapath(datapath);
+            documentEngine.setLanguage(language);
+            documentEngine.setPageSegMode(pageSegMode);
+            documentEngine.setVariable("user_defined_dpi", String.valueOf(dpi));
+        }
+        return documentEngine.doOCR(file);
+    }
+
+    /**
+     * Preprocessing buffers for the thread holding this engine.
+     */
+    ImagePreprocessor.Workspace getWorkspace() {
+        return workspace;
+    }
+
+    private ByteBuffer ensureCapacity(int size) {
+        if (pixelBuffer == null || pixelBuffer.capacity() < size) {
+            pixelBuffer = ByteBuffer.allocateDirect(size);
+        }
+        pixelBuffer.clear();
+        return pixelBuffer;
+    }
+
+    private ByteBuffer loadGrayPixels(BufferedImage image, int width, int height) {
+        ensureCapacity(width * height);
+
+        Raster raster = image.getRaster();
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY
+                && raster.getDataBuffer() instanceof DataBufferByte dataBuffer
+                && raster.getSampleModel() instanceof ComponentSampleModel sampleModel
+                && raster.getSampleModelTranslateX() == 0
+                && raster.getSampleModelTranslateY() == 0) {
+            // Already 8-bit gray: copy rows straight from the backing array
+            byte[] data = dataBuffer.getData();
+            int stride = sampleModel.getScanlineStride();
+            for (int y = 0; y < height; y++) {
+                pixelBuffer.put(data, y * stride, width);
+            }
+        } else {
+            if (rowBuffer == null || rowBuffer.length < width) {
+                rowBuffer = new int[width];
+            }
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, rowBuffer, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int rgb = rowBuffer[x];
+                    int luminance = (((rgb >> 16) & 0xFF) * 299 + ((rgb >> 8) & 0xFF) * 587 + (rgb & 0xFF) * 114) / 1000;
+                    pixelBuffer.put((byte) luminance);
+                }
+            }
+        }
+
+        pixelBuffer.flip();
+        return pixelBuffer;
+    }
+
+    @Override
+    public void close() {
+        if (handle == null) return;
+        TessAPI1.TessBaseAPIEnd(handle);
+        TessAPI1.TessBaseAPIDelete(handle);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.esp32detection.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A queued OCR request whose response is collected by polling.
+ */
+public class OcrJob {
+
+    public enum State { QUEUED, RUNNING, DONE }
+
+    private final String id;
+    private final String type;
+    private final long submittedAt;
+    private final CompletableFuture<ResponseEntity<Map<String, Object>>> result = new CompletableFuture<>();
+    private volatile State state = State.QUEUED;
+    private volatile long completedAt;
+
+    OcrJob(String id, String type) {
+        this.id = id;
+        this.type = type;
+        this.submittedAt = System.currentTimeMillis();
+    }
+
+    void markRunning() {
+        state = State.RUNNING;
+    }
+
+    void complete(ResponseEntity<Map<String, Object>> response) {
+        completedAt = System.currentTimeMillis();
+        state = State.DONE;
+        result.complete(response);
+    }
+
+    /**
+     * Block until the job finishes or the wait elapses, whichever comes first.
+     */
+    void awaitCompletion(long waitMs) {
+        try {
+            result.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+            // Still running - the caller reports the current state
+        }
+    }
+
+    boolean isExpired(long now, long retentionMs) {
+        return state == State.DONE && now - completedAt > retentionMs;
+    }
+
+    public String getId() { return id; }
+
+    public String getType() { return type; }
+
+    public long getSubmittedAt() { return submittedAt; }
+
+    public State getState() { return state; }
+
+    /**
+     * The response the synchronous endpoint would have returned, or null while the job is pending.
+     */
+    public ResponseEntity<Map<String, Object>> getResult() { return result.getNow(null); }
+}
@@ -0,0 +1,181 @@
+package com.example.esp32detection.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs OCR registration/login requests off the servlet threads. Jobs wait in a
+ * bounded queue; once it is full new submissions are rejected so callers can
+ * back off instead of piling up latency. Finished jobs hold the card's personal data,
+ * so they are dropped once their retention passes, whether or not anything else
+ * is submitted.
+ */
+@Service
+public class OcrJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrJobService.class);
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService purger;
+    private final Map<String, OcrJob> jobs = new ConcurrentHashMap<>();
+    private final long retentionMs;
+    private final long maxWaitMs;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+
+    public OcrJobService(TesseractPool tesseractPool,
+                         @Value("${ocr.jobs.workers:0}") int configuredWorkers,
+                         @Value("${ocr.jobs.queue-capacity:32}") int queueCapacity,
+                         @Value("${ocr.jobs.retention-ms:300000}") long retentionMs,
+                         @Value("${ocr.jobs.max-wait-ms:30000}") long maxWaitMs) {
+        int workers = configuredWorkers > 0 ? configuredWorkers : tesseractPool.getSize();
+        AtomicInteger counter = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ocr-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retentionMs = retentionMs;
+        this.maxWaitMs = maxWaitMs;
+
+        long purgeIntervalMs = Math.min(60_000, Math.max(10, retentionMs / 2));
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ocr-job-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, OcrJob> retained = jobs;
+        this.purger.scheduleWithFixedDelay(() -> purgeExpiredJobs(retained, retentionMs),
+                purgeIntervalMs, purgeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue a job.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public OcrJob submit(String type, Supplier<ResponseEntity<Map<String, Object>>> work) {
+        purgeExpiredJobs();
+
+        OcrJob job = new OcrJob(UUID.randomUUID().toString(), type);
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job, work));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            rejected.incrementAndGet();
+            logger.warn("OCR job queue full, rejecting {} job", type);
+            throw e;
+        }
+
+        submitted.incrementAndGet();
+        return job;
+    }
+
+    private void run(OcrJob job, Supplier<ResponseEntity<Map<String, Object>>> work) {
+        job.markRunning();
+        long start = System.nanoTime();
+        try {
+            job.complete(work.get());
+        } catch (RuntimeException e) {
+            logger.error("OCR job {} failed", job.getId(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "Failed to process ID card: " + e.getMessage());
+            job.complete(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response));
+        } finally {
+            totalRunNanos.addAndGet(System.nanoTime() - start);
+            completed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Look up a job, optionally long-polling up to waitMs (capped) for it to finish.
+     * Returns null for unknown or expired jobs.
+     */
+    public OcrJob await(String jobId, long waitMs) {
+        OcrJob job = jobs.get(jobId);
+        if (job != null && job.isExpired(System.currentTimeMillis(), retentionMs)) {
+            // Not purged yet, but past its retention all the same
+            jobs.remove(jobId, job);
+            return null;
+        }
+        if (job != null && waitMs > 0 && job.getState() != OcrJob.State.DONE) {
+            job.awaitCompletion(Math.min(waitMs, maxWaitMs));
+        }
+        return job;
+    }
+
+    /**
+     * Rough time until a queue slot frees up, based on the average job duration.
+     */
+    public long getRetryAfterSeconds() {
+        long done = completed.get();
+        double avgJobSeconds = done == 0 ? 1.0 : totalRunNanos.get() / 1e9 / done;
+        double drainSeconds = (executor.getQueue().size() + 1) * avgJobSeconds / executor.getMaximumPoolSize();
+        return Math.max(1, Math.min(60, (long) Math.ceil(drainSeconds)));
+    }
+
+    private void purgeExpiredJobs() {
+        purgeExpiredJobs(jobs, retentionMs);
+    }
+
+    private static void purgeExpiredJobs(Map<String, OcrJob> jobs, long retentionMs) {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.isExpired(now, retentionMs));
+    }
+
+    public Map<String, Object> getMetrics() {
+        long done = completed.get();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("workers", executor.getMaximumPoolSize());
+        metrics.put("running", executor.getActiveCount());
+        metrics.put("queued", executor.getQueue().size());
+        metrics.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        metrics.put("submitted", submitted.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("completed", done);
+        metrics.put("avgRunMs", done == 0 ? 0.0 : totalRunNanos.get() / 1_000_000.0 / done);
+        return metrics;
+    }
+
+    int size() {
+        return jobs.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+        executor.shutdownNow();
+    }
+}
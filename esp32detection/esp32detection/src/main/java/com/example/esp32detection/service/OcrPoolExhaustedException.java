@@ -0,0 +1,15 @@
+package com.example.esp32detection.service;
+
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * Thrown when no OCR engine became free within the configured acquire timeout.
+ */
+public class OcrPoolExhaustedException extends TesseractException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OcrPoolExhaustedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.esp32detection.service;
+
+import java.util.Locale;
+
+/**
+ * A named OCR setup for one kind of request: which traineddata the engine loads, which
+ * characters Tesseract may produce, how it segments the page and at what resolution
+ * the card is prepared for it.
+ */
+public class OcrProfile {
+
+    private final String name;
+    private final String datapath;
+    private final String language;
+    private final String whitelist;
+    private final int pageSegMode;
+    private final int dpi;
+
+    public OcrProfile(String name, String datapath, String language, String whitelist, int pageSegMode, int dpi) {
+        this.name = name;
+        this.datapath = datapath;
+        this.language = language;
+        this.whitelist = whitelist == null ? "" : whitelist;
+        this.pageSegMode = pageSegMode;
+        this.dpi = dpi;
+    }
+
+    public String getName() { return name; }
+
+    public String getDatapath() { return datapath; }
+
+    public String getLanguage() { return language; }
+
+    /** Characters Tesseract may produce, or empty for no restriction. */
+    public String getWhitelist() { return whitelist; }
+
+    public int getPageSegMode() { return pageSegMode; }
+
+    public int getDpi() { return dpi; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s[%s from %s, psm %d, %d dpi%s]", name, language, datapath,
+                pageSegMode, dpi, whitelist.isEmpty() ? "" : ", " + whitelist.length() + " chars");
+    }
+}
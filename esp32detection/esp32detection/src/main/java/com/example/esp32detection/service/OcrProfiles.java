@@ -0,0 +1,92 @@
+package com.example.esp32detection.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * The OCR profiles from configuration. Profiles are listed in ocr.profiles and set up
+ * under ocr.profile.NAME.*; a variant names a traineddata directory from
+ * ocr.tessdata.VARIANT (such as fast or best). Anything a profile leaves out, and any
+ * profile that is not configured, falls back to the base ocr.* settings.
+ */
+@Component
+public class OcrProfiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrProfiles.class);
+
+    public static final String DEFAULT = "default";
+    public static final String LOGIN_FAST = "login-fast";
+    public static final String REGISTER_FULL = "register-full";
+    public static final String BACK_SIDE = "back-side";
+
+    private final OcrProfile defaultProfile;
+    private final Map<String, OcrProfile> profiles = new LinkedHashMap<>();
+
+    @Autowired
+    public OcrProfiles(Environment environment) {
+        this(baseProfile(environment), load(environment));
+    }
+
+    public OcrProfiles(OcrProfile defaultProfile, List<OcrProfile> profiles) {
+        this.defaultProfile = defaultProfile;
+        for (OcrProfile profile : profiles) {
+            this.profiles.put(profile.getName(), profile);
+        }
+        logger.info("OCR profiles {}", this.profiles.values());
+    }
+
+    /**
+     * The named profile, or the base settings when it is not configured.
+     */
+    public OcrProfile get(String name) {
+        return profiles.getOrDefault(name, defaultProfile);
+    }
+
+    public OcrProfile getDefault() {
+        return defaultProfile;
+    }
+
+    private static OcrProfile baseProfile(Environment environment) {
+        return new OcrProfile(DEFAULT,
+                environment.getProperty("ocr.tessdata-path", "/usr/share/tesseract-ocr/5/tessdata"),
+                environment.getProperty("ocr.language", "eng"), "",
+                environment.getProperty("ocr.page-seg-mode", Integer.class, 6),
+                environment.getProperty("ocr.dpi", Integer.class, 300));
+    }
+
+    private static List<OcrProfile> load(Environment environment) {
+        OcrProfile base = baseProfile(environment);
+        List<OcrProfile> profiles = new ArrayList<>();
+        for (String name : environment.getProperty("ocr.profiles", "").split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) continue;
+            String prefix = "ocr.profile." + name + ".";
+
+            String variant = environment.getProperty(prefix + "variant", "");
+            String datapath = variant.isEmpty()
+                    ? base.getDatapath()
+                    : environment.getProperty("ocr.tessdata." + variant, base.getDatapath());
+            if (!datapath.equals(base.getDatapath()) && !new File(datapath).isDirectory()) {
+                // A missing model variant should cost speed or accuracy, not fail every read
+                logger.warn("OCR profile {}: no '{}' traineddata at {}, using {}", name, variant, datapath, base.getDatapath());
+                datapath = base.getDatapath();
+            }
+
+            profiles.add(new OcrProfile(name, datapath,
+                    environment.getProperty(prefix + "language", base.getLanguage()),
+                    environment.getProperty(prefix + "whitelist", ""),
+                    environment.getProperty(prefix + "psm", Integer.class, base.getPageSegMode()),
+                    environment.getProperty(prefix + "dpi", Integer.class, base.getDpi())));
+        }
+        return profiles;
+    }
+}
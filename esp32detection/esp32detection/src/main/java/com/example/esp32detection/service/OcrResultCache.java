@@ -0,0 +1,168 @@
+package com.example.esp32detection.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.esp32detection.model.OcrResult;
+
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * Caches OCR output by a SHA-256 of the uploaded image bytes, so frames re-sent
+ * by the ESP32 after a Wi-Fi retry are not OCR'd twice. Entries are evicted
+ * least-recently-used beyond the size limit and after a fixed TTL. Concurrent
+ * requests for the same image share a single OCR run.
+ */
+@Component
+public class OcrResultCache {
+
+    @FunctionalInterface
+    public interface Loader {
+        OcrResult load() throws IOException, TesseractException;
+    }
+
+    private static class Entry {
+        final OcrResult value;
+        final long expiresAt;
+
+        Entry(OcrResult value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, CompletableFuture<OcrResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public OcrResultCache(@Value("${ocr.cache.max-entries:512}") int maxEntries,
+                          @Value("${ocr.cache.ttl-ms:600000}") long ttlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > OcrResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Return the cached result for these image bytes, or run the loader once and cache it.
+     * The kind separates results of different OCR modes for the same image.
+     */
+    public OcrResult get(String kind, byte[] imageBytes, Loader loader) throws IOException, TesseractException {
+        return get(kind, new CardFrame(imageBytes), loader);
+    }
+
+    /**
+     * As {@link #get(String, byte[], Loader)}, hashing the frame once for all the OCR
+     * modes a request reads it with.
+     */
+    public OcrResult get(String kind, CardFrame frame, Loader loader) throws IOException, TesseractException {
+        if (maxEntries <= 0) {
+            return loader.load();
+        }
+
+        String key = kind + ':' + frame.getHash();
+        OcrResult cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<OcrResult> pending = new CompletableFuture<>();
+        CompletableFuture<OcrResult> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return join(existing);
+        }
+
+        try {
+            // Another request may have finished between the lookup and claiming the key
+            cached = lookup(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                pending.complete(cached);
+                return cached;
+            }
+
+            misses.incrementAndGet();
+            OcrResult value = loader.load();
+            store(key, value);
+            pending.complete(value);
+            return value;
+        } catch (IOException | TesseractException | RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private synchronized OcrResult lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private synchronized void store(String key, OcrResult value) {
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMs));
+    }
+
+    private static OcrResult join(CompletableFuture<OcrResult> future) throws IOException, TesseractException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while waiting for OCR result", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof TesseractException tesseractException) {
+                throw tesseractException;
+            }
+            throw new TesseractException(cause.getMessage(), cause);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.get() + coalesced.get();
+        long lookups = hitCount + misses.get();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", size());
+        metrics.put("maxEntries", maxEntries);
+        metrics.put("hits", hits.get());
+        metrics.put("coalesced", coalesced.get());
+        metrics.put("misses", misses.get());
+        metrics.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        metrics.put("missRatio", lookups == 0 ? 0.0 : (double) misses.get() / lookups);
+        return metrics;
+    }
+}
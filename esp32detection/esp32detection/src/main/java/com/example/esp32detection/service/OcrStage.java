@@ -0,0 +1,77 @@
+package com.example.esp32detection.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One pass of the OCR cascade: how the frame is preprocessed, how Tesseract segments
+ * the page, and how long Tesseract may spend on it. A DPI or page segmentation mode of
+ * 0 leaves it to the OCR profile the cascade reads with.
+ */
+public class OcrStage {
+
+    private final String name;
+    private final ImagePreprocessor.Binarization binarization;
+    private final int dpi;
+    private final int pageSegMode;
+    private final int timeoutMs;
+
+    public OcrStage(String name, ImagePreprocessor.Binarization binarization, int dpi, int pageSegMode, int timeoutMs) {
+        this.name = name;
+        this.binarization = binarization;
+        this.dpi = dpi;
+        this.pageSegMode = pageSegMode;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Parse a stage from a "name:binarization:dpi:psm:timeoutMs" property value.
+     */
+    public static OcrStage parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("OCR stage must be name:binarization:dpi:psm:timeoutMs but was: " + spec);
+        }
+        return new OcrStage(parts[0].trim(),
+                ImagePreprocessor.Binarization.valueOf(parts[1].trim().toUpperCase(Locale.ROOT)),
+                Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()),
+                Integer.parseInt(parts[4].trim()));
+    }
+
+    /**
+     * Parse a comma-separated list of stages, cheapest first.
+     */
+    public static List<OcrStage> parseAll(String specs) {
+        List<OcrStage> stages = new ArrayList<>();
+        for (String spec : specs.split(",")) {
+            if (!spec.isBlank()) stages.add(parse(spec));
+        }
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("At least one OCR stage is required");
+        }
+        return stages;
+    }
+
+    /**
+     * This stage with Tesseract limited to the given time instead.
+     */
+    public OcrStage withTimeoutMs(int timeoutMs) {
+        return new OcrStage(name, binarization, dpi, pageSegMode, timeoutMs);
+    }
+
+    public String getName() { return name; }
+
+    public ImagePreprocessor.Binarization getBinarization() { return binarization; }
+
+    public int getDpi() { return dpi; }
+
+    public int getPageSegMode() { return pageSegMode; }
+
+    public int getTimeoutMs() { return timeoutMs; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s[%s %d dpi psm %d %d ms]", name, binarization, dpi, pageSegMode, timeoutMs);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.esp32detection.service;
+
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * Thrown when Tesseract gave up on an image at an OCR cascade stage's deadline, or the
+ * cascade ran out of its overall deadline.
+ */
+public class OcrTimeoutException extends TesseractException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OcrTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.esp32detection.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits normalized OCR text into words, numbers and single-character symbols in one
+ * left-to-right pass. Words that are known field labels ("Name", "Register", "Pin"...)
+ * are tagged and indexed, so field extraction can jump straight to them.
+ * <p>
+ * OCR often drops the space between words, so a letter run is also cut where the case
+ * changes ("ValidTo", "TECHNOLOGYName") and the pieces are regrouped into the longest
+ * labels they spell. Case noise inside a label ("RegisTER") therefore still reads as
+ * one label, and pieces that are not labels stay one word.
+ */
+final class OcrTokenizer {
+
+    enum Kind { WORD, NUMBER, SYMBOL }
+
+    enum Label {
+        NAME, PROGRAM, PROGRAMME, REGISTER, REG, VALID, FROM, TO,
+        BLOOD, DATE, BIRTH, DOB, ADDRESS, PIN, PINCODE,
+        PERM, PERMANENT, EMG, EMERGENCY, EMAIL, MAIL
+    }
+
+    /**
+     * The words read as labels: every Label by its own name, plus any aliases a card
+     * template adds ("Roll" for REGISTER). Immutable and shared between parses.
+     */
+    static final class Vocabulary {
+
+        static final Vocabulary DEFAULT = new Vocabulary(Collections.emptyMap());
+
+        private final Map<String, Label> words = new HashMap<>();
+        private final int maxLength;
+
+        private Vocabulary(Map<String, Label> aliases) {
+            for (Label label : Label.values()) {
+                words.put(label.name().toLowerCase(Locale.ROOT), label);
+            }
+            for (Map.Entry<String, Label> alias : aliases.entrySet()) {
+                String word = alias.getKey();
+                for (int i = 0; i < word.length(); i++) {
+                    if (!isLetter(word.charAt(i))) {
+                        throw new IllegalArgumentException("Label alias must be ASCII letters only: " + word);
+                    }
+                }
+                words.put(word.toLowerCase(Locale.ROOT), alias.getValue());
+            }
+            int longest = 0;
+            for (String word : words.keySet()) {
+                longest = Math.max(longest, word.length());
+            }
+            this.maxLength = longest;
+        }
+
+        static Vocabulary withAliases(Map<String, Label> aliases) {
+            return aliases.isEmpty() ? DEFAULT : new Vocabulary(aliases);
+        }
+
+        private Label label(String text, int start, int end) {
+            return end - start <= maxLength
+                    ? words.get(text.substring(start, end).toLowerCase(Locale.ROOT))
+                    : null;
+        }
+    }
+
+    static final class Token {
+        final Kind kind;
+        final int start;
+        final int end;
+        final Label label;
+
+        Token(Kind kind, int start, int end, Label label) {
+            this.kind = kind;
+            this.start = start;
+            this.end = end;
+            this.label = label;
+        }
+
+        int length() {
+            return end - start;
+        }
+    }
+
+    static final class Tokens {
+        final String text;
+        final List<Token> all;
+        private final Map<Label, List<Token>> byLabel;
+
+        private Tokens(String text, List<Token> all, Map<Label, List<Token>> byLabel) {
+            this.text = text;
+            this.all = all;
+            this.byLabel = byLabel;
+        }
+
+        /**
+         * Occurrences of a label, in text order.
+         */
+        List<Token> labelled(Label label) {
+            return byLabel.getOrDefault(label, Collections.emptyList());
+        }
+    }
+
+    private OcrTokenizer() {
+    }
+
+    static Tokens tokenize(String text) {
+        return tokenize(text, Vocabulary.DEFAULT);
+    }
+
+    static Tokens tokenize(String text, Vocabulary vocabulary) {
+        List<Token> tokens = new ArrayList<>();
+        Map<Label, List<Token>> byLabel = new EnumMap<>(Label.class);
+        int length = text.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isSpace(c)) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            if (isLetter(c)) {
+                while (i < length && isLetter(text.charAt(i))) i++;
+                addLetterRun(vocabulary, text, start, i, tokens, byLabel);
+            } else if (isDigit(c)) {
+                while (i < length && isDigit(text.charAt(i))) i++;
+                tokens.add(new Token(Kind.NUMBER, start, i, null));
+            } else {
+                i++;
+                tokens.add(new Token(Kind.SYMBOL, start, i, null));
+            }
+        }
+
+        return new Tokens(text, tokens, byLabel);
+    }
+
+    private static void addLetterRun(Vocabulary vocabulary, String text, int start, int end,
+                                     List<Token> tokens, Map<Label, List<Token>> byLabel) {
+        if (vocabulary.label(text, start, end) != null) {
+            addWord(vocabulary, text, start, end, tokens, byLabel);
+            return;
+        }
+
+        List<Integer> cuts = new ArrayList<>();
+        cuts.add(start);
+        for (int i = start + 1; i < end; i++) {
+            if (isCaseChange(text, i, end)) cuts.add(i);
+        }
+        cuts.add(end);
+
+        int plainStart = -1;
+        int piece = 0;
+        while (piece < cuts.size() - 1) {
+            int from = cuts.get(piece);
+            int matched = -1;
+            for (int next = piece + 1; next < cuts.size() && cuts.get(next) - from <= vocabulary.maxLength; next++) {
+                if (vocabulary.label(text, from, cuts.get(next)) != null) matched = next;
+            }
+            if (matched < 0) {
+                if (plainStart < 0) plainStart = from;
+                piece++;
+                continue;
+            }
+            if (plainStart >= 0) {
+                addWord(vocabulary, text, plainStart, from, tokens, byLabel);
+                plainStart = -1;
+            }
+            addWord(vocabulary, text, from, cuts.get(matched), tokens, byLabel);
+            piece = matched;
+        }
+        if (plainStart >= 0) {
+            addWord(vocabulary, text, plainStart, end, tokens, byLabel);
+        }
+    }
+
+    private static void addWord(Vocabulary vocabulary, String text, int start, int end,
+                                List<Token> tokens, Map<Label, List<Token>> byLabel) {
+        Label label = vocabulary.label(text, start, end);
+        Token token = new Token(Kind.WORD, start, end, label);
+        tokens.add(token);
+        if (label != null) {
+            byLabel.computeIfAbsent(label, k -> new ArrayList<>()).add(token);
+        }
+    }
+
+    // An upper-case letter after a lower-case one ("dT"), or starting a capitalised word ("YNa")
+    private static boolean isCaseChange(String text, int i, int end) {
+        if (!isUpper(text.charAt(i))) return false;
+        return isLower(text.charAt(i - 1)) || (i + 1 < end && isLower(text.charAt(i + 1)));
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLower(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    // Same set as the regex \s
+    static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.esp32detection.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * Regular expressions IDCardParserService uses to normalize text and to clean and
+ * validate extracted values, compiled once. Fields themselves are located by
+ * CardFieldExtractor. Patterns are immutable and safe to share between threads;
+ * Matchers are not, so callers create their own per parse.
+ */
+final class ParserPatterns {
+
+    private ParserPatterns() {
+    }
+
+    // ========== TEXT NORMALIZATION ==========
+
+    static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    static final Pattern SEPARATOR_MISREAD = Pattern.compile("[©€]");
+    static final Pattern B_TECH_MISREAD = Pattern.compile("8\\s*Tech");
+    static final Pattern B_POSITIVE_MISREAD = Pattern.compile("(?i)4VE");
+    static final Pattern APRIL_MISREAD = Pattern.compile("(?i)apri1");
+    static final Pattern OCTOBER_MISREAD = Pattern.compile("(?i)0ct");
+
+    // ========== ADDRESS ==========
+
+    static final Pattern ADDRESS_NOISE = Pattern.compile("(?i)(Blood Group|Date of Birth|DOB|Birth)[^\\n]*");
+    static final Pattern BACKSLASHES = Pattern.compile("[\\\\]+");
+    static final Pattern EMPTY_LIST_ITEM = Pattern.compile(",\\s*,");
+    static final Pattern LETTER_RUN = Pattern.compile("[A-Za-z]{3,}");
+    static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Za-z0-9]");
+
+    // ========== VALIDATION ==========
+
+    static final Pattern PIN_CODE_VALUE = Pattern.compile("\\d{6}");
+    static final Pattern PHONE_VALUE = Pattern.compile("\\d{10}");
+    static final Pattern NON_DIGIT = Pattern.compile("\\D");
+    static final Pattern EMAIL_VALUE = Pattern.compile("^[\\w._%+-]+@[\\w.-]+\\.\\w{2,}$");
+    static final Pattern NAME_VALUE = Pattern.compile("[A-Za-z\\s]+");
+    static final Pattern UPPERCASE_NAME_VALUE = Pattern.compile("[A-Z\\s]+");
+    static final Pattern NAME_LABEL = Pattern.compile("^\\s*(?i)NAME\\s*[:©€]?");
+    static final Pattern BLOOD_GROUP_VALUE = Pattern.compile("[ABO]+\\s*[+\\-].*");
+    static final Pattern NON_BLOOD_TYPE = Pattern.compile("[^ABO]");
+}
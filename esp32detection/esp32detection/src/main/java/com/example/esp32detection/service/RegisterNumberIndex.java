@@ -0,0 +1,369 @@
+package com.example.esp32detection.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.esp32detection.model.IDCardData;
+import com.example.esp32detection.repository.IDCardRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory index of registered cards by register number, so a login can be matched
+ * without the database and survive an OCR slip such as 0 for O or 1 for I.
+ * <p>
+ * Numbers live in a BK-tree under a weighted edit distance: swapping two characters of
+ * the same confusion class (ocr.register-index.confusion-classes) costs confusion-cost,
+ * any other substitution, insertion or deletion edit-cost. Classes are closed under
+ * swapping, which keeps the distance a metric and the tree's pruning exact. A fuzzy
+ * lookup only answers with the single nearest number within max-cost; a tie is no match.
+ * <p>
+ * Each card's name is prepared for NameMatcher as it is indexed, so a login compares
+ * names without reworking the registered one.
+ * <p>
+ * The index is loaded at startup and kept in step by register, verify and delete.
+ * Numbers it does not know are still looked up in the database, and added when found,
+ * for cards written by another instance.
+ */
+@Component
+public class RegisterNumberIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisterNumberIndex.class);
+
+    /**
+     * A card found for a register number, and how far the number had to be corrected.
+     */
+    public static final class Match {
+        private final IDCardData card;
+        private final NameKey nameKey;
+        private final int cost;
+
+        Match(IDCardData card, NameKey nameKey, int cost) {
+            this.card = card;
+            this.nameKey = nameKey;
+            this.cost = cost;
+        }
+
+        public IDCardData getCard() { return card; }
+
+        public NameKey getNameKey() { return nameKey; }
+
+        /** Edit cost from the number looked up to the card's, 0 for an exact match. */
+        public int getCost() { return cost; }
+
+        public boolean isCorrected() { return cost > 0; }
+    }
+
+    private static final class Node {
+        final String key;
+        IDCardData card;
+        NameKey nameKey;
+        final Map<Integer, Node> children = new HashMap<>(4);
+
+        Node(String key, IDCardData card) {
+            this.key = key;
+            this.card = card;
+            this.nameKey = NameKey.of(card.getName());
+        }
+    }
+
+    private final IDCardRepository repository;
+    private final int[] confusionClass = new int[128];
+    private final int confusionCost;
+    private final int editCost;
+    private final int maxCost;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final Map<Long, String> numbersById = new HashMap<>();
+    private Node root;
+    private int removed;
+
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder fuzzyHits = new LongAdder();
+    private final LongAdder ambiguous = new LongAdder();
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RegisterNumberIndex(IDCardRepository repository,
+                               @Value("${ocr.register-index.confusion-classes:O0QD,I1LT,Z2,S5,B8,G6,A4}") String confusionClasses,
+                               @Value("${ocr.register-index.confusion-cost:1}") int confusionCost,
+                               @Value("${ocr.register-index.edit-cost:3}") int editCost,
+                               @Value("${ocr.register-index.max-cost:2}") int maxCost) {
+        if (confusionCost <= 0 || editCost < confusionCost) {
+            throw new IllegalArgumentException("Register index costs need 0 < confusion-cost <= edit-cost");
+        }
+        this.repository = repository;
+        this.confusionCost = confusionCost;
+        this.editCost = editCost;
+        this.maxCost = maxCost;
+
+        int id = 1;
+        for (String group : confusionClasses.split(",")) {
+            group = group.trim().toUpperCase(Locale.ROOT);
+            if (group.isEmpty()) continue;
+            for (char c : group.toCharArray()) {
+                if (c >= 128 || confusionClass[c] != 0) {
+                    throw new IllegalArgumentException("Confusion classes must be disjoint ASCII but '" + c + "' is not");
+                }
+                confusionClass[c] = id;
+            }
+            id++;
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        List<IDCardData> cards = repository.findAll();
+        for (IDCardData card : cards) {
+            put(card);
+        }
+        logger.info("Register number index loaded {} card(s)", size());
+    }
+
+    /**
+     * Add or replace the card under its register number.
+     */
+    public void put(IDCardData card) {
+        String key = key(card.getRegisterNumber());
+        if (key.isEmpty()) return;
+
+        lock.writeLock().lock();
+        try {
+            if (card.getId() != null) {
+                String previous = numbersById.put(card.getId(), key);
+                if (previous != null && !previous.equals(key)) removeKey(previous);
+            }
+            insert(key, card);
+            // Only once the card is in, so a rebuild carries it and its id over
+            rebuildIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void insert(String key, IDCardData card) {
+        Node node = nodes.get(key);
+        if (node != null) {
+            if (node.card == null) removed--;
+            node.card = card;
+            node.nameKey = NameKey.of(card.getName());
+            return;
+        }
+        node = new Node(key, card);
+        nodes.put(key, node);
+        if (root == null) {
+            root = node;
+            return;
+        }
+        Node parent = root;
+        while (true) {
+            int cost = distance(key, parent.key);
+            Node child = parent.children.get(cost);
+            if (child == null) {
+                parent.children.put(cost, node);
+                return;
+            }
+            parent = child;
+        }
+    }
+
+    /**
+     * Forget the card with the given id, after it has been deleted.
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            String key = numbersById.remove(id);
+            if (key != null) {
+                removeKey(key);
+                rebuildIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The card registered under exactly this number, from the index or else the database.
+     */
+    public Optional<IDCardData> findExact(String registerNumber) {
+        String key = key(registerNumber);
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(key);
+            if (node != null && node.card != null) {
+                exactHits.increment();
+                return Optional.of(node.card);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return findInDatabase(registerNumber);
+    }
+
+    /**
+     * The card for a register number as OCR read it: an exact match, else the single
+     * nearest registered number within the configured cost, else the database. Empty
+     * when none of them knows the number.
+     */
+    public Optional<Match> lookup(String registerNumber) {
+        String key = key(registerNumber);
+        if (key.isEmpty()) return Optional.empty();
+
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(key);
+            if (node != null && node.card != null) {
+                exactHits.increment();
+                return Optional.of(new Match(node.card, node.nameKey, 0));
+            }
+
+            List<Node> nearest = nearest(key);
+            if (nearest.size() == 1) {
+                Node match = nearest.get(0);
+                fuzzyHits.increment();
+                logger.debug("Register number {} corrected to {}", key, match.key);
+                return Optional.of(new Match(match.card, match.nameKey, distance(key, match.key)));
+            }
+            if (nearest.size() > 1) {
+                ambiguous.increment();
+                logger.debug("Register number {} is as close to {} registered numbers", key, nearest.size());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return findInDatabase(registerNumber).map(card -> new Match(card, NameKey.of(card.getName()), 0));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size() - removed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", size());
+        metrics.put("exactHits", exactHits.sum());
+        metrics.put("fuzzyHits", fuzzyHits.sum());
+        metrics.put("ambiguous", ambiguous.sum());
+        metrics.put("databaseHits", databaseHits.sum());
+        metrics.put("misses", misses.sum());
+        return metrics;
+    }
+
+    /**
+     * Weighted edit distance between two normalized register numbers.
+     */
+    int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j * editCost;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i * editCost;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + substitutionCost(ca, b.charAt(j - 1));
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + editCost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private int substitutionCost(char a, char b) {
+        if (a == b) return 0;
+        if (a < 128 && b < 128 && confusionClass[a] != 0 && confusionClass[a] == confusionClass[b]) {
+            return confusionCost;
+        }
+        return editCost;
+    }
+
+    // Live nodes at the smallest distance within maxCost; caller holds the read lock
+    private List<Node> nearest(String key) {
+        List<Node> best = new ArrayList<>(2);
+        if (root == null) return best;
+
+        int bestCost = maxCost;
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int cost = distance(key, node.key);
+            if (node.card != null && cost <= bestCost) {
+                if (cost < bestCost) best.clear();
+                bestCost = cost;
+                best.add(node);
+            }
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - cost) <= bestCost) pending.add(child.getValue());
+            }
+        }
+        return best;
+    }
+
+    // Removed numbers stay in the tree as routing nodes until enough pile up to rebuild
+    private void removeKey(String key) {
+        Node node = nodes.get(key);
+        if (node == null || node.card == null) return;
+        node.card = null;
+        removed++;
+    }
+
+    private void rebuildIfSparse() {
+        if (removed <= 64 || removed <= nodes.size() / 2) return;
+
+        List<Node> live = new ArrayList<>(nodes.size() - removed);
+        for (Node node : nodes.values()) {
+            if (node.card != null) live.add(node);
+        }
+        // Ids keep pointing at the same numbers, so numbersById stays as it is
+        nodes.clear();
+        root = null;
+        removed = 0;
+        for (Node node : live) {
+            insert(node.key, node.card);
+        }
+    }
+
+    private Optional<IDCardData> findInDatabase(String registerNumber) {
+        if (repository == null || registerNumber == null || registerNumber.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        Optional<IDCardData> card = repository.findByRegisterNumber(registerNumber);
+        if (card.isPresent()) {
+            databaseHits.increment();
+            put(card.get());
+        } else {
+            misses.increment();
+        }
+        return card;
+    }
+
+    private static String key(String registerNumber) {
+        return registerNumber == null ? "" : registerNumber.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.esp32detection.service;
+
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * Bounded pool of Tesseract engines. The native engine is not thread-safe, so
+ * each engine is handed to exactly one thread at a time and returned afterwards.
+ * Engines are created on first demand and kept for the life of the application.
+ * <p>
+ * Each engine is loaded with one model (traineddata directory and language), so idle
+ * engines are kept per model. The pool size caps engines across all models: when an
+ * OCR profile needs a model no idle engine has and the pool is full, an idle engine of
+ * another model is closed to make room.
+ */
+@Component
+public class TesseractPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(TesseractPool.class);
+
+    @FunctionalInterface
+    public interface EngineTask<T> {
+        T run(OcrEngine engine) throws TesseractException;
+    }
+
+    @FunctionalInterface
+    interface EngineFactory {
+        OcrEngine create(String datapath, String language) throws TesseractException;
+    }
+
+    private final Semaphore permits;
+    private final Map<String, Deque<OcrEngine>> idleEngines = new ConcurrentHashMap<>();
+    private final int size;
+    private final long acquireTimeoutMs;
+    private final String datapath;
+    private final String language;
+    private final EngineFactory engineFactory;
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicLong retired = new AtomicLong();
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+
+    @Autowired
+    public TesseractPool(@Value("${ocr.pool.size:0}") int configuredSize,
+                         @Value("${ocr.pool.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+                         @Value("${ocr.tessdata-path:/usr/share/tesseract-ocr/5/tessdata}") String datapath,
+                         @Value("${ocr.language:eng}") String language,
+                         @Value("${ocr.page-seg-mode:6}") int pageSegMode,
+                         @Value("${ocr.dpi:300}") int dpi) {
+        this(configuredSize, acquireTimeoutMs, datapath, language,
+                (modelPath, modelLanguage) -> new OcrEngine(modelPath, modelLanguage, pageSegMode, dpi));
+    }
+
+    TesseractPool(int configuredSize, long acquireTimeoutMs, String datapath, String language,
+                  EngineFactory engineFactory) {
+        this.size = configuredSize > 0 ? configuredSize : Runtime.getRuntime().availableProcessors();
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(size, true);
+        this.datapath = datapath;
+        this.language = language;
+        this.engineFactory = engineFactory;
+
+        logger.info("Tesseract pool ready for {} engines (acquire timeout {} ms)", size, acquireTimeoutMs);
+    }
+
+    /**
+     * Run a task on a free engine, waiting at most the configured acquire timeout.
+     */
+    public <T> T execute(EngineTask<T> task) throws TesseractException {
+        return execute(datapath, language, task);
+    }
+
+    /**
+     * Run a task on a free engine loaded with the profile's model. The profile's
+     * whitelist, page segmentation and resolution are the task's to apply.
+     */
+    public <T> T execute(OcrProfile profile, EngineTask<T> task) throws TesseractException {
+        return execute(profile.getDatapath(), profile.getLanguage(), task);
+    }
+
+    private <T> T execute(String modelPath, String modelLanguage, EngineTask<T> task) throws TesseractException {
+        Deque<OcrEngine> idle = idleEngines.computeIfAbsent(modelPath + "/" + modelLanguage,
+                model -> new ConcurrentLinkedDeque<>());
+        OcrEngine engine = acquire(idle, modelPath, modelLanguage);
+        long start = System.nanoTime();
+        try {
+            return task.run(engine);
+        } finally {
+            totalRunNanos.addAndGet(System.nanoTime() - start);
+            // Most recently used engine first keeps its buffers warm
+            idle.push(engine);
+            permits.release();
+        }
+    }
+
+    private OcrEngine acquire(Deque<OcrEngine> idle, String modelPath, String modelLanguage) throws TesseractException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while waiting for an OCR engine");
+        }
+
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (!acquired) {
+            rejections.incrementAndGet();
+            logger.warn("No OCR engine free after {} ms ({} in use)", acquireTimeoutMs, size);
+            throw new OcrPoolExhaustedException("All OCR engines are busy, please retry");
+        }
+
+        acquisitions.incrementAndGet();
+        // Count the engine about to be created against the pool size, closing idle
+        // engines of other models until there is room. Engines in use are fewer than
+        // the permits other threads hold, so while the pool is full one is idle; when
+        // another thread takes it first, the loop looks again.
+        while (true) {
+            OcrEngine engine = idle.poll();
+            if (engine != null) {
+                return engine;
+            }
+            int current = live.get();
+            if (current < size) {
+                if (live.compareAndSet(current, current + 1)) break;
+            } else if (!retireIdleEngine()) {
+                Thread.onSpinWait();
+            }
+        }
+
+        try {
+            OcrEngine engine = engineFactory.create(modelPath, modelLanguage);
+            logger.info("Initialised OCR engine {} ({} of {} live) for {} from {}",
+                    created.incrementAndGet(), live.get(), size, modelLanguage, modelPath);
+            return engine;
+        } catch (TesseractException | RuntimeException | Error e) {
+            live.decrementAndGet();
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close one idle engine of any model, returning whether there was one.
+     */
+    private boolean retireIdleEngine() {
+        for (Deque<OcrEngine> idle : idleEngines.values()) {
+            OcrEngine engine = idle.pollLast();
+            if (engine != null) {
+                engine.close();
+                live.decrementAndGet();
+                retired.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Map<String, Object> getMetrics() {
+        long acquired = acquisitions.get();
+        long attempts = acquired + rejections.get();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", size);
+        metrics.put("created", created.get());
+        metrics.put("live", live.get());
+        metrics.put("retired", retired.get());
+        metrics.put("inUse", size - permits.availablePermits());
+        metrics.put("waiting", permits.getQueueLength());
+        metrics.put("acquisitions", acquired);
+        metrics.put("rejections", rejections.get());
+        metrics.put("avgWaitMs", attempts == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / attempts);
+        metrics.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+        metrics.put("avgRunMs", acquired == 0 ? 0.0 : totalRunNanos.get() / 1_000_000.0 / acquired);
+        Map<String, Integer> idleByModel = new LinkedHashMap<>();
+        idleEngines.forEach((model, idle) -> idleByModel.put(model, idle.size()));
+        metrics.put("idleByModel", idleByModel);
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Deque<OcrEngine> idle : idleEngines.values()) {
+            OcrEngine engine;
+            while ((engine = idle.poll()) != null) {
+                engine.close();
+            }
+        }
+    }
+}
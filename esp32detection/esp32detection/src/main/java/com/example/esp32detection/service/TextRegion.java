@@ -0,0 +1,69 @@
+package com.example.esp32detection.service;
+
+import java.util.Locale;
+
+/**
+ * A field's position on the card template, as fractions of the cropped card size,
+ * together with the characters Tesseract may produce for it.
+ */
+public class TextRegion {
+
+    // Single text line
+    private static final int PSM_SINGLE_LINE = 7;
+
+    private final String name;
+    private final double x;
+    private final double y;
+    private final double width;
+    private final double height;
+    private final String whitelist;
+
+    public TextRegion(String name, double x, double y, double width, double height, String whitelist) {
+        this.name = name;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.whitelist = whitelist;
+    }
+
+    /**
+     * Parse a region from an "x,y,width,height" property value.
+     */
+    public static TextRegion parse(String name, String spec, String whitelist) {
+        String[] parts = spec.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Region '" + name + "' must be x,y,width,height but was: " + spec);
+        }
+        return new TextRegion(name,
+                Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+                Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()),
+                whitelist);
+    }
+
+    /**
+     * Pixel rectangle {left, top, width, height} of this region, clamped to the image.
+     */
+    public int[] toPixels(int imageWidth, int imageHeight) {
+        int left = clamp((int) Math.round(x * imageWidth), imageWidth - 1);
+        int top = clamp((int) Math.round(y * imageHeight), imageHeight - 1);
+        int right = clamp((int) Math.round((x + width) * imageWidth), imageWidth);
+        int bottom = clamp((int) Math.round((y + height) * imageHeight), imageHeight);
+        return new int[] { left, top, Math.max(1, right - left), Math.max(1, bottom - top) };
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+
+    public String getName() { return name; }
+
+    public String getWhitelist() { return whitelist; }
+
+    public int getPageSegMode() { return PSM_SINGLE_LINE; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s[%.2f,%.2f %.2fx%.2f]", name, x, y, width, height);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.esp32detection.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.esp32detection.model.User;
+import com.example.esp32detection.repository.UserRepository;
+
+/**
+ * Read-through cache of users by id_number, so a card tap at the door is decided
+ * without a database read. Unregistered ids are cached too, for a shorter time, so
+ * repeated taps of an unknown card do not reach the database either. Entries are
+ * evicted least-recently-used beyond the size limit and after their TTL, and dropped
+ * whenever the user is registered, blocked or activated. A load that races with such
+ * a change is returned but not cached.
+ */
+@Component
+public class UserCache {
+
+    private static class Entry {
+        final User value;
+        final long expiresAt;
+
+        Entry(User value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final UserRepository repository;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final LinkedHashMap<String, Entry> entries;
+    private long invalidations;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserCache(UserRepository repository,
+                     @Value("${users.cache.max-entries:10000}") int maxEntries,
+                     @Value("${users.cache.ttl-ms:300000}") long ttlMs,
+                     @Value("${users.cache.negative-ttl-ms:30000}") long negativeTtlMs) {
+        this.repository = repository;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The user with this id_number, or null when none is registered.
+     */
+    public User find(String idNumber) {
+        if (idNumber == null || maxEntries <= 0) {
+            return repository.findByIdNumber(idNumber);
+        }
+
+        long generation;
+        synchronized (this) {
+            Entry entry = entries.get(idNumber);
+            if (entry != null && entry.expiresAt >= System.currentTimeMillis()) {
+                (entry.value == null ? negativeHits : hits).incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(idNumber);
+            }
+            generation = invalidations;
+        }
+
+        misses.incrementAndGet();
+        User user = repository.findByIdNumber(idNumber);
+
+        synchronized (this) {
+            // A change since the read may already be in the database but not in this row
+            if (generation == invalidations) {
+                entries.put(idNumber, new Entry(user, System.currentTimeMillis() + (user == null ? negativeTtlMs : ttlMs)));
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Drop the cached user (or its absence) after a change to it.
+     */
+    public synchronized void invalidate(String idNumber) {
+        invalidations++;
+        entries.remove(idNumber);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.get() + negativeHits.get();
+        long lookups = hitCount + misses.get();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", size());
+        metrics.put("maxEntries", maxEntries);
+        metrics.put("hits", hits.get());
+        metrics.put("negativeHits", negativeHits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        return metrics;
+    }
+}
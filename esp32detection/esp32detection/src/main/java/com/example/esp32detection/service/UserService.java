@@ -10,9 +10,11 @@ import java.util.List;
 public class UserService {
     
     private final UserRepository repository;
+    private final UserCache userCache;
     
-    public UserService(UserRepository repository) {
+    public UserService(UserRepository repository, UserCache userCache) {
         this.repository = repository;
+        this.userCache = userCache;
     }
     
     public User registerUser(String name, String idNumber, String email, String phone, String department, String faceEncoding, String imagePath) {
@@ -23,16 +25,17 @@ public class UserService {
         user.setFaceEncoding(faceEncoding);
         user.setIdCardImagePath(imagePath);
         
-        repository.save(user);
+        user.setId(repository.save(user));
+        userCache.invalidate(idNumber);
         return user;
     }
     
     public User findByIdNumber(String idNumber) {
-        return repository.findByIdNumber(idNumber);
+        return userCache.find(idNumber);
     }
     
     public boolean isUserRegistered(String idNumber) {
-        return repository.findByIdNumber(idNumber) != null;
+        return userCache.find(idNumber) != null;
     }
     
     public List<User> getAllUsers() {
@@ -41,9 +44,11 @@ public class UserService {
     
     public void blockUser(String idNumber) {
         repository.updateStatus(idNumber, "BLOCKED");
+        userCache.invalidate(idNumber);
     }
     
     public void activateUser(String idNumber) {
         repository.updateStatus(idNumber, "ACTIVE");
+        userCache.invalidate(idNumber);
     }
 }
@@ -0,0 +1,223 @@
+package com.example.esp32detection.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.esp32detection.model.Verification;
+import com.example.esp32detection.model.VerificationQuery;
+import com.example.esp32detection.repository.VerificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Writes the verification log as NDJSON or CSV while the rows are still coming off
+ * the database cursor, so an export of any size holds one row and one output buffer.
+ * Nothing is flushed until the buffer fills; a slow client then blocks the write,
+ * which stops the cursor reading further rows until the socket drains.
+ * <p>
+ * Each export holds a database connection and a request thread for as long as it
+ * runs, so only max-concurrent run at once and a request beyond that is turned away
+ * rather than queued.
+ */
+@Component
+public class VerificationExporter {
+
+    public enum Format {
+        NDJSON("ndjson", "application/x-ndjson"),
+        CSV("csv", "text/csv; charset=UTF-8");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() { return extension; }
+        public String getContentType() { return contentType; }
+
+        /**
+         * The format named by a request parameter, or null.
+         */
+        public static Format parse(String name) {
+            if (name == null) return null;
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name.trim())) return format;
+            }
+            return null;
+        }
+    }
+
+    static final String CSV_HEADER =
+        "id,user_id,name,id_number,face_match_score,verification_status,timestamp,id_card_data\n";
+
+    private final VerificationRepository repository;
+    private final ObjectWriter jsonWriter;
+    private final int bufferBytes;
+    private final int maxConcurrent;
+    private final Semaphore slots;
+    private final long timeoutMs;
+
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public VerificationExporter(VerificationRepository repository,
+                                ObjectMapper objectMapper,
+                                @Value("${verification.export.buffer-bytes:65536}") int bufferBytes,
+                                @Value("${verification.export.max-concurrent:2}") int maxConcurrent,
+                                @Value("${verification.export.timeout-ms:1800000}") long timeoutMs) {
+        this.repository = repository;
+        this.jsonWriter = objectMapper.writerFor(Verification.class);
+        this.bufferBytes = Math.max(1024, bufferBytes);
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.slots = new Semaphore(this.maxConcurrent);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * One running export's claim on the limit. Closing it gives the claim back; only
+     * the first close counts, so it can be closed both by the export and by whatever
+     * ends the request without running it.
+     */
+    public final class Slot implements AutoCloseable {
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        private Slot() {
+        }
+
+        @Override
+        public void close() {
+            if (open.compareAndSet(true, false)) slots.release();
+        }
+    }
+
+    /**
+     * Claim a slot for one export, or return null when max-concurrent are already
+     * running.
+     */
+    public Slot tryAcquire() {
+        if (slots.tryAcquire()) return new Slot();
+        rejected.increment();
+        return null;
+    }
+
+    /**
+     * How long the export request may run, in milliseconds; -1 for no limit.
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Stream every row matching the query's filters to {@code response}, oldest first.
+     */
+    public void export(VerificationQuery query, Format format, boolean gzip, OutputStream response) throws IOException {
+        exports.increment();
+        // Deflate in large blocks rather than one call per row
+        GZIPOutputStream deflater = gzip ? new GZIPOutputStream(response, bufferBytes) : null;
+        OutputStream out = new BufferedOutputStream(deflater != null ? deflater : response, bufferBytes);
+        Writer csv = format == Format.CSV ? new OutputStreamWriter(out, StandardCharsets.UTF_8) : null;
+        try {
+            if (csv != null) csv.write(CSV_HEADER);
+            repository.forEach(query, verification -> {
+                try {
+                    if (csv != null) {
+                        writeCsv(csv, verification);
+                    } else {
+                        writeJson(out, verification);
+                    }
+                    rows.increment();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (csv != null) csv.flush();
+            out.flush();
+            // The response stream is the container's to close
+            if (deflater != null) deflater.finish();
+        } catch (UncheckedIOException e) {
+            failures.increment();
+            // The client went away; the cursor has been closed on the way out
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            throw e;
+        }
+    }
+
+    private void writeJson(OutputStream out, Verification verification) throws IOException {
+        try {
+            out.write(jsonWriter.writeValueAsBytes(verification));
+        } catch (JsonProcessingException e) {
+            throw new IOException(e);
+        }
+        out.write('\n');
+    }
+
+    static void writeCsv(Writer out, Verification verification) throws IOException {
+        out.write(csvField(verification.getId()));
+        out.write(',');
+        out.write(csvField(verification.getUserId()));
+        out.write(',');
+        out.write(csvField(verification.getName()));
+        out.write(',');
+        out.write(csvField(verification.getIdNumber()));
+        out.write(',');
+        out.write(csvField(verification.getFaceMatchScore()));
+        out.write(',');
+        out.write(csvField(verification.getVerificationStatus()));
+        out.write(',');
+        out.write(csvField(verification.getTimestamp()));
+        out.write(',');
+        out.write(csvField(verification.getIdCardData()));
+        out.write('\n');
+    }
+
+    // RFC 4180: quote a field holding a comma, quote or line break, doubling its quotes
+    static String csvField(Object value) {
+        if (value == null) return "";
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+        }
+        return text;
+    }
+
+    /**
+     * File name for the download, e.g. verifications.csv.gz.
+     */
+    public static String fileName(Format format, boolean gzip) {
+        return "verifications." + format.getExtension() + (gzip ? ".gz" : "");
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("exports", exports.sum());
+        metrics.put("running", maxConcurrent - slots.availablePermits());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("rows", rows.sum());
+        metrics.put("failures", failures.sum());
+        return metrics;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.esp32detection.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.esp32detection.model.Verification;
+import com.example.esp32detection.repository.VerificationRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind persistence for verification logs, so a door decision does not wait
+ * for a MySQL INSERT. Verifications go into a bounded buffer that a single writer
+ * thread drains in JDBC batches, as soon as a batch is full or the flush interval
+ * has passed since the first waiting entry.
+ * <p>
+ * In FIRE_AND_FORGET mode submit returns at once; in WAIT_FOR_FLUSH it returns once
+ * the batch holding the entry is committed, or the flush timeout runs out. A full
+ * buffer makes the caller wait up to one flush interval for room, and only then
+ * write its entry directly rather than lose it; such an overflow is written at once
+ * whatever the durability, so it can take an id below entries still waiting, and is
+ * counted in the metrics. A failed
+ * batch is retried with backoff before it is dropped and logged. The buffer is
+ * flushed on shutdown.
+ */
+@Component
+public class VerificationLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationLogWriter.class);
+
+    public enum Durability { FIRE_AND_FORGET, WAIT_FOR_FLUSH }
+
+    private static final class Pending {
+        final Verification verification;
+        final CompletableFuture<Void> flushed;
+
+        Pending(Verification verification, CompletableFuture<Void> flushed) {
+            this.verification = verification;
+            this.flushed = flushed;
+        }
+    }
+
+    // Queued by shutdown to wake a writer parked on an empty buffer; never written
+    private static final Pending WAKE_UP = new Pending(null, null);
+
+    private final VerificationRepository repository;
+    private final BlockingQueue<Pending> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long flushTimeoutMs;
+    private final int retries;
+    private final Durability durability;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong waitedForRoom = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public VerificationLogWriter(VerificationRepository repository,
+                                 @Value("${verification.log.buffer-capacity:4096}") int capacity,
+                                 @Value("${verification.log.batch-size:100}") int batchSize,
+                                 @Value("${verification.log.flush-interval-ms:200}") long flushIntervalMs,
+                                 @Value("${verification.log.flush-timeout-ms:2000}") long flushTimeoutMs,
+                                 @Value("${verification.log.retries:3}") int retries,
+                                 @Value("${verification.log.durability:FIRE_AND_FORGET}") Durability durability) {
+        this.repository = repository;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushTimeoutMs = flushTimeoutMs;
+        this.retries = retries;
+        this.durability = durability;
+
+        this.writer = new Thread(this::drain, "verification-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        logger.info("Verification log writer ready ({} entries, batches of {}, {} ms, {})",
+                capacity, this.batchSize, flushIntervalMs, durability);
+    }
+
+    /**
+     * Queue a verification for writing; with WAIT_FOR_FLUSH, wait for it to be written.
+     */
+    public void submit(Verification verification) {
+        submitted.incrementAndGet();
+        Pending pending = new Pending(verification,
+                durability == Durability.WAIT_FOR_FLUSH ? new CompletableFuture<>() : null);
+
+        if (!running || !enqueue(pending)) {
+            // Better a slow request than a lost audit record
+            overflows.incrementAndGet();
+            write(List.of(pending));
+            return;
+        }
+
+        if (pending.flushed != null) {
+            try {
+                pending.flushed.get(flushTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                logger.warn("Verification log for {} not confirmed: {}", verification.getIdNumber(), e.toString());
+            }
+        }
+    }
+
+    // A full buffer usually has room again once the writer takes its next batch
+    private boolean enqueue(Pending pending) {
+        if (buffer.offer(pending)) return true;
+        waitedForRoom.incrementAndGet();
+        try {
+            return buffer.offer(pending, flushIntervalMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Pending first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null || first == WAKE_UP) continue;
+                batch.add(first);
+
+                // Collect until the batch is full or the first entry has waited long enough
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) break;
+                    Pending next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null || next == WAKE_UP) break;
+                    batch.add(next);
+                }
+                batch.remove(WAKE_UP);
+                if (!batch.isEmpty()) write(batch);
+            } catch (InterruptedException e) {
+                // Only the JVM going down interrupts this thread; write out what is left
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Verification> verifications = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            verifications.add(pending.verification);
+        }
+
+        RuntimeException failure = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            long start = System.nanoTime();
+            try {
+                repository.saveAll(verifications);
+                long elapsed = System.nanoTime() - start;
+                totalFlushNanos.addAndGet(elapsed);
+                maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+                batches.incrementAndGet();
+                written.addAndGet(batch.size());
+                for (Pending pending : batch) {
+                    if (pending.flushed != null) pending.flushed.complete(null);
+                }
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+                logger.warn("Writing {} verification log(s) failed (attempt {}): {}", batch.size(), attempt + 1, e.toString());
+                if (attempt < retries && !sleep(100L << attempt)) break;
+            }
+        }
+
+        dropped.addAndGet(batch.size());
+        for (Pending pending : batch) {
+            logger.error("Dropped verification log {} {} {}", pending.verification.getIdNumber(),
+                    pending.verification.getVerificationStatus(), pending.verification.getTimestamp());
+            if (pending.flushed != null) pending.flushed.completeExceptionally(failure);
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Stop accepting into the buffer and write out everything already in it.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        // A full buffer has no room for the wake-up, but then the writer is not waiting
+        buffer.offer(WAKE_UP);
+        try {
+            writer.join(flushTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        rest.remove(WAKE_UP);
+        if (!rest.isEmpty()) write(rest);
+        logger.info("Verification log writer stopped after writing {} log(s)", written.get());
+    }
+
+    public Map<String, Object> getMetrics() {
+        long batchCount = batches.get();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("durability", durability);
+        metrics.put("queueDepth", buffer.size());
+        metrics.put("capacity", buffer.size() + buffer.remainingCapacity());
+        metrics.put("submitted", submitted.get());
+        metrics.put("written", written.get());
+        metrics.put("batches", batchCount);
+        metrics.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) written.get() / batchCount);
+        metrics.put("waitedForRoom", waitedForRoom.get());
+        metrics.put("overflows", overflows.get());
+        metrics.put("dropped", dropped.get());
+        metrics.put("avgFlushMs", batchCount == 0 ? 0.0 : totalFlushNanos.get() / 1_000_000.0 / batchCount);
+        metrics.put("maxFlushMs", maxFlushNanos.get() / 1_000_000.0);
+        return metrics;
+    }
+}
@@ -1,46 +1,75 @@
 package com.example.esp32detection.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 
 import org.springframework.stereotype.Service;
 
 import com.example.esp32detection.model.User;
 import com.example.esp32detection.model.Verification;
+import com.example.esp32detection.model.VerificationPage;
+import com.example.esp32detection.model.VerificationQuery;
 import com.example.esp32detection.repository.VerificationRepository;
 
 @Service
 public class VerificationService {
     
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    
     private final VerificationRepository verificationRepository;
-    private final UserService userService;
+    private final VerificationLogWriter logWriter;
     
-    public VerificationService(VerificationRepository verificationRepository, UserService userService) {
+    public VerificationService(VerificationRepository verificationRepository, VerificationLogWriter logWriter) {
         this.verificationRepository = verificationRepository;
-        this.userService = userService;
+        this.logWriter = logWriter;
     }
     
-    public Verification saveVerification(String name, String idNumber, Double matchScore, String status, String idCardData) {
+    /**
+     * Log a verification for a user the caller has already looked up (null when the
+     * id is not registered), without looking it up again.
+     */
+    public Verification saveVerification(User user, String name, String idNumber, Double matchScore, String status, String idCardData) {
         Verification verification = new Verification(name, idNumber, matchScore, status);
         verification.setIdCardData(idCardData);
+        verification.setTimestamp(LocalDateTime.now());
         
-        User user = userService.findByIdNumber(idNumber);
         if (user != null) {
             verification.setUserId(user.getId());
         }
         
-        verificationRepository.save(verification);
+        // Written behind the response, in batches
+        logWriter.submit(verification);
         return verification;
     }
     
-    public List<Verification> getAllVerifications() {
-        return verificationRepository.findAll();
-    }
-    
-    public List<Verification> getGrantedAccess() {
-        return verificationRepository.findByStatus("GRANTED");
+    /**
+     * One page of the log, newest first. A row beyond the page is fetched to tell
+     * whether there is a next one without counting.
+     */
+    public VerificationPage getVerifications(VerificationQuery query) {
+        int limit = query.getLimit() == null ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(MAX_PAGE_SIZE, query.getLimit()));
+        normalize(query);
+        
+        List<Verification> rows = verificationRepository.findPage(query, limit + 1);
+        if (rows.size() <= limit) {
+            return new VerificationPage(rows, null);
+        }
+        List<Verification> items = rows.subList(0, limit);
+        return new VerificationPage(items, items.get(limit - 1).getId());
     }
     
-    public List<Verification> getDeniedAccess() {
-        return verificationRepository.findByStatus("DENIED");
+    /**
+     * Drop blank filters and upper-case the status, as it is stored.
+     */
+    public void normalize(VerificationQuery query) {
+        if (query.getIdNumber() != null && query.getIdNumber().isBlank()) {
+            query.setIdNumber(null);
+        }
+        if (query.getStatus() != null) {
+            query.setStatus(query.getStatus().isBlank() ? null : query.getStatus().trim().toUpperCase(Locale.ROOT));
+        }
     }
 }
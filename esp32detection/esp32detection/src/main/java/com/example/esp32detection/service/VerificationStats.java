@@ -0,0 +1,183 @@
+package com.example.esp32detection.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verification outcomes and match scores over the last hour by minute and the last
+ * day by hour, counted in memory as /api/verify answers, so the dashboard can see
+ * rates without reading verification_logs.
+ *
+ * Each window is a ring of buckets, one per period. A bucket is never cleared: when
+ * its slot comes round again it is swapped for a fresh one with a compare-and-set,
+ * and its counters are LongAdders, which stripe updates across cells under
+ * contention, so recording takes no lock. A count made by a thread still holding the
+ * bucket being swapped out can be lost at the edge of a period. Reading walks the
+ * buckets once.
+ */
+@Component
+public class VerificationStats {
+
+    static final String[] STATUSES = {"GRANTED", "DENIED", "NOT_REGISTERED"};
+
+    private final Window minutes;
+    private final Window hours;
+    private final int scoreBins;
+    private final LongSupplier clock;
+
+    @Autowired
+    public VerificationStats(@Value("${verification.stats.minute-buckets:60}") int minuteBuckets,
+                             @Value("${verification.stats.hour-buckets:24}") int hourBuckets,
+                             @Value("${verification.stats.score-bins:10}") int scoreBins) {
+        this(minuteBuckets, hourBuckets, scoreBins, System::currentTimeMillis);
+    }
+
+    VerificationStats(int minuteBuckets, int hourBuckets, int scoreBins, LongSupplier clock) {
+        this.scoreBins = Math.max(1, scoreBins);
+        this.minutes = new Window(60_000L, Math.max(1, minuteBuckets), this.scoreBins);
+        this.hours = new Window(3_600_000L, Math.max(1, hourBuckets), this.scoreBins);
+        this.clock = clock;
+    }
+
+    /**
+     * Count one verification. Statuses other than GRANTED, DENIED and NOT_REGISTERED
+     * are ignored; a null score counts towards the status only.
+     */
+    public void record(String status, Double matchScore) {
+        int statusIndex = indexOf(status);
+        if (statusIndex < 0) return;
+        int bin = matchScore == null || matchScore.isNaN() ? -1 : bin(matchScore);
+
+        long now = clock.getAsLong();
+        minutes.bucket(now).add(statusIndex, bin);
+        hours.bucket(now).add(statusIndex, bin);
+    }
+
+    // Scores run from 0 to 1; anything outside goes in the first or last bin
+    private int bin(double score) {
+        int bin = (int) (score * scoreBins);
+        return Math.max(0, Math.min(scoreBins - 1, bin));
+    }
+
+    private static int indexOf(String status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) return i;
+        }
+        return -1;
+    }
+
+    public Map<String, Object> snapshot() {
+        long now = clock.getAsLong();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("at", Instant.ofEpochMilli(now).toString());
+        stats.put("scoreBins", binBounds());
+        stats.put("perMinute", minutes.snapshot(now));
+        stats.put("perHour", hours.snapshot(now));
+        return stats;
+    }
+
+    private List<Double> binBounds() {
+        List<Double> bounds = new ArrayList<>(scoreBins + 1);
+        for (int i = 0; i <= scoreBins; i++) {
+            bounds.add((double) i / scoreBins);
+        }
+        return bounds;
+    }
+
+    private static final class Bucket {
+        final long period;
+        final LongAdder[] statuses = adders(STATUSES.length);
+        final LongAdder[] scores;
+
+        Bucket(long period, int scoreBins) {
+            this.period = period;
+            this.scores = adders(scoreBins);
+        }
+
+        void add(int status, int bin) {
+            statuses[status].increment();
+            if (bin >= 0) scores[bin].increment();
+        }
+
+        private static LongAdder[] adders(int count) {
+            LongAdder[] adders = new LongAdder[count];
+            for (int i = 0; i < count; i++) adders[i] = new LongAdder();
+            return adders;
+        }
+    }
+
+    private static final class Window {
+        final long periodMs;
+        final int scoreBins;
+        final AtomicReferenceArray<Bucket> ring;
+
+        Window(long periodMs, int buckets, int scoreBins) {
+            this.periodMs = periodMs;
+            this.scoreBins = scoreBins;
+            this.ring = new AtomicReferenceArray<>(buckets);
+        }
+
+        Bucket bucket(long now) {
+            long period = now / periodMs;
+            int slot = (int) (period % ring.length());
+            while (true) {
+                Bucket bucket = ring.get(slot);
+                // A thread that stalled for a whole turn of the ring finds a newer bucket; it counts there
+                if (bucket != null && bucket.period >= period) return bucket;
+                Bucket fresh = new Bucket(period, scoreBins);
+                if (ring.compareAndSet(slot, bucket, fresh)) return fresh;
+            }
+        }
+
+        Map<String, Object> snapshot(long now) {
+            long current = now / periodMs;
+            long[] totals = new long[STATUSES.length];
+            long[] histogram = new long[scoreBins];
+            List<Map<String, Object>> series = new ArrayList<>(ring.length());
+
+            // Oldest first, with an empty entry for a period nothing was recorded in
+            for (long period = current - ring.length() + 1; period <= current; period++) {
+                Bucket bucket = ring.get((int) (period % ring.length()));
+                boolean live = bucket != null && bucket.period == period;
+
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("start", Instant.ofEpochMilli(period * periodMs).toString());
+                for (int s = 0; s < STATUSES.length; s++) {
+                    long count = live ? bucket.statuses[s].sum() : 0;
+                    entry.put(STATUSES[s], count);
+                    totals[s] += count;
+                }
+                if (live) {
+                    for (int b = 0; b < scoreBins; b++) histogram[b] += bucket.scores[b].sum();
+                }
+                series.add(entry);
+            }
+
+            Map<String, Object> window = new LinkedHashMap<>();
+            window.put("periodSeconds", periodMs / 1000);
+            Map<String, Object> totalMap = new LinkedHashMap<>();
+            long all = 0;
+            for (int s = 0; s < STATUSES.length; s++) {
+                totalMap.put(STATUSES[s], totals[s]);
+                all += totals[s];
+            }
+            window.put("totals", totalMap);
+            window.put("grantedRatio", all == 0 ? 0.0 : (double) totals[0] / all);
+            List<Long> scoreHistogram = new ArrayList<>(scoreBins);
+            for (long count : histogram) scoreHistogram.add(count);
+            window.put("scoreHistogram", scoreHistogram);
+            window.put("buckets", series);
+            return window;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.esp32detection.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.example.esp32detection.model.OcrResult;
+import com.example.esp32detection.model.OcrWord;
+
+/**
+ * Maps parsed field values back to the Tesseract words they were read from. Values
+ * and words are split into letter-and-digit pieces; each value piece is looked up
+ * among the word pieces, exactly or inside a longer one (a register number cut to
+ * length), and the value is as confident as its least confident piece. Pieces that
+ * normalization rewrote ("Mar" from "03") have no source word and are left out.
+ */
+final class WordConfidence {
+
+    private final List<String> keys = new ArrayList<>();
+    private final List<Float> confidences = new ArrayList<>();
+    private final Map<String, Float> exact = new HashMap<>();
+
+    WordConfidence(List<OcrWord> words) {
+        for (OcrWord word : words) {
+            for (String key : key(word.getText()).split(" ")) {
+                if (key.isEmpty()) continue;
+                keys.add(key);
+                confidences.add(word.getConfidence());
+                exact.merge(key, word.getConfidence(), Math::min);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * Confidence from 0 to 100 of a parsed value, or OcrResult.UNKNOWN_CONFIDENCE
+     * when none of its pieces can be traced to a word.
+     */
+    int of(String value) {
+        if (value == null || value.isEmpty()) return OcrResult.UNKNOWN_CONFIDENCE;
+
+        float lowest = Float.MAX_VALUE;
+        for (String piece : key(value).split(" ")) {
+            Float confidence = find(piece);
+            if (confidence != null) lowest = Math.min(lowest, confidence);
+        }
+        return lowest == Float.MAX_VALUE ? OcrResult.UNKNOWN_CONFIDENCE : Math.round(lowest);
+    }
+
+    private Float find(String piece) {
+        if (piece.isEmpty()) return null;
+        Float confidence = exact.get(piece);
+        // A single character is too common to attribute to a longer word
+        if (confidence != null || piece.length() < 2) return confidence;
+
+        Float lowest = null;
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            if (key.contains(piece) || (key.length() >= 2 && piece.contains(key))) {
+                lowest = lowest == null ? confidences.get(i) : Math.min(lowest, confidences.get(i));
+            }
+        }
+        return lowest;
+    }
+
+    // Upper-case letters and digits, every other run of characters collapsed to one space
+    private static String key(String text) {
+        StringBuilder key = new StringBuilder(text.length());
+        boolean gap = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && key.length() > 0) key.append(' ');
+                key.append(c);
+                gap = false;
+            } else {
+                gap = true;
+            }
+        }
+        return key.toString().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.esp32detection.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.example.esp32detection.model.Verification;
+import com.example.esp32detection.model.VerificationQuery;
+
+class VerificationRepositoryTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    /**
+     * Runs findPage's SQL over rows in memory: the WHERE clause is a list of
+     * "AND column op ?" conditions, then ORDER BY id DESC LIMIT ?.
+     */
+    private static final class InMemoryJdbcTemplate extends JdbcTemplate {
+        private static final Pattern CONDITION = Pattern.compile("AND `?(\\w+)`? (=|>=|<) \\?");
+
+        final List<Verification> rows = new ArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            List<Verification> page = new ArrayList<>(rows);
+            Matcher condition = CONDITION.matcher(sql);
+            int arg = 0;
+            while (condition.find()) {
+                String column = condition.group(1);
+                String op = condition.group(2);
+                Object value = args[arg++];
+                page.removeIf(row -> !matches(row, column, op, value));
+            }
+            page.sort(Comparator.comparing(Verification::getId).reversed());
+            int limit = (Integer) args[arg];
+            return (List<T>) page.subList(0, Math.min(limit, page.size()));
+        }
+
+        private static boolean matches(Verification row, String column, String op, Object value) {
+            int compared = switch (column) {
+                case "id" -> row.getId().compareTo((Integer) value);
+                case "timestamp" -> row.getTimestamp().compareTo(((Timestamp) value).toLocalDateTime());
+                case "id_number" -> row.getIdNumber().compareTo((String) value);
+                case "verification_status" -> row.getVerificationStatus().compareTo((String) value);
+                default -> throw new IllegalArgumentException(column);
+            };
+            return switch (op) {
+                case "=" -> compared == 0;
+                case ">=" -> compared >= 0;
+                default -> compared < 0;
+            };
+        }
+    }
+
+    private static void insert(InMemoryJdbcTemplate jdbcTemplate, int id, int minute) {
+        Verification verification = new Verification("USER " + id, "RA" + id, 0.9, "GRANTED");
+        verification.setId(id);
+        verification.setTimestamp(NINE.plusMinutes(minute));
+        jdbcTemplate.rows.add(verification);
+    }
+
+    @Test
+    void timeRangeHoldsRowsInsertedOutOfTimestampOrder() {
+        InMemoryJdbcTemplate jdbcTemplate = new InMemoryJdbcTemplate();
+        // An overflowed entry written ahead of older queued ones, and a clock stepped back
+        insert(jdbcTemplate, 1, 0);
+        insert(jdbcTemplate, 2, 10);
+        insert(jdbcTemplate, 3, 1);
+        insert(jdbcTemplate, 4, 5);
+        insert(jdbcTemplate, 5, 12);
+        insert(jdbcTemplate, 6, 2);
+        VerificationRepository repository = new VerificationRepository(jdbcTemplate);
+
+        VerificationQuery query = new VerificationQuery();
+        query.setFrom(NINE.plusMinutes(1));
+        query.setTo(NINE.plusMinutes(10));
+        List<Integer> seen = new ArrayList<>();
+        while (true) {
+            List<Verification> page = repository.findPage(query, 2);
+            page.forEach(row -> seen.add(row.getId()));
+            if (page.size() < 2) break;
+            query.setBefore(page.get(1).getId());
+        }
+
+        assertEquals(List.of(6, 4, 3), seen);
+    }
+}
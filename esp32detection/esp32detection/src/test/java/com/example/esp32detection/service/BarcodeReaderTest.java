@@ -0,0 +1,151 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class BarcodeReaderTest {
+
+    private final BarcodeReader reader = new BarcodeReader(true, 24, 48);
+
+    @Test
+    void code128TableHasDistinctElevenModulePatterns() {
+        Set<String> seen = new HashSet<>();
+        for (int[] pattern : BarcodeReader.CODE128) {
+            int modules = 0;
+            StringBuilder key = new StringBuilder();
+            for (int width : pattern) {
+                modules += width;
+                key.append(width);
+            }
+            assertEquals(11, modules, key.toString());
+            seen.add(key.toString());
+        }
+        assertEquals(107, seen.size());
+    }
+
+    @Test
+    void code128InSetsBAndCIsRead() {
+        // Start B, "RA", Code C, then the digits in pairs
+        List<Integer> values = new ArrayList<>(List.of(104, 'R' - 32, 'A' - 32, 99));
+        String digits = "221100301012";
+        for (int i = 0; i < digits.length(); i += 2) {
+            values.add(Integer.parseInt(digits.substring(i, i + 2)));
+        }
+
+        BufferedImage card = card(code128(values), 3, false);
+
+        assertEquals("RA221100301012", reader.read(card));
+    }
+
+    @Test
+    void code39IsReadUpsideDownAndSideways() {
+        BufferedImage card = card(code39("RA2211003010123"), 2, false);
+
+        assertEquals("RA2211003010123", reader.read(rotate180(card)));
+        assertEquals("RA2211003010123", reader.read(card(code39("RA2211003010123"), 2, true)));
+    }
+
+    @Test
+    void corruptCheckSymbolAndPlainTextAreNotRead() {
+        List<Integer> values = new ArrayList<>(List.of(104, 'R' - 32, 'A' - 32, '1' - 32));
+        List<Boolean> modules = code128(values);
+        // Swap the check symbol for another one
+        int checkAt = modules.size() - 13 - 11;
+        int[] other = BarcodeReader.CODE128[(checksum(values) + 1) % 103];
+        List<Boolean> replacement = new ArrayList<>();
+        appendWidths(replacement, other);
+        for (int i = 0; i < 11; i++) modules.set(checkAt + i, replacement.get(i));
+
+        assertNull(reader.read(card(modules, 3, false)));
+
+        BufferedImage text = new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = text.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 600, 300);
+        g.setColor(Color.BLACK);
+        Random random = new Random(20);
+        for (int y = 20; y < 280; y += 30) {
+            g.drawString("NAME ANITA ROY REGISTER " + random.nextInt(1_000_000), 20, y);
+        }
+        g.dispose();
+        assertNull(reader.read(text));
+    }
+
+    private static List<Boolean> code128(List<Integer> values) {
+        List<Boolean> modules = new ArrayList<>();
+        for (int value : values) appendWidths(modules, BarcodeReader.CODE128[value]);
+        appendWidths(modules, BarcodeReader.CODE128[checksum(values)]);
+        appendWidths(modules, new int[] { 2, 3, 3, 1, 1, 1, 2 });
+        return modules;
+    }
+
+    private static int checksum(List<Integer> values) {
+        int sum = values.get(0);
+        for (int i = 1; i < values.size(); i++) sum += i * values.get(i);
+        return sum % 103;
+    }
+
+    private static List<Boolean> code39(String text) {
+        List<Boolean> modules = new ArrayList<>();
+        String framed = "*" + text + "*";
+        for (int c = 0; c < framed.length(); c++) {
+            int pattern = BarcodeReader.CODE39[BarcodeReader.CODE39_ALPHABET.indexOf(framed.charAt(c))];
+            int[] widths = new int[10];
+            for (int k = 0; k < 9; k++) widths[k] = (pattern >> (8 - k) & 1) == 1 ? 3 : 1;
+            widths[9] = 1; // gap between characters
+            appendWidths(modules, c == framed.length() - 1 ? Arrays.copyOf(widths, 9) : widths);
+        }
+        return modules;
+    }
+
+    private static void appendWidths(List<Boolean> modules, int[] widths) {
+        for (int k = 0; k < widths.length; k++) {
+            for (int w = 0; w < widths[k]; w++) modules.add(k % 2 == 0);
+        }
+    }
+
+    // A white card with the barcode in its lower part, bars vertical or (sideways) horizontal
+    private static BufferedImage card(List<Boolean> modules, int moduleWidth, boolean sideways) {
+        int length = (modules.size() + 20) * moduleWidth;
+        int width = sideways ? 300 : length + 40;
+        int height = sideways ? length + 40 : 300;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(235, 235, 230));
+        g.fillRect(0, 0, width, height);
+        g.setColor(new Color(20, 20, 30));
+        int offset = 20 + 10 * moduleWidth;
+        for (int m = 0; m < modules.size(); m++) {
+            if (!modules.get(m)) continue;
+            if (sideways) {
+                g.fillRect(150, offset + m * moduleWidth, 100, moduleWidth);
+            } else {
+                g.fillRect(offset + m * moduleWidth, 150, moduleWidth, 100);
+            }
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage rotate180(BufferedImage image) {
+        BufferedImage rotated = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                rotated.setRGB(image.getWidth() - 1 - x, image.getHeight() - 1 - y, image.getRGB(x, y));
+            }
+        }
+        return rotated;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.esp32detection.service;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Warm-up, timing and allocation accounting shared by the *BenchmarkTest classes,
+ * which supply only the workload. Allocation is read from the calling thread, so a
+ * round must do its work on that thread.
+ */
+final class Benchmark {
+
+    @FunctionalInterface
+    interface Round {
+        void run() throws Exception;
+    }
+
+    /**
+     * Time and allocation of one measured run, spread over its operations.
+     */
+    record Result(long operations, long nanos, long bytes) {
+
+        double operationsPerSecond() {
+            return operations * 1e9 / nanos;
+        }
+
+        double nanosPerOperation() {
+            return (double) nanos / operations;
+        }
+
+        long bytesPerOperation() {
+            return bytes / operations;
+        }
+    }
+
+    private Benchmark() {
+    }
+
+    /**
+     * Run {@code round} warmupRounds times untimed, then measuredRounds times timed,
+     * and print the result under {@code label}. Each round counts as
+     * operationsPerRound operations.
+     */
+    static Result run(String label, int warmupRounds, int measuredRounds, long operationsPerRound, Round round)
+            throws Exception {
+        for (int i = 0; i < warmupRounds; i++) {
+            round.run();
+        }
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < measuredRounds; i++) {
+            round.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Result result = new Result((long) measuredRounds * operationsPerRound, elapsed, allocated);
+        System.out.printf("%s: %.0f ops/s, %s/op, %s/op%n", label, result.operationsPerSecond(),
+                time(result.nanosPerOperation()), size(result.bytesPerOperation()));
+        return result;
+    }
+
+    private static String time(double nanos) {
+        if (nanos >= 1e6) return String.format("%.3f ms", nanos / 1e6);
+        if (nanos >= 1e3) return String.format("%.1f us", nanos / 1e3);
+        return String.format("%.0f ns", nanos);
+    }
+
+    private static String size(long bytes) {
+        return bytes >= 1024 ? bytes / 1024 + " KB" : bytes + " bytes";
+    }
+}
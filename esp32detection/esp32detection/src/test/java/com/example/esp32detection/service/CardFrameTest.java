@@ -0,0 +1,79 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.OcrResult;
+import com.example.esp32detection.service.FrameQuality.Reason;
+
+class CardFrameTest {
+
+    /**
+     * A gate that counts its checks and passes or rejects every frame.
+     */
+    private static final class CountingGate extends FrameQualityGate {
+        final AtomicInteger checks = new AtomicInteger();
+        final boolean reject;
+
+        CountingGate(boolean reject) {
+            super(true, 128, 40, 0.35, 40, 60);
+            this.reject = reject;
+        }
+
+        @Override
+        public void check(BufferedImage image) throws FrameRejectedException {
+            checks.incrementAndGet();
+            if (reject) {
+                throw new FrameRejectedException(new FrameQuality(Reason.BLURRY, 0, 128, 0, 100));
+            }
+        }
+    }
+
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(ImagePreprocessorTest.cardFrame(400, 250, BufferedImage.TYPE_3BYTE_BGR, 0), "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void everyStepOfARequestSharesOneDecodeAndCheck() throws Exception {
+        CardFrame frame = new CardFrame(png());
+        CountingGate gate = new CountingGate(false);
+        OcrResultCache cache = new OcrResultCache(16, 60_000);
+
+        BufferedImage barcode = frame.decode();
+        BufferedImage roi = frame.check(gate);
+        BufferedImage cascade = frame.check(gate);
+
+        assertSame(barcode, roi);
+        assertSame(roi, cascade);
+        assertEquals(1, gate.checks.get());
+
+        // The same bytes uploaded again hit the results filed under this frame
+        cache.get("login-roi", frame, () -> new OcrResult("first", null));
+        OcrResult again = cache.get("login-roi", new CardFrame(frame.getBytes()), () -> new OcrResult("second", null));
+        assertEquals("first", again.getText());
+    }
+
+    @Test
+    void rejectedFrameIsNotCheckedAgain() throws Exception {
+        CardFrame frame = new CardFrame(png());
+        CountingGate gate = new CountingGate(true);
+
+        assertThrows(FrameRejectedException.class, () -> frame.check(gate));
+        FrameRejectedException again = assertThrows(FrameRejectedException.class, () -> frame.check(gate));
+
+        assertEquals(Reason.BLURRY, again.getQuality().getReason());
+        assertEquals(1, gate.checks.get());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.CardRegion;
+
+class CardLocatorTest {
+
+    private static final int[][] CARD = { { 310, 220 }, { 1290, 250 }, { 1270, 860 }, { 290, 830 } };
+
+    @Test
+    void locatesCardOnDarkBackground() {
+        CardLocator locator = new CardLocator(true, 0.2);
+
+        CardRegion region = locator.locate(luminance(frameWithCard()));
+
+        assertNotNull(region);
+        for (int i = 0; i < 4; i++) {
+            int[] found = region.getCorners()[i];
+            assertTrue(Math.abs(found[0] - CARD[i][0]) < 25 && Math.abs(found[1] - CARD[i][1]) < 25,
+                    "corner " + i + " at " + found[0] + "," + found[1]);
+        }
+    }
+
+    @Test
+    void cropIsUprightAtCardAspect() {
+        CardLocator locator = new CardLocator(true, 0.2);
+        GrayImage frame = luminance(frameWithCard());
+        CardRegion region = locator.locate(frame);
+
+        GrayImage crop = locator.crop(frame, region, new GrayImage(), 1011);
+
+        assertEquals(Math.round(crop.getWidth() / CardLocator.CARD_ASPECT), crop.getHeight());
+        // The card body is white, so the crop should be mostly bright
+        long sum = 0;
+        for (int i = 0; i < crop.getWidth() * crop.getHeight(); i++) {
+            sum += crop.getPixels()[i] & 0xFF;
+        }
+        assertTrue(sum / (crop.getWidth() * crop.getHeight()) > 180);
+    }
+
+    @Test
+    void returnsNullWhenNoCardOutline() {
+        CardLocator locator = new CardLocator(true, 0.2);
+        GrayImage blank = new GrayImage().reset(640, 480);
+        Arrays.fill(blank.getPixels(), (byte) 200);
+
+        assertNull(locator.locate(blank));
+    }
+
+    private static BufferedImage frameWithCard() {
+        BufferedImage frame = new BufferedImage(1600, 1100, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = frame.createGraphics();
+        g.setColor(new Color(50, 45, 40));
+        g.fillRect(0, 0, frame.getWidth(), frame.getHeight());
+        Polygon card = new Polygon();
+        for (int[] corner : CARD) {
+            card.addPoint(corner[0], corner[1]);
+        }
+        g.setColor(Color.WHITE);
+        g.fillPolygon(card);
+        g.setColor(Color.BLACK);
+        g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 40));
+        g.drawString("Name : JOHN DOE", 380, 450);
+        g.drawString("Register No. : RA2211003010123", 380, 560);
+        g.dispose();
+        return frame;
+    }
+
+    private static GrayImage luminance(BufferedImage image) {
+        GrayImage gray = new GrayImage().reset(image.getWidth(), image.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y);
+                gray.getPixels()[y * image.getWidth() + x] =
+                        (byte) ((((rgb >> 16) & 0xFF) * 77 + ((rgb >> 8) & 0xFF) * 150 + (rgb & 0xFF) * 29) >> 8);
+            }
+        }
+        return gray;
+    }
+}
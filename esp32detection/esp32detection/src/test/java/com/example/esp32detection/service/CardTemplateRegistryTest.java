@@ -0,0 +1,61 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.IDCardData;
+
+class CardTemplateRegistryTest {
+
+    private static CardTemplate vit() {
+        return new CardTemplate("vit", "VIT UNIVERSITY", "SCHOOL OF COMPUTING", List.of("VIT", "vit.ac.in"),
+                "Roll No:3, Branch:2", "Blood Group:3, Residence:2", 0,
+                "\\d{2}[A-Z]{3}\\d{4}", "Student:NAME",
+                Map.of("programme", "Branch\\s*:\\s*([A-Z]{2,5})",
+                       "registerNumber", "Roll No\\s*:\\s*(\\w+)"));
+    }
+
+    @Test
+    void automatonFindsOverlappingKeywords() {
+        KeywordAutomaton automaton = new KeywordAutomaton(List.of("Birth", "Date of Birth", "Program", "Programme", "he"));
+
+        assertArrayEquals(new boolean[] { true, true, false, false, true },
+                automaton.scan("The Date of Birth"));
+        assertArrayEquals(new boolean[] { false, false, true, true, false },
+                automaton.scan("Programme"));
+    }
+
+    @Test
+    void templateIsChosenByItsKeywordsAndDefaultsToTheFirst() {
+        CardTemplateRegistry registry = new CardTemplateRegistry(List.of(CardTemplate.srm(), vit()));
+
+        CardTemplateRegistry.Detection vitFront = registry.detect("VIT Student : ANITA ROY Roll No : 21BCE1034 Branch : CSE");
+        CardTemplateRegistry.Detection unknown = registry.detect("Register : RA2211003010123");
+
+        assertEquals("vit", vitFront.template.getName());
+        assertEquals(5, vitFront.frontScore);
+        assertEquals(0, vitFront.backScore);
+        assertEquals("srm", unknown.template.getName());
+        assertEquals(2, unknown.frontScore);
+    }
+
+    @Test
+    void templateLabelsPatternsAndFormatsAreUsed() {
+        IDCardParserService parser = new IDCardParserService(
+                new CardTemplateRegistry(List.of(CardTemplate.srm(), vit())));
+
+        IDCardData data = parser.parseIDCardText("VIT UNIVERSITY\nRoll No : 21BCE1034\nBranch : CSE\nStudent : ANITA ROY");
+
+        assertEquals("FRONT", data.getCardType());
+        assertEquals("VIT UNIVERSITY", data.getInstitution());
+        assertEquals("ANITA ROY", data.getName());
+        assertEquals("CSE", data.getProgramme());
+        assertEquals("21BCE1034", data.getRegisterNumber());
+        assertEquals("21BCE1034", parser.parseRegisterNumberRegion("21 BCE 1034"));
+    }
+}
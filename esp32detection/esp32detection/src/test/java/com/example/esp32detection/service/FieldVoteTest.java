@@ -0,0 +1,46 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.IDCardData;
+
+class FieldVoteTest {
+
+    @Test
+    void majorityWinsPerField() {
+        FieldVote vote = new FieldVote();
+        vote.add(card("RA2211003010123", "John Doe"));
+        vote.add(card("RA2211003O10123", "JOHN  DOE"));
+        vote.add(card("RA2211003010123", "Jonn Doe"));
+
+        IDCardData fused = vote.fuse();
+
+        assertEquals("RA2211003010123", fused.getRegisterNumber());
+        assertEquals(2, vote.agreement(FieldVote.REGISTER_NUMBER));
+        // Case and spacing differences count as the same reading; first spelling is kept
+        assertEquals("John Doe", fused.getName());
+        assertEquals(2, vote.agreement(FieldVote.NAME));
+        assertEquals(3, vote.getFrames());
+    }
+
+    @Test
+    void emptyFieldsDoNotVote() {
+        FieldVote vote = new FieldVote();
+        vote.add(card("", null));
+        vote.add(card("RA2211003010123", " "));
+
+        assertEquals(1, vote.agreement(FieldVote.REGISTER_NUMBER));
+        assertEquals(0, vote.agreement(FieldVote.NAME));
+        assertNull(vote.fuse().getName());
+    }
+
+    private static IDCardData card(String registerNumber, String name) {
+        IDCardData card = new IDCardData();
+        card.setRegisterNumber(registerNumber);
+        card.setName(name);
+        return card;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.Kernel;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.service.FrameQuality.Reason;
+
+class FrameQualityGateTest {
+
+    private final FrameQualityGate gate = new FrameQualityGate(true, 128, 40, 0.35, 40, 60);
+
+    @Test
+    void sharpFrameIsAccepted() {
+        BufferedImage frame = ImagePreprocessorTest.cardFrame(1600, 1000, BufferedImage.TYPE_3BYTE_BGR, 0);
+
+        assertEquals(Reason.OK, gate.assess(frame).getReason());
+    }
+
+    @Test
+    void blurredFrameIsRejected() {
+        BufferedImage frame = ImagePreprocessorTest.cardFrame(1600, 1000, BufferedImage.TYPE_3BYTE_BGR, 0);
+        float[] box = new float[81];
+        Arrays.fill(box, 1f / box.length);
+        BufferedImage blurred = new ConvolveOp(new Kernel(9, 9, box), ConvolveOp.EDGE_NO_OP, null).filter(frame, null);
+
+        FrameRejectedException e = assertThrows(FrameRejectedException.class, () -> gate.check(blurred));
+        assertEquals(Reason.BLURRY, e.getQuality().getReason());
+    }
+
+    @Test
+    void exposureProblemsAreReportedBeforeBlur() {
+        assertEquals(Reason.OVEREXPOSED, gate.assess(filled(new Color(255, 255, 255))).getReason());
+        assertEquals(Reason.UNDEREXPOSED, gate.assess(filled(new Color(15, 15, 20))).getReason());
+        assertEquals(Reason.LOW_CONTRAST, gate.assess(filled(new Color(128, 128, 128))).getReason());
+    }
+
+    @Test
+    void disabledGateLetsEverythingThrough() throws Exception {
+        new FrameQualityGate(false, 128, 40, 0.35, 40, 60).check(filled(Color.WHITE));
+    }
+
+    private static BufferedImage filled(Color color) {
+        BufferedImage frame = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, frame.getWidth(), frame.getHeight());
+        g.dispose();
+        return frame;
+    }
+}
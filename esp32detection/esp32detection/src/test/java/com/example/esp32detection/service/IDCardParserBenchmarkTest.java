@@ -0,0 +1,85 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import com.example.esp32detection.model.IDCardData;
+
+/**
+ * Throughput of parseIDCardText over the OCR sample corpus. Prints parses per second
+ * and per-parse allocation; only correctness is asserted. The timed run is skipped
+ * unless -Dbenchmarks=true (mvn test -Pbenchmarks).
+ */
+class IDCardParserBenchmarkTest {
+
+    static final String[] SAMPLES = {
+        "front-clean", "front-noisy", "front-split", "front-lowercase", "front-garbled",
+        "front-glued", "back-clean", "back-noisy", "back-minimal", "back-labels"
+    };
+
+    private static final int WARMUP_ROUNDS = 500;
+    private static final int MEASURED_ROUNDS = 2000;
+
+    @Test
+    void parsesSampleCorpus() throws IOException {
+        IDCardParserService parser = new IDCardParserService();
+
+        IDCardData front = parser.parseIDCardText(sample("front-clean"));
+        IDCardData back = parser.parseIDCardText(sample("back-clean"));
+
+        assertEquals("FRONT", front.getCardType());
+        assertEquals("RA221100301012", front.getRegisterNumber());
+        assertEquals("BACK", back.getCardType());
+        assertEquals("600040", back.getPin());
+    }
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void measureParseThroughput() throws Exception {
+        IDCardParserService parser = new IDCardParserService();
+        List<String> corpus = corpus();
+        // Console logging would dominate the measurement
+        Logger parserLogger = (Logger) LoggerFactory.getLogger(IDCardParserService.class);
+        Level previousLevel = parserLogger.getLevel();
+        parserLogger.setLevel(Level.WARN);
+        try {
+            Benchmark.run("parseIDCardText", WARMUP_ROUNDS, MEASURED_ROUNDS, corpus.size(), () -> {
+                for (String text : corpus) {
+                    parser.parseIDCardText(text);
+                }
+            });
+        } finally {
+            parserLogger.setLevel(previousLevel);
+        }
+    }
+
+    static List<String> corpus() throws IOException {
+        List<String> corpus = new ArrayList<>();
+        for (String name : SAMPLES) {
+            corpus.add(sample(name));
+        }
+        return corpus;
+    }
+
+    static String sample(String name) throws IOException {
+        try (InputStream in = IDCardParserBenchmarkTest.class.getResourceAsStream("/ocr-samples/" + name + ".txt")) {
+            assertNotNull(in, "missing sample " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import com.example.esp32detection.model.IDCardData;
+
+/**
+ * Every field parsed from the OCR sample corpus against golden.properties, plus a
+ * bound on how long hostile input can keep the parser busy.
+ */
+class IDCardParserGoldenTest {
+
+    private static final Map<String, Function<IDCardData, String>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("cardType", IDCardData::getCardType);
+        FIELDS.put("name", IDCardData::getName);
+        FIELDS.put("programme", IDCardData::getProgramme);
+        FIELDS.put("registerNumber", IDCardData::getRegisterNumber);
+        FIELDS.put("validFrom", IDCardData::getValidFrom);
+        FIELDS.put("validTo", IDCardData::getValidTo);
+        FIELDS.put("bloodGroup", IDCardData::getBloodGroup);
+        FIELDS.put("dateOfBirth", IDCardData::getDateOfBirth);
+        FIELDS.put("address", IDCardData::getAddress);
+        FIELDS.put("pin", IDCardData::getPin);
+        FIELDS.put("permanentContact", IDCardData::getPermanentContact);
+        FIELDS.put("emergencyContact", IDCardData::getEmergencyContact);
+        FIELDS.put("email", IDCardData::getEmail);
+    }
+
+    private static final long MAX_PARSE_MILLIS = 200;
+
+    @Test
+    void sampleCorpusMatchesGoldenValues() throws IOException {
+        IDCardParserService parser = new IDCardParserService();
+        Properties golden = golden();
+
+        for (String sample : IDCardParserBenchmarkTest.SAMPLES) {
+            IDCardData data = parser.parseIDCardText(IDCardParserBenchmarkTest.sample(sample));
+            for (Map.Entry<String, Function<IDCardData, String>> field : FIELDS.entrySet()) {
+                String key = sample + "." + field.getKey();
+                assertEquals(golden.getProperty(key), field.getValue().apply(data), key);
+            }
+        }
+    }
+
+    @Test
+    void gluedAndCaseNoisyLabelsAreTokenized() {
+        OcrTokenizer.Tokens tokens = OcrTokenizer.tokenize("TECHNOLOGYName : X ValidTo RegisTER No");
+
+        assertEquals(1, tokens.labelled(OcrTokenizer.Label.NAME).size());
+        assertEquals(1, tokens.labelled(OcrTokenizer.Label.VALID).size());
+        assertEquals(1, tokens.labelled(OcrTokenizer.Label.TO).size());
+        assertEquals(1, tokens.labelled(OcrTokenizer.Label.REGISTER).size());
+        assertTrue(OcrTokenizer.tokenize("Spin 600040").labelled(OcrTokenizer.Label.PIN).isEmpty());
+    }
+
+    @Test
+    void repetitiveInputParsesInBoundedTime() {
+        IDCardParserService parser = new IDCardParserService();
+        Logger parserLogger = (Logger) LoggerFactory.getLogger(IDCardParserService.class);
+        Level previousLevel = parserLogger.getLevel();
+        parserLogger.setLevel(Level.WARN);
+        String[] hostile = {
+            "Date of Birth 1-".repeat(2048),
+            "Address ".repeat(4096),
+            "Programme ".repeat(3276),
+            "Name : A ".repeat(3640)
+        };
+
+        try {
+            for (String text : hostile) {
+                parser.parseIDCardText(text);
+            }
+            for (String text : hostile) {
+                long start = System.nanoTime();
+                parser.parseIDCardText(text);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                assertTrue(millis < MAX_PARSE_MILLIS,
+                        text.substring(0, 16) + "... took " + millis + " ms");
+            }
+        } finally {
+            parserLogger.setLevel(previousLevel);
+        }
+    }
+
+    private static Properties golden() throws IOException {
+        try (InputStream in = IDCardParserGoldenTest.class.getResourceAsStream("/ocr-samples/golden.properties")) {
+            assertNotNull(in, "missing golden.properties");
+            Properties golden = new Properties();
+            golden.load(in);
+            return golden;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.esp32detection.model.CardRegion;
+import com.example.esp32detection.model.IDCardData;
+import com.example.esp32detection.model.OcrResult;
+
+import net.sourceforge.tess4j.TesseractException;
+
+class IDCardServiceTest {
+
+    private static final OcrStage STAGE = OcrStage.parseAll("fast:OTSU:0:0:2000").get(0);
+
+    private final IDCardParserService parser = new IDCardParserService();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @FunctionalInterface
+    private interface Side {
+        String read(String profile) throws IOException, TesseractException, InterruptedException;
+    }
+
+    /**
+     * A cascade whose reads are scripted per side; the front is read with the
+     * register-full profile and the back with back-side.
+     */
+    private OcrCascade cascade(Side side) {
+        return new OcrCascade(null, parser, "fast:OTSU:0:0:2000", "registerNumber", "dateOfBirth", 0, 0) {
+            @Override
+            public Result read(CardFrame frame, String profile) throws IOException, TesseractException {
+                try {
+                    OcrResult ocrResult = new OcrResult(side.read(profile), null);
+                    return new Result(parser.parseIDCardText(ocrResult), ocrResult, STAGE, List.of());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TesseractException("interrupted", e);
+                }
+            }
+        };
+    }
+
+    private IDCardService service(OcrCascade cascade, long timeoutMs) {
+        return new IDCardService(null, cascade, parser, null, null, null, executor,
+                timeoutMs, 8, 2, 2, 30_000, 60, 90);
+    }
+
+    /**
+     * Login OCR whose barcode carries the given number and whose template regions
+     * read the given register number and name.
+     */
+    private static OCRService loginReads(String barcode, String registerNumber, String name) {
+        return new OCRService(null, null, null, null, null, null,
+                "0.25,0.58,0.72,0.14", "A", "0.25,0.38,0.72,0.14", "A") {
+            @Override
+            public String readBarcode(CardFrame frame) {
+                return barcode;
+            }
+
+            @Override
+            public OcrResult recognizeLoginFields(CardFrame frame) {
+                return new OcrResult(registerNumber + "\n" + name, null, Map.of(
+                        OCRService.FIELD_REGISTER_NUMBER, registerNumber, OCRService.FIELD_NAME, name));
+            }
+        };
+    }
+
+    private IDCardService loginService(OCRService ocrService) {
+        RegisterNumberIndex index = new RegisterNumberIndex(null, "O0QD,I1LT,Z2,S5,B8,G6,A4", 1, 3, 2);
+        IDCardData card = new IDCardData();
+        card.setId(7L);
+        card.setRegisterNumber("RA221100301012");
+        card.setName("Priya Sharma");
+        index.put(card);
+        return new IDCardService(ocrService, cascade(profile -> ""), parser, null, index, new NameMatcher(0.6, 3),
+                executor, 10_000, 8, 2, 2, 30_000, 60, 90);
+    }
+
+    @Test
+    void barcodeLoginStillChecksTheName() {
+        IDCardService service = loginService(loginReads("RA221100301012", "RA221100301012", "Priya Sharma"));
+
+        Map<String, Object> body = service.login(new byte[] { 1 }).getBody();
+
+        assertEquals("BARCODE", body.get("ocrMode"));
+        assertEquals(true, body.get("authenticated"));
+        executor.shutdownNow();
+    }
+
+    @Test
+    void barcodeOfAnotherHolderDoesNotLogIn() {
+        IDCardService service = loginService(loginReads("RA221100301012", "RA221100301012", "Rahul Verma"));
+
+        ResponseEntity<Map<String, Object>> response = service.login(new byte[] { 1 });
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertEquals("ROI", response.getBody().get("ocrMode"));
+        assertEquals(false, response.getBody().get("authenticated"));
+        assertEquals(1L, service.getLoginMetrics().get("barcodeNameMismatch"));
+        executor.shutdownNow();
+    }
+
+    private static boolean isFront(String profile) {
+        return OcrProfiles.REGISTER_FULL.equals(profile);
+    }
+
+    @Test
+    void bothSidesAreReadAtOnceAndMerged() throws Exception {
+        // Each side waits for the other, so reading them one after the other would time out
+        CyclicBarrier together = new CyclicBarrier(2);
+        IDCardService service = service(cascade(profile -> {
+            try {
+                together.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IOException("sides were not read in parallel", e);
+            }
+            return IDCardParserBenchmarkTest.sample(isFront(profile) ? "front-clean" : "back-clean");
+        }), 10_000);
+
+        try {
+            IDCardData merged = service.parseBothSides(new byte[] { 1 }, new byte[] { 2 }, new ConcurrentHashMap<>());
+
+            assertEquals("RA221100301012", merged.getRegisterNumber());
+            assertTrue(merged.getBloodGroup() != null && !merged.getBloodGroup().isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void timeoutCancelsBothSides() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(2);
+        IDCardService service = service(cascade(profile -> {
+            // Both sides are running by the time the 100 ms deadline passes
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "";
+        }), 100);
+
+        try {
+            Map<String, CardRegion> cropBoxes = new ConcurrentHashMap<>();
+            assertThrows(TimeoutException.class,
+                    () -> service.parseBothSides(new byte[] { 1 }, new byte[] { 2 }, cropBoxes));
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS), "both sides were cancelled");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failureOfOneSideCancelsTheOther() throws Exception {
+        CountDownLatch backStarted = new CountDownLatch(1);
+        CountDownLatch backCancelled = new CountDownLatch(1);
+        IDCardService service = service(cascade(profile -> {
+            if (isFront(profile)) {
+                backStarted.await(5, TimeUnit.SECONDS);
+                throw new IOException("Unsupported or corrupt image");
+            }
+            backStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                backCancelled.countDown();
+                throw e;
+            }
+            return "";
+        }), 10_000);
+
+        try {
+            long start = System.nanoTime();
+            IOException failure = assertThrows(IOException.class,
+                    () -> service.parseBothSides(new byte[] { 1 }, new byte[] { 2 }, new ConcurrentHashMap<>()));
+
+            assertEquals("Unsupported or corrupt image", failure.getMessage());
+            assertTrue(backCancelled.await(5, TimeUnit.SECONDS), "back side was cancelled");
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Compares the old temp-file ingest path with in-memory decoding of upload bytes.
+ * Prints latency and per-thread allocation; only correctness is asserted. The timed
+ * run is skipped unless -Dbenchmarks=true (mvn test -Pbenchmarks).
+ */
+class ImageIngestBenchmarkTest {
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 100;
+
+    @Test
+    void inMemoryDecodeMatchesTempFilePath() throws IOException {
+        byte[] upload = sampleCardJpeg();
+
+        BufferedImage fromDisk = decodeViaTempFile(upload);
+        BufferedImage fromMemory = OCRService.decodeImage(upload);
+
+        assertEquals(fromDisk.getWidth(), fromMemory.getWidth());
+        assertEquals(fromDisk.getHeight(), fromMemory.getHeight());
+        assertEquals(fromDisk.getRGB(100, 100), fromMemory.getRGB(100, 100));
+    }
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void compareTempFileAndInMemoryIngest() throws Exception {
+        byte[] upload = sampleCardJpeg();
+
+        Benchmark.run("temp-file ingest", WARMUP, ITERATIONS, 1, () -> decodeViaTempFile(upload));
+        Benchmark.run("in-memory ingest", WARMUP, ITERATIONS, 1, () -> OCRService.decodeImage(upload));
+    }
+
+    // Mirrors the original createTempFile + transferTo + ImageIO.read(File) path
+    private static BufferedImage decodeViaTempFile(byte[] upload) throws IOException {
+        Path tempFile = Files.createTempFile("id-card-", ".jpg");
+        try {
+            Files.write(tempFile, upload);
+            return ImageIO.read(tempFile.toFile());
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static byte[] sampleCardJpeg() throws IOException {
+        BufferedImage card = new BufferedImage(1600, 1000, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = card.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, card.getWidth(), card.getHeight());
+        g.setColor(Color.BLACK);
+        g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 48));
+        g.drawString("SRM INSTITUTE OF SCIENCE & TECHNOLOGY", 80, 150);
+        g.drawString("Name : JOHN DOE", 80, 400);
+        g.drawString("Register No. : RA2211003010123", 80, 500);
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(card, "jpg", out);
+        return out.toByteArray();
+    }
+}
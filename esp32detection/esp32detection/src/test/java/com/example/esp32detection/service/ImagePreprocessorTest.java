@@ -0,0 +1,77 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class ImagePreprocessorTest {
+
+    @Test
+    void largeFrameIsDownscaledToTargetDpiAndBinarized() {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(300, ImagePreprocessor.Binarization.SAUVOLA, 25, 0.34, false, 5, new CardLocator(false, 0.2));
+
+        GrayImage result = preprocessor.process(cardFrame(2000, 1260, BufferedImage.TYPE_3BYTE_BGR, 0));
+
+        assertEquals((int) Math.round(300 * ImagePreprocessor.CARD_WIDTH_INCHES), result.getWidth());
+        assertEquals(300, result.getDpi());
+        byte[] pixels = result.getPixels();
+        for (int i = 0; i < result.getWidth() * result.getHeight(); i++) {
+            int value = pixels[i] & 0xFF;
+            assertTrue(value == 0 || value == 255, "pixel " + i + " is not binary: " + value);
+        }
+    }
+
+    @Test
+    void luminanceMatchesAcrossRasterLayouts() {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(300, ImagePreprocessor.Binarization.NONE, 25, 0.34, false, 5, new CardLocator(false, 0.2));
+
+        int[] layouts = { BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_4BYTE_ABGR };
+        byte[] reference = null;
+        for (int layout : layouts) {
+            GrayImage gray = preprocessor.process(cardFrame(800, 500, layout, 0));
+            byte[] pixels = Arrays.copyOf(gray.getPixels(), gray.getWidth() * gray.getHeight());
+            if (reference == null) {
+                reference = pixels;
+            } else {
+                assertTrue(Arrays.equals(reference, pixels), "layout " + layout + " differs");
+            }
+        }
+    }
+
+    @Test
+    void otsuSplitsBimodalHistogram() {
+        GrayImage image = new GrayImage().reset(10, 10);
+        byte[] pixels = image.getPixels();
+        for (int i = 0; i < 100; i++) {
+            pixels[i] = (byte) (i < 30 ? 40 : 220);
+        }
+
+        int threshold = ImagePreprocessor.otsuThreshold(image, new int[256]);
+
+        assertTrue(threshold >= 40 && threshold < 220, "threshold " + threshold);
+    }
+
+    static BufferedImage cardFrame(int width, int height, int type, double skewDegrees) {
+        BufferedImage frame = new BufferedImage(width, height, type);
+        Graphics2D g = frame.createGraphics();
+        g.setColor(new Color(235, 235, 230));
+        g.fillRect(0, 0, width, height);
+        g.rotate(Math.toRadians(skewDegrees), width / 2.0, height / 2.0);
+        g.setColor(new Color(20, 20, 60));
+        g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, height / 16));
+        String[] lines = { "SRM INSTITUTE OF SCIENCE & TECHNOLOGY", "Name : JOHN DOE",
+                "Programme : B.Tech (CSE)", "Register No. : RA2211003010123", "Valid From : Aug-2022" };
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], width / 20, height / 5 + i * height / 7);
+        }
+        g.dispose();
+        return frame;
+    }
+}
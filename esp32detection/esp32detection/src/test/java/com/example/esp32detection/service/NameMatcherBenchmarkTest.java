@@ -0,0 +1,65 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Cost of preparing name keys for a large user set and of scoring a scanned name
+ * against every one of them. Prints keys and scores per second and allocation per
+ * score; only that the true record scores best is asserted. Skipped unless
+ * -Dbenchmarks=true (mvn test -Pbenchmarks).
+ */
+class NameMatcherBenchmarkTest {
+
+    private static final String[] GIVEN = {
+        "ANITA", "RAHUL", "PRIYA", "ARJUN", "KAVYA", "VIKRAM", "DIVYA", "KARTHIK", "MEERA", "SURESH",
+        "LAKSHMI", "ARAVIND", "DEEPA", "GANESH", "NISHA", "PRAKASH", "REVATHI", "SANJAY", "SWATHI", "VIJAY"
+    };
+    private static final String[] FAMILY = {
+        "ROY", "SHARMA", "IYER", "NAIR", "REDDY", "KUMAR", "PILLAI", "MENON", "RAO", "GUPTA",
+        "KRISHNAN", "SUBRAMANIAN", "VENKATESH", "CHANDRAN", "NARAYANAN", "MURTHY", "BHAT", "DAS", "JOSHI", "SINGH"
+    };
+
+    private static final int USERS = 100_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void measureKeyAndScoreThroughput() throws Exception {
+        Random random = new Random(19);
+        String[] names = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            names[i] = GIVEN[random.nextInt(GIVEN.length)] + " " + FAMILY[random.nextInt(FAMILY.length)]
+                    + " " + (char) ('A' + random.nextInt(26)) + FAMILY[random.nextInt(FAMILY.length)].toLowerCase();
+        }
+
+        NameKey[] keys = new NameKey[USERS];
+        Benchmark.run("NameKey.of", 0, 1, USERS, () -> {
+            for (int i = 0; i < USERS; i++) {
+                keys[i] = NameKey.of(names[i]);
+            }
+        });
+
+        int target = random.nextInt(USERS);
+        NameKey scanned = NameKey.of(names[target].replace('I', '1').replace('O', '0'));
+
+        Benchmark.run("NameMatcher.score", WARMUP_ROUNDS, MEASURED_ROUNDS, USERS, () -> best(keys, scanned));
+        assertEquals(1.0, NameMatcher.score(keys[target], scanned));
+        assertEquals(1.0, best(keys, scanned));
+    }
+
+    private static double best(NameKey[] keys, NameKey scanned) {
+        double best = 0;
+        for (NameKey key : keys) {
+            best = Math.max(best, NameMatcher.score(key, scanned));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class NameMatcherTest {
+
+    private final NameMatcher matcher = new NameMatcher(0.6, 3);
+
+    @Test
+    void nameIsNormalizedAndOcrDigitsTurnBackIntoLetters() {
+        assertEquals("ANITA ROY", NameKey.of("  anita.r0y ").getNormalized());
+        assertEquals("ISHA", NameKey.of("|5HA").getNormalized());
+    }
+
+    @Test
+    void soundexFollowsTheStandardCodes() {
+        assertEquals(NameKey.soundex("ROBERT"), NameKey.soundex("RUPERT"));
+        assertEquals('A' - 'A' + 1, NameKey.soundex("ASHCRAFT") / 1000);
+        assertEquals(261, NameKey.soundex("ASHCRAFT") % 1000);
+        assertEquals(NameKey.soundex("MOHAMMED"), NameKey.soundex("MUHAMMAD"));
+    }
+
+    @Test
+    void partialAndMisreadNamesMatch() {
+        NameKey registered = NameKey.of("Anita Roy Kumari");
+
+        assertTrue(matcher.matches(registered, "ANITA ROY KUMARI"));
+        assertTrue(matcher.matches(registered, "Anita"));
+        assertTrue(matcher.matches(registered, "AN1TA R0Y"));
+        assertTrue(matcher.matches(NameKey.of("MOHAMMED ASIF"), "MUHAMMAD ASIF"));
+    }
+
+    @Test
+    void otherPeopleAndTooLittleTextDoNotMatch() {
+        NameKey registered = NameKey.of("ANITA ROY");
+
+        assertFalse(matcher.matches(registered, "RAHUL SHARMA"));
+        assertFalse(matcher.matches(registered, "ANITA SHARMA"));
+        assertFalse(matcher.matches(registered, "AN"));
+        assertFalse(matcher.matches(registered, null));
+        assertFalse(matcher.matches(NameKey.of(null), "ANITA ROY"));
+    }
+}
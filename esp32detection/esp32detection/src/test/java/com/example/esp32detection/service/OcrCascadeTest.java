@@ -0,0 +1,119 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.OcrResult;
+
+import net.sourceforge.tess4j.TesseractException;
+
+class OcrCascadeTest {
+
+    private static final String STAGES = "fast:OTSU:200:6:100,sauvola:SAUVOLA:300:6:100,sparse:SAUVOLA:300:11:100";
+
+    /**
+     * OCR that answers each profile and stage from a fixed script; a null text is a
+     * stage timeout.
+     */
+    private static OCRService scripted(Map<String, String> textByStage) {
+        return new OCRService(null, null, null, null, null, null,
+                "0.25,0.58,0.72,0.14", "A", "0.25,0.38,0.72,0.14", "A") {
+            @Override
+            public OcrResult recognizeIDCard(CardFrame frame, String profile, OcrStage stage) throws TesseractException {
+                String text = textByStage.get(profile + "/" + stage.getName());
+                if (text == null) {
+                    throw new OcrTimeoutException("stage " + stage.getName() + " timed out");
+                }
+                return new OcrResult(text, null);
+            }
+        };
+    }
+
+    private static OcrCascade cascade(Map<String, String> textByStage) {
+        return new OcrCascade(scripted(textByStage), new IDCardParserService(), STAGES, "registerNumber,name", "dateOfBirth", 0, 0);
+    }
+
+    @Test
+    void laterStagesRunOnlyWhileRequiredFieldsAreMissing() throws IOException, TesseractException {
+        OcrCascade cascade = cascade(Map.of(
+                "register-full/fast", IDCardParserBenchmarkTest.sample("front-garbled"),
+                "register-full/sauvola", IDCardParserBenchmarkTest.sample("front-clean"),
+                "register-full/sparse", IDCardParserBenchmarkTest.sample("front-clean")));
+
+        OcrCascade.Result result = cascade.read(new CardFrame(new byte[] { 1 }), OcrProfiles.REGISTER_FULL);
+
+        assertEquals("sauvola", result.getStage().getName());
+        assertEquals(List.of(), result.getMissing());
+        assertEquals("RA221100301012", result.getData().getRegisterNumber());
+        assertEquals(0L, stageMetric(cascade, "sparse", "reached"));
+        assertEquals(1L, stageMetric(cascade, "fast", "reached"));
+    }
+
+    @Test
+    void timedOutStageMovesOnAndBestIncompleteReadIsKept() throws IOException, TesseractException {
+        OcrCascade cascade = cascade(Map.of(
+                "login-fast/sauvola", IDCardParserBenchmarkTest.sample("front-lowercase"),
+                "login-fast/sparse", IDCardParserBenchmarkTest.sample("front-garbled")));
+
+        OcrCascade.Result result = cascade.read(new CardFrame(new byte[] { 1 }), OcrProfiles.LOGIN_FAST);
+
+        assertEquals("sauvola", result.getStage().getName());
+        assertEquals(List.of("name"), result.getMissing());
+        assertEquals(1L, stageMetric(cascade, "fast", "timedOut"));
+        assertEquals(1L, cascade.getMetrics().get("incomplete"));
+    }
+
+    @Test
+    void everyStageTimingOutIsReported() {
+        OcrCascade cascade = cascade(Map.of());
+
+        assertThrows(OcrTimeoutException.class, () -> cascade.read(new CardFrame(new byte[] { 1 }), OcrProfiles.BACK_SIDE));
+    }
+
+    @Test
+    void stagesShareTheLoginDeadline() throws IOException, TesseractException {
+        String garbled = IDCardParserBenchmarkTest.sample("front-garbled");
+        List<Integer> timeouts = new CopyOnWriteArrayList<>();
+        OCRService slow = new OCRService(null, null, null, null, null, null,
+                "0.25,0.58,0.72,0.14", "A", "0.25,0.38,0.72,0.14", "A") {
+            @Override
+            public OcrResult recognizeIDCard(CardFrame frame, String profile, OcrStage stage) throws TesseractException {
+                timeouts.add(stage.getTimeoutMs());
+                try {
+                    Thread.sleep(80);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new OcrResult(garbled, null);
+            }
+        };
+        OcrCascade cascade = new OcrCascade(slow, new IDCardParserService(), STAGES, "registerNumber,name", "dateOfBirth",
+                10_000, 120);
+
+        OcrCascade.Result result = cascade.read(new CardFrame(new byte[] { 1 }), OcrProfiles.LOGIN_FAST);
+
+        // The third stage would start after the 120 ms login deadline
+        assertEquals(0L, stageMetric(cascade, "sparse", "reached"));
+        assertEquals(1L, cascade.getMetrics().get("deadlineStops"));
+        assertTrue(timeouts.stream().allMatch(timeout -> timeout <= 100), timeouts.toString());
+        assertEquals("fast", result.getStage().getName());
+    }
+
+    @Test
+    void malformedStageIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> OcrStage.parse("fast:OTSU:200:6"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object stageMetric(OcrCascade cascade, String stage, String metric) {
+        return ((Map<String, Object>) cascade.getMetrics().get(stage)).get(metric);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+class OcrJobServiceTest {
+
+    private static ResponseEntity<Map<String, Object>> ok() {
+        return ResponseEntity.ok(Map.of("status", "success"));
+    }
+
+    private static ResponseEntity<Map<String, Object>> blockOn(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ok();
+    }
+
+    @Test
+    void fullQueueRejectsWithARetryAfterHint() {
+        OcrJobService service = new OcrJobService(null, 1, 1, 60_000, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            service.submit("LOGIN", () -> blockOn(release));
+            service.submit("LOGIN", () -> blockOn(release));
+
+            assertThrows(RejectedExecutionException.class, () -> service.submit("LOGIN", OcrJobServiceTest::ok));
+            assertEquals(1L, service.getMetrics().get("rejected"));
+            long retryAfter = service.getRetryAfterSeconds();
+            assertTrue(retryAfter >= 1 && retryAfter <= 60, String.valueOf(retryAfter));
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void longPollReturnsAsSoonAsTheJobFinishes() {
+        OcrJobService service = new OcrJobService(null, 1, 4, 60_000, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            OcrJob job = service.submit("LOGIN", () -> blockOn(release));
+
+            // Still running: the poll gives up after the requested wait
+            long start = System.nanoTime();
+            assertEquals(job, service.await(job.getId(), 50));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+            assertNull(job.getResult());
+
+            new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                release.countDown();
+            }).start();
+            start = System.nanoTime();
+            OcrJob done = service.await(job.getId(), 5000);
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4));
+            assertEquals(OcrJob.State.DONE, done.getState());
+            assertNotNull(done.getResult());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void expiredJobIsGoneOnRead() throws InterruptedException {
+        OcrJobService service = new OcrJobService(null, 1, 4, 20, 1000);
+        try {
+            OcrJob job = service.submit("LOGIN", OcrJobServiceTest::ok);
+            assertEquals(OcrJob.State.DONE, service.await(job.getId(), 1000).getState());
+
+            Thread.sleep(40);
+            assertNull(service.await(job.getId(), 0));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void finishedJobsArePurgedWithoutFurtherSubmissions() throws InterruptedException {
+        OcrJobService service = new OcrJobService(null, 1, 4, 20, 1000);
+        try {
+            OcrJob job = service.submit("LOGIN", OcrJobServiceTest::ok);
+            service.await(job.getId(), 1000);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (service.size() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, service.size());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
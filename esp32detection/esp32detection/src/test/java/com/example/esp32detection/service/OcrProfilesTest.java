@@ -0,0 +1,71 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+class OcrProfilesTest {
+
+    private final Path tessdata;
+
+    OcrProfilesTest() throws Exception {
+        tessdata = Files.createTempDirectory("tessdata");
+        tessdata.toFile().deleteOnExit();
+        Files.createDirectories(tessdata.resolve("fast")).toFile().deleteOnExit();
+    }
+
+    private StandardEnvironment environment() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("ocr.tessdata-path", tessdata.toString());
+        properties.put("ocr.language", "eng");
+        properties.put("ocr.page-seg-mode", "6");
+        properties.put("ocr.dpi", "300");
+        properties.put("ocr.tessdata.fast", tessdata.resolve("fast").toString());
+        properties.put("ocr.tessdata.best", tessdata.resolve("best").toString());
+        properties.put("ocr.profiles", "login-fast, back-side");
+        properties.put("ocr.profile.login-fast.variant", "fast");
+        properties.put("ocr.profile.login-fast.dpi", "200");
+        properties.put("ocr.profile.back-side.variant", "best");
+        properties.put("ocr.profile.back-side.psm", "4");
+        properties.put("ocr.profile.back-side.whitelist", "ABC 0123");
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        return environment;
+    }
+
+    @Test
+    void profileOverridesOnlyWhatItSets() {
+        OcrProfile login = new OcrProfiles(environment()).get(OcrProfiles.LOGIN_FAST);
+
+        assertEquals(tessdata.resolve("fast").toString(), login.getDatapath());
+        assertEquals("eng", login.getLanguage());
+        assertEquals(200, login.getDpi());
+        assertEquals(6, login.getPageSegMode());
+        assertEquals("", login.getWhitelist());
+    }
+
+    @Test
+    void missingVariantFallsBackToTheBaseTraineddata() {
+        OcrProfile back = new OcrProfiles(environment()).get(OcrProfiles.BACK_SIDE);
+
+        assertEquals(tessdata.toString(), back.getDatapath());
+        assertEquals(4, back.getPageSegMode());
+        assertEquals("ABC 0123", back.getWhitelist());
+    }
+
+    @Test
+    void unconfiguredProfileUsesTheBaseSettings() {
+        OcrProfiles profiles = new OcrProfiles(environment());
+
+        assertEquals(profiles.getDefault(), profiles.get(OcrProfiles.REGISTER_FULL));
+        assertEquals(300, profiles.get("unknown").getDpi());
+    }
+}
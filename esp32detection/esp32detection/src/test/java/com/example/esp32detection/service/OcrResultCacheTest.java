@@ -0,0 +1,88 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.OcrResult;
+
+class OcrResultCacheTest {
+
+    @Test
+    void identicalBytesAreServedFromCache() throws Exception {
+        OcrResultCache cache = new OcrResultCache(8, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("id-card", new byte[] { 1, 2, 3 }, () -> new OcrResult("text-" + loads.incrementAndGet(), null));
+        OcrResult second = cache.get("id-card", new byte[] { 1, 2, 3 }, () -> new OcrResult("text-" + loads.incrementAndGet(), null));
+
+        assertEquals("text-1", second.getText());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() throws Exception {
+        OcrResultCache cache = new OcrResultCache(2, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("id-card", new byte[] { 1 }, () -> new OcrResult("a" + loads.incrementAndGet(), null));
+        cache.get("id-card", new byte[] { 2 }, () -> new OcrResult("b" + loads.incrementAndGet(), null));
+        cache.get("id-card", new byte[] { 1 }, () -> new OcrResult("a" + loads.incrementAndGet(), null));
+        cache.get("id-card", new byte[] { 3 }, () -> new OcrResult("c" + loads.incrementAndGet(), null));
+        cache.get("id-card", new byte[] { 2 }, () -> new OcrResult("b" + loads.incrementAndGet(), null));
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() throws Exception {
+        OcrResultCache cache = new OcrResultCache(8, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("id-card", new byte[] { 1 }, () -> new OcrResult("a" + loads.incrementAndGet(), null));
+        Thread.sleep(5);
+        cache.get("id-card", new byte[] { 1 }, () -> new OcrResult("a" + loads.incrementAndGet(), null));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneLoad() throws Exception {
+        OcrResultCache cache = new OcrResultCache(8, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> cache.get("id-card", new byte[] { 9 }, () -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new OcrResult("shared", null);
+                }));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<?> future : futures) {
+                assertEquals("shared", ((OcrResult) future.get(5, TimeUnit.SECONDS)).getText());
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.IDCardData;
+
+class RegisterNumberIndexTest {
+
+    private static RegisterNumberIndex index(String... numbers) {
+        RegisterNumberIndex index = new RegisterNumberIndex(null, "O0QD,I1LT,Z2,S5,B8,G6,A4", 1, 3, 2);
+        long id = 1;
+        for (String number : numbers) {
+            index.put(card(id++, number));
+        }
+        return index;
+    }
+
+    private static IDCardData card(long id, String number) {
+        IDCardData card = new IDCardData();
+        card.setId(id);
+        card.setRegisterNumber(number);
+        return card;
+    }
+
+    @Test
+    void exactNumberIsFoundWithoutCorrection() {
+        RegisterNumberIndex index = index("RA2211003010123", "RA2211003010124");
+
+        RegisterNumberIndex.Match match = index.lookup("ra2211003010123").orElseThrow();
+
+        assertFalse(match.isCorrected());
+        assertEquals(1L, match.getCard().getId());
+        assertEquals(1L, index.getMetrics().get("exactHits"));
+    }
+
+    @Test
+    void confusedCharactersAreCorrectedToTheUniqueNearestNumber() {
+        RegisterNumberIndex index = index("RA2211003010123", "RA2211003010456");
+
+        RegisterNumberIndex.Match match = index.lookup("RA22I10O3010123").orElseThrow();
+
+        assertTrue(match.isCorrected());
+        assertEquals("RA2211003010123", match.getCard().getRegisterNumber());
+    }
+
+    @Test
+    void unrelatedDigitOrTieIsNoMatch() {
+        // 3 and 9 are not confusable, and X is as far from 2 as from 5
+        assertEquals(Optional.empty(), index("RA2211003010123").lookup("RA2211003010129"));
+
+        RegisterNumberIndex index = new RegisterNumberIndex(null, "O0QD,I1LT,Z2,S5,B8,G6,A4", 1, 3, 3);
+        index.put(card(1L, "RA2211003010123"));
+        index.put(card(2L, "RA2211003010153"));
+        assertEquals(Optional.empty(), index.lookup("RA22110030101X3"));
+        assertEquals(1L, index.getMetrics().get("ambiguous"));
+    }
+
+    @Test
+    void deletedAndRenumberedCardsLeaveTheIndex() {
+        RegisterNumberIndex index = index("RA2211003010123", "RA2211003010456");
+
+        index.remove(1L);
+        index.put(card(2L, "RA2211003010789"));
+
+        assertEquals(Optional.empty(), index.lookup("RA2211003010123"));
+        assertEquals(Optional.empty(), index.lookup("RA2211003010456"));
+        assertEquals(2L, index.lookup("RA22110030I0789").orElseThrow().getCard().getId());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void renumberedCardSurvivesTheRebuildItTriggers() {
+        String[] numbers = new String[200];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = String.format("RA22110030%05d", i);
+        }
+        RegisterNumberIndex index = index(numbers);
+        for (long id = 1; id <= 100; id++) {
+            index.remove(id);
+        }
+
+        // Its old number is the removal that tips the tree into a rebuild
+        index.put(card(150L, "RA2211003099999"));
+        assertEquals(150L, index.lookup("RA2211003099999").orElseThrow().getCard().getId());
+        assertEquals(100, index.size());
+
+        // The id still leads to the new number
+        index.remove(150L);
+        assertEquals(Optional.empty(), index.lookup("RA2211003099999"));
+        assertEquals(Optional.empty(), index.lookup("RA2211003000149"));
+        assertEquals(99, index.size());
+    }
+
+    @Test
+    void treeSearchAgreesWithScanningEveryNumber() {
+        Random random = new Random(18);
+        String[] numbers = new String[2000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = String.format("RA22110030%05d", random.nextInt(100_000));
+        }
+        RegisterNumberIndex index = index(numbers);
+        for (int i = 0; i < 600; i += 3) {
+            index.remove((long) i + 1);
+        }
+
+        for (int q = 0; q < 300; q++) {
+            char[] query = numbers[random.nextInt(numbers.length)].toCharArray();
+            int at = 2 + random.nextInt(query.length - 2);
+            query[at] = "0O1I5S8B".charAt(random.nextInt(8));
+            String read = new String(query);
+
+            String expected = null;
+            int best = Integer.MAX_VALUE;
+            int atBest = 0;
+            for (int i = 0; i < numbers.length; i++) {
+                if (i < 600 && i % 3 == 0) continue;
+                int cost = index.distance(read, numbers[i]);
+                if (cost < best) {
+                    best = cost;
+                    atBest = 1;
+                    expected = numbers[i];
+                } else if (cost == best && !numbers[i].equals(expected)) {
+                    atBest++;
+                }
+            }
+            String found = index.lookup(read).map(m -> m.getCard().getRegisterNumber()).orElse(null);
+            assertEquals(best <= 2 && atBest == 1 ? expected : null, found, read);
+        }
+    }
+
+    @Test
+    void overlappingConfusionClassesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RegisterNumberIndex(null, "O0,0D", 1, 3, 2));
+    }
+}
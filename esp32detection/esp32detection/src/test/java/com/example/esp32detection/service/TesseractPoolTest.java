@@ -0,0 +1,152 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TesseractPoolTest {
+
+    /**
+     * Stands in for native engines, counting how many exist at once.
+     */
+    private static final class CountingFactory implements TesseractPool.EngineFactory {
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger maxOpen = new AtomicInteger();
+        final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        public OcrEngine create(String datapath, String language) {
+            created.incrementAndGet();
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            return new OcrEngine(datapath, language) {
+                @Override
+                public void close() {
+                    open.decrementAndGet();
+                }
+            };
+        }
+    }
+
+    private static OcrProfile profile(String language) {
+        return new OcrProfile(language, "/tessdata", language, "", 6, 300);
+    }
+
+    @Test
+    void engineIsReusedAndMetricsCountAcquisitions() throws Exception {
+        CountingFactory factory = new CountingFactory();
+        TesseractPool pool = new TesseractPool(2, 1000, "/tessdata", "eng", factory);
+
+        OcrEngine first = pool.execute(engine -> engine);
+        OcrEngine second = pool.execute(engine -> engine);
+
+        assertSame(first, second);
+        assertEquals(1, factory.created.get());
+        Map<String, Object> metrics = pool.getMetrics();
+        assertEquals(2L, metrics.get("acquisitions"));
+        assertEquals(1, metrics.get("live"));
+        assertEquals(0, metrics.get("inUse"));
+    }
+
+    @Test
+    void busyPoolRejectsAfterTheAcquireTimeout() throws Exception {
+        TesseractPool pool = new TesseractPool(1, 50, "/tessdata", "eng", new CountingFactory());
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> holder = executor.submit(() -> pool.execute(engine -> {
+                holding.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertThrows(OcrPoolExhaustedException.class, () -> pool.execute(engine -> null));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+            assertEquals(1L, pool.getMetrics().get("rejections"));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            assertEquals("ok", pool.execute(engine -> "ok"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void anEngineIsNeverUsedByTwoThreadsAtOnce() throws Exception {
+        TesseractPool pool = new TesseractPool(3, 5000, "/tessdata", "eng", new CountingFactory());
+        Set<OcrEngine> busy = ConcurrentHashMap.newKeySet();
+        AtomicInteger overlaps = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                futures.add(executor.submit(() -> pool.execute(engine -> {
+                    if (!busy.add(engine)) overlaps.incrementAndGet();
+                    Thread.yield();
+                    busy.remove(engine);
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, overlaps.get());
+        assertTrue((int) pool.getMetrics().get("live") <= 3);
+    }
+
+    @Test
+    void enginesAcrossModelsNeverExceedThePoolSize() throws Exception {
+        CountingFactory factory = new CountingFactory();
+        TesseractPool pool = new TesseractPool(2, 5000, "/tessdata", "eng", factory);
+        List<OcrProfile> profiles = List.of(profile("eng"), profile("deu"), profile("fra"));
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 600; i++) {
+                OcrProfile profile = profiles.get(i % profiles.size());
+                futures.add(executor.submit(() -> pool.execute(profile, engine -> {
+                    Thread.yield();
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(factory.maxOpen.get() <= 2, "max open " + factory.maxOpen.get());
+        assertEquals(factory.open.get(), pool.getMetrics().get("live"));
+        assertTrue((long) pool.getMetrics().get("retired") > 0);
+    }
+}
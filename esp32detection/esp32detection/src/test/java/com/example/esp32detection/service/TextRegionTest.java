@@ -0,0 +1,39 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class TextRegionTest {
+
+    @Test
+    void fractionsMapToPixelRectangle() {
+        TextRegion region = TextRegion.parse("registerNumber", "0.25, 0.5, 0.5, 0.1", "0123456789");
+
+        assertArrayEquals(new int[] { 250, 300, 500, 60 }, region.toPixels(1000, 600));
+    }
+
+    @Test
+    void rectangleIsClampedToImage() {
+        TextRegion region = TextRegion.parse("name", "0.8,0.9,0.5,0.5", "");
+
+        assertArrayEquals(new int[] { 80, 90, 20, 10 }, region.toPixels(100, 100));
+    }
+
+    @Test
+    void malformedSpecIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TextRegion.parse("name", "0.1,0.2,0.3", ""));
+    }
+
+    @Test
+    void regionTextIsValidatedByParser() {
+        IDCardParserService parser = new IDCardParserService();
+
+        assertEquals("RA22110030", parser.parseRegisterNumberRegion(" ra2211 0030 "));
+        assertEquals("", parser.parseRegisterNumberRegion("NAME"));
+        assertEquals("John Doe", parser.parseNameRegion("Name  John   Doe"));
+        assertEquals("", parser.parseNameRegion("JD"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.User;
+import com.example.esp32detection.repository.UserRepository;
+
+class UserCacheTest {
+
+    /**
+     * Users held in a map, counting reads as the database would see them.
+     */
+    private static final class CountingRepository extends UserRepository {
+        final Map<String, User> users = new HashMap<>();
+        final AtomicInteger reads = new AtomicInteger();
+
+        CountingRepository() {
+            super(null);
+        }
+
+        @Override
+        public User findByIdNumber(String idNumber) {
+            reads.incrementAndGet();
+            User user = users.get(idNumber);
+            if (user == null) return null;
+            User copy = new User(user.getName(), user.getIdNumber());
+            copy.setStatus(user.getStatus());
+            return copy;
+        }
+
+        @Override
+        public int save(User user) {
+            users.put(user.getIdNumber(), user);
+            return users.size();
+        }
+
+        @Override
+        public int updateStatus(String idNumber, String status) {
+            users.get(idNumber).setStatus(status);
+            return 1;
+        }
+    }
+
+    @Test
+    void repeatedTapsAreServedFromCacheIncludingUnknownIds() {
+        CountingRepository repository = new CountingRepository();
+        repository.users.put("RA1", new User("ANITA ROY", "RA1"));
+        UserCache cache = new UserCache(repository, 100, 60_000, 60_000);
+
+        User first = cache.find("RA1");
+        assertSame(first, cache.find("RA1"));
+        assertNull(cache.find("RA9"));
+        assertNull(cache.find("RA9"));
+
+        assertEquals(2, repository.reads.get());
+        assertEquals(1L, cache.getMetrics().get("negativeHits"));
+    }
+
+    @Test
+    void blockingAndRegisteringAreSeenOnTheNextTap() {
+        CountingRepository repository = new CountingRepository();
+        repository.users.put("RA1", new User("ANITA ROY", "RA1"));
+        UserCache cache = new UserCache(repository, 100, 60_000, 60_000);
+        UserService users = new UserService(repository, cache);
+
+        assertEquals("ACTIVE", users.findByIdNumber("RA1").getStatus());
+        users.blockUser("RA1");
+        assertEquals("BLOCKED", users.findByIdNumber("RA1").getStatus());
+        users.activateUser("RA1");
+        assertEquals("ACTIVE", users.findByIdNumber("RA1").getStatus());
+
+        assertNull(users.findByIdNumber("RA2"));
+        users.registerUser("RAHUL", "RA2", "", "", "", "", "");
+        assertEquals("RAHUL", users.findByIdNumber("RA2").getName());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAndNegativeEntriesExpireSooner() throws InterruptedException {
+        CountingRepository repository = new CountingRepository();
+        UserCache cache = new UserCache(repository, 2, 60_000, 1);
+
+        cache.find("A");
+        cache.find("B");
+        cache.find("A");
+        cache.find("C");
+        assertEquals(2, cache.size());
+
+        Thread.sleep(5);
+        int reads = repository.reads.get();
+        cache.find("A");
+        assertEquals(reads + 1, repository.reads.get());
+    }
+}
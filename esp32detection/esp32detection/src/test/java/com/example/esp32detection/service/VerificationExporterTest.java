@@ -0,0 +1,150 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.Verification;
+import com.example.esp32detection.model.VerificationQuery;
+import com.example.esp32detection.repository.VerificationRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+class VerificationExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * Makes up rows as the cursor is read, so nothing but the exporter holds them.
+     */
+    private static final class GeneratedRepository extends VerificationRepository {
+        final int count;
+
+        GeneratedRepository(int count) {
+            super(null);
+            this.count = count;
+        }
+
+        @Override
+        public void forEach(VerificationQuery query, Consumer<Verification> action) {
+            for (int id = 1; id <= count; id++) {
+                action.accept(verification(id));
+            }
+        }
+    }
+
+    private static Verification verification(int id) {
+        Verification verification = new Verification("USER " + id, "RA" + id, 0.5, "DENIED");
+        verification.setId(id);
+        verification.setTimestamp(LocalDateTime.of(2026, 1, 1, 8, 0));
+        verification.setIdCardData("{\"name\":\"USER, " + id + "\"}");
+        return verification;
+    }
+
+    private VerificationExporter exporter(int count) {
+        return new VerificationExporter(new GeneratedRepository(count), objectMapper, 4096, 1, -1);
+    }
+
+    @Test
+    void exportBeyondTheLimitIsTurnedAway() {
+        VerificationExporter exporter = exporter(0);
+
+        VerificationExporter.Slot slot = exporter.tryAcquire();
+        assertNotNull(slot);
+        assertNull(exporter.tryAcquire());
+        assertEquals(1, exporter.getMetrics().get("running"));
+        assertEquals(1L, exporter.getMetrics().get("rejected"));
+
+        // The export and the request's completion both close the slot; it frees one place
+        slot.close();
+        slot.close();
+        assertEquals(0, exporter.getMetrics().get("running"));
+        assertNotNull(exporter.tryAcquire());
+        assertNull(exporter.tryAcquire());
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter(3).export(new VerificationQuery(), VerificationExporter.Format.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1, first.get("id").asInt());
+        assertEquals("RA1", first.get("idNumber").asText());
+        assertEquals("2026-01-01T08:00:00", first.get("timestamp").asText());
+    }
+
+    @Test
+    void csvQuotesFieldsWithCommasAndQuotes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter(1).export(new VerificationQuery(), VerificationExporter.Format.CSV, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(VerificationExporter.CSV_HEADER.trim(), lines[0]);
+        assertEquals("1,,USER 1,RA1,0.5,DENIED,2026-01-01T08:00,\"{\"\"name\"\":\"\"USER, 1\"\"}\"", lines[1]);
+    }
+
+    @Test
+    void gzippedExportOfManyRowsInflatesToEveryRow() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter(50_000).export(new VerificationQuery(), VerificationExporter.Format.CSV, true, out);
+
+        byte[] csv = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+        long lines = new String(csv, StandardCharsets.UTF_8).chars().filter(c -> c == '\n').count();
+        assertEquals(50_001, lines);
+        assertTrue(out.size() < csv.length / 4, "compressed to " + out.size() + " of " + csv.length);
+    }
+
+    @Test
+    void writesReachTheClientOneBufferAtATime() throws IOException {
+        int[] largestWrite = new int[1];
+        OutputStream client = new OutputStream() {
+            @Override
+            public void write(int b) {
+                largestWrite[0] = Math.max(largestWrite[0], 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                largestWrite[0] = Math.max(largestWrite[0], len);
+            }
+        };
+        VerificationExporter exporter = exporter(10_000);
+        exporter.export(new VerificationQuery(), VerificationExporter.Format.NDJSON, false, client);
+
+        assertTrue(largestWrite[0] <= 4096, String.valueOf(largestWrite[0]));
+        assertEquals(10_000L, exporter.getMetrics().get("rows"));
+    }
+
+    @Test
+    void clientDisconnectSurfacesAsIOException() {
+        OutputStream client = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        VerificationExporter exporter = exporter(10_000);
+
+        assertThrows(IOException.class, () ->
+                exporter.export(new VerificationQuery(), VerificationExporter.Format.NDJSON, false, client));
+        assertEquals(1L, exporter.getMetrics().get("failures"));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.Verification;
+import com.example.esp32detection.repository.VerificationRepository;
+
+class VerificationLogWriterTest {
+
+    /**
+     * Records each batch; the writer can be held at a gate, and writes made to fail a
+     * number of times.
+     */
+    private static final class RecordingRepository extends VerificationRepository {
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final List<String> written = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger failuresLeft = new AtomicInteger();
+        volatile CountDownLatch gate = new CountDownLatch(0);
+
+        RecordingRepository() {
+            super(null);
+        }
+
+        @Override
+        public void saveAll(List<Verification> verifications) {
+            try {
+                // Only the writer thread is held; callers writing an overflow go straight through
+                if (Thread.currentThread().getName().equals("verification-log-writer")) {
+                    gate.await(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("database unavailable");
+            }
+            batchSizes.add(verifications.size());
+            for (Verification verification : verifications) {
+                written.add(verification.getIdNumber());
+            }
+        }
+    }
+
+    private static Verification verification(int i) {
+        Verification verification = new Verification("USER " + i, "RA" + i, 0.9, "GRANTED");
+        verification.setTimestamp(LocalDateTime.now());
+        return verification;
+    }
+
+    @Test
+    void waitingEntriesAreWrittenInBatchesAndFlushedOnShutdown() {
+        RecordingRepository repository = new RecordingRepository();
+        repository.gate = new CountDownLatch(1);
+        VerificationLogWriter writer = new VerificationLogWriter(repository, 1000, 50, 1000, 2000, 0,
+                VerificationLogWriter.Durability.FIRE_AND_FORGET);
+
+        for (int i = 0; i < 120; i++) {
+            writer.submit(verification(i));
+        }
+        repository.gate.countDown();
+        long start = System.nanoTime();
+        writer.shutdown();
+
+        // The writer is woken rather than left to wait out its flush interval
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(120, repository.written.size());
+        assertEquals(50, repository.batchSizes.get(0));
+        assertTrue(repository.batchSizes.size() <= 4, repository.batchSizes.toString());
+        assertEquals(120L, writer.getMetrics().get("written"));
+        assertEquals(0, writer.getMetrics().get("queueDepth"));
+    }
+
+    @Test
+    void waitForFlushReturnsOnceTheEntryIsWritten() {
+        RecordingRepository repository = new RecordingRepository();
+        VerificationLogWriter writer = new VerificationLogWriter(repository, 10, 10, 5, 2000, 0,
+                VerificationLogWriter.Durability.WAIT_FOR_FLUSH);
+
+        writer.submit(verification(1));
+
+        assertEquals(List.of("RA1"), repository.written);
+        writer.shutdown();
+    }
+
+    @Test
+    void fullBufferWaitsForTheWriterBeforeWritingDirectly() {
+        RecordingRepository repository = new RecordingRepository();
+        repository.gate = new CountDownLatch(1);
+        VerificationLogWriter writer = new VerificationLogWriter(repository, 2, 1, 1000, 2000, 0,
+                VerificationLogWriter.Durability.FIRE_AND_FORGET);
+
+        // The writer holds a batch of one at the gate and two entries fill the buffer
+        writer.submit(verification(0));
+        sleep(50);
+        writer.submit(verification(1));
+        writer.submit(verification(2));
+        new Thread(() -> {
+            sleep(100);
+            repository.gate.countDown();
+        }).start();
+        // Room opens once the writer takes its next entry, well within its interval
+        writer.submit(verification(3));
+        writer.shutdown();
+
+        assertEquals(List.of("RA0", "RA1", "RA2", "RA3"), repository.written);
+        assertEquals(1L, writer.getMetrics().get("waitedForRoom"));
+        assertEquals(0L, writer.getMetrics().get("overflows"));
+    }
+
+    @Test
+    void fullBufferWritesDirectlyAndFailedBatchesAreRetried() {
+        RecordingRepository repository = new RecordingRepository();
+        repository.gate = new CountDownLatch(1);
+        VerificationLogWriter writer = new VerificationLogWriter(repository, 2, 100, 5, 2000, 2,
+                VerificationLogWriter.Durability.FIRE_AND_FORGET);
+
+        // The writer holds one entry at the gate; two fill the buffer and the rest overflow
+        for (int i = 0; i < 6; i++) {
+            writer.submit(verification(i));
+            if (i == 0) sleep(50);
+        }
+        repository.gate.countDown();
+        repository.failuresLeft.set(1);
+        writer.shutdown();
+
+        assertEquals(6, repository.written.size());
+        assertTrue((Long) writer.getMetrics().get("overflows") >= 1);
+        assertEquals(0L, writer.getMetrics().get("dropped"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
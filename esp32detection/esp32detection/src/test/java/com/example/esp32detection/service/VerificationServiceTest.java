@@ -0,0 +1,110 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.Verification;
+import com.example.esp32detection.model.VerificationPage;
+import com.example.esp32detection.model.VerificationQuery;
+import com.example.esp32detection.repository.VerificationRepository;
+
+class VerificationServiceTest {
+
+    /**
+     * Pages an in-memory log the way findPage's SQL does: by id descending, below the cursor.
+     */
+    private static final class InMemoryRepository extends VerificationRepository {
+        final List<Verification> rows = new ArrayList<>();
+        VerificationQuery lastQuery;
+        int lastLimit;
+
+        InMemoryRepository(int count) {
+            super(null);
+            for (int id = count; id >= 1; id--) {
+                Verification verification = new Verification("USER " + id, "RA" + (id % 7), 0.9,
+                        id % 3 == 0 ? "DENIED" : "GRANTED");
+                verification.setId(id);
+                rows.add(verification);
+            }
+        }
+
+        @Override
+        public List<Verification> findPage(VerificationQuery query, int limit) {
+            lastQuery = query;
+            lastLimit = limit;
+            List<Verification> page = new ArrayList<>();
+            for (Verification row : rows) {
+                if (page.size() == limit) break;
+                if (query.getBefore() != null && row.getId() >= query.getBefore()) continue;
+                if (query.getStatus() != null && !query.getStatus().equals(row.getVerificationStatus())) continue;
+                page.add(row);
+            }
+            return page;
+        }
+    }
+
+    private static VerificationService service(InMemoryRepository repository) {
+        return new VerificationService(repository, null);
+    }
+
+    @Test
+    void cursorWalksEveryRowOnceAndEndsWithoutOne() {
+        InMemoryRepository repository = new InMemoryRepository(250);
+        VerificationService service = service(repository);
+
+        List<Integer> seen = new ArrayList<>();
+        VerificationQuery query = new VerificationQuery();
+        query.setLimit(100);
+        int pages = 0;
+        while (true) {
+            VerificationPage page = service.getVerifications(query);
+            pages++;
+            page.getItems().forEach(row -> seen.add(row.getId()));
+            if (page.getNextCursor() == null) break;
+            query.setBefore(page.getNextCursor());
+        }
+
+        assertEquals(3, pages);
+        assertEquals(250, seen.size());
+        assertEquals(250, seen.get(0));
+        assertEquals(1, seen.get(249));
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoCursor() {
+        VerificationService service = service(new InMemoryRepository(100));
+        VerificationQuery query = new VerificationQuery();
+        query.setLimit(100);
+
+        VerificationPage page = service.getVerifications(query);
+
+        assertEquals(100, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void limitIsClampedAndFiltersAreNormalized() {
+        InMemoryRepository repository = new InMemoryRepository(10);
+        VerificationService service = service(repository);
+        VerificationQuery query = new VerificationQuery();
+        query.setLimit(1_000_000);
+        query.setStatus(" denied ");
+        query.setIdNumber("");
+
+        VerificationPage page = service.getVerifications(query);
+
+        assertEquals(VerificationService.MAX_PAGE_SIZE + 1, repository.lastLimit);
+        assertEquals("DENIED", repository.lastQuery.getStatus());
+        assertNull(repository.lastQuery.getIdNumber());
+        assertEquals(3, page.getItems().size());
+
+        query.setLimit(null);
+        service.getVerifications(query);
+        assertEquals(VerificationService.DEFAULT_PAGE_SIZE + 1, repository.lastLimit);
+    }
+}
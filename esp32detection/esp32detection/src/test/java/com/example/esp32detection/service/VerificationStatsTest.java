@@ -0,0 +1,98 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class VerificationStatsTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L * 3_600_000L);
+    private final VerificationStats stats = new VerificationStats(60, 24, 10, now::get);
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> window(Map<String, Object> snapshot, String name) {
+        return (Map<String, Object>) snapshot.get(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> totals(Map<String, Object> window) {
+        return (Map<String, Object>) window.get("totals");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> buckets(Map<String, Object> window) {
+        return (List<Map<String, Object>>) window.get("buckets");
+    }
+
+    @Test
+    void countsLandInTheCurrentMinuteAndHour() {
+        stats.record("GRANTED", 0.91);
+        stats.record("GRANTED", 1.0);
+        stats.record("DENIED", 0.42);
+        stats.record("NOT_REGISTERED", null);
+        stats.record("SOMETHING_ELSE", 0.5);
+
+        Map<String, Object> snapshot = stats.snapshot();
+        Map<String, Object> minute = window(snapshot, "perMinute");
+        assertEquals(2L, totals(minute).get("GRANTED"));
+        assertEquals(1L, totals(minute).get("DENIED"));
+        assertEquals(1L, totals(minute).get("NOT_REGISTERED"));
+        assertEquals(0.5, (double) minute.get("grantedRatio"), 1e-9);
+        assertEquals(List.of(0L, 0L, 0L, 0L, 1L, 0L, 0L, 0L, 0L, 2L), minute.get("scoreHistogram"));
+
+        List<Map<String, Object>> series = buckets(minute);
+        assertEquals(60, series.size());
+        assertEquals(2L, series.get(59).get("GRANTED"));
+        assertEquals(0L, series.get(58).get("GRANTED"));
+        assertEquals(2L, totals(window(snapshot, "perHour")).get("GRANTED"));
+    }
+
+    @Test
+    void oldPeriodsRollOutOfTheWindow() {
+        stats.record("DENIED", 0.1);
+        now.addAndGet(30 * 60_000L);
+        stats.record("GRANTED", 0.9);
+
+        Map<String, Object> minute = window(stats.snapshot(), "perMinute");
+        assertEquals(1L, totals(minute).get("DENIED"));
+        assertEquals(1L, buckets(minute).get(29).get("DENIED"));
+
+        // An hour after the first record its minute slot has been reused
+        now.addAndGet(30 * 60_000L);
+        stats.record("GRANTED", 0.9);
+        Map<String, Object> snapshot = stats.snapshot();
+        minute = window(snapshot, "perMinute");
+        assertEquals(0L, totals(minute).get("DENIED"));
+        assertEquals(2L, totals(minute).get("GRANTED"));
+        assertEquals(1L, totals(window(snapshot, "perHour")).get("DENIED"));
+
+        now.addAndGet(24 * 3_600_000L);
+        assertEquals(0L, totals(window(stats.snapshot(), "perHour")).get("GRANTED"));
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws InterruptedException {
+        int threads = 8;
+        int perThread = 50_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    stats.record(i % 2 == 0 ? "GRANTED" : "DENIED", (i % 100) / 100.0);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) worker.join();
+
+        Map<String, Object> minute = window(stats.snapshot(), "perMinute");
+        assertEquals((long) threads * perThread / 2, totals(minute).get("GRANTED"));
+        assertEquals((long) threads * perThread / 2, totals(minute).get("DENIED"));
+    }
+}
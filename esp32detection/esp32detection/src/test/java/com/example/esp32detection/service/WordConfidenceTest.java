@@ -0,0 +1,49 @@
+package com.example.esp32detection.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.esp32detection.model.IDCardData;
+import com.example.esp32detection.model.OcrResult;
+import com.example.esp32detection.model.OcrWord;
+
+class WordConfidenceTest {
+
+    private static OcrWord word(String text, float confidence) {
+        return new OcrWord(text, confidence, 0, 0, 10, 10);
+    }
+
+    @Test
+    void valueIsAsConfidentAsItsWeakestWord() {
+        WordConfidence confidence = new WordConfidence(List.of(
+                word("Name", 96), word(":", 40), word("JOHN", 91.4f), word("DOE", 72.6f),
+                word("RA2211003010123", 88)));
+
+        assertEquals(73, confidence.of("JOHN DOE"));
+        // Cut to twelve digits by the parser, still traced to the word it came from
+        assertEquals(88, confidence.of("RA221100301012"));
+        assertEquals(OcrResult.UNKNOWN_CONFIDENCE, confidence.of("B +ve"));
+        assertEquals(OcrResult.UNKNOWN_CONFIDENCE, confidence.of(""));
+    }
+
+    @Test
+    void parserAttachesConfidenceToParsedFields() {
+        String text = "FACULTY Name : JOHN DOE Programme : B.Tech (CSE) Register No. : RA2211003010123";
+        List<OcrWord> words = List.of(
+                word("FACULTY", 95), word("Name", 93), word(":", 60), word("JOHN", 90), word("DOE", 84),
+                word("Programme", 92), word(":", 60), word("B.Tech", 89), word("(CSE)", 55),
+                word("Register", 94), word("No.", 90), word(":", 60), word("RA2211003010123", 97));
+
+        IDCardData data = new IDCardParserService().parseIDCardText(new OcrResult(text, null, Map.of(), words, Map.of()));
+
+        assertEquals("JOHN DOE", data.getName());
+        assertEquals(84, data.getFieldConfidences().get("name"));
+        assertEquals(97, data.getFieldConfidences().get("registerNumber"));
+        assertTrue(data.getFieldConfidences().get("programme") <= 55);
+    }
+}